@@ -11,6 +11,10 @@ import eu.arrowhead.client.services.model.ArrowheadSystem;
 import eu.arrowhead.client.services.request.ServiceRegistryEntry;
 import eu.arrowhead.client.services.request.ServiceRegistryQuery;
 import eu.arrowhead.client.services.response.ServiceQueryResult;
+import eu.arrowhead.client.transport.AsyncTransportAdapter;
+import eu.arrowhead.client.transport.CircuitBreakerConfiguration;
+import eu.arrowhead.client.transport.ConnectionConfiguration;
+import eu.arrowhead.client.transport.HedgingPolicy;
 import eu.arrowhead.client.transport.ProtocolConfiguration;
 import eu.arrowhead.client.transport.Transport;
 import eu.arrowhead.client.transport.TransportException;
@@ -30,18 +34,32 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class ArrowheadClientBuilder extends SSLContextBuilder<ArrowheadClientBuilder>
 {
     private final Logger logger = LogManager.getLogger();
 
-    private final Transport transport;
+    private Transport transport;
     private SystemEndpointHolder endpointHolder;
     private ServiceRegistry serviceRegistry;
     private Orchestrator orchestrator;
     private ServiceRegistryOnboarding serviceRegistryOnboarding;
     private SystemRegistryOnboarding systemRegistryOnboarding;
+    private ConnectionConfiguration connectionConfiguration;
+    private final Map<CoreSystems, ConnectionConfiguration> systemConnectionConfigurations = new EnumMap<>(CoreSystems.class);
+    private CircuitBreakerConfiguration circuitBreakerConfiguration;
+    private final Map<CoreSystems, CircuitBreakerConfiguration> systemCircuitBreakerConfigurations = new EnumMap<>(CoreSystems.class);
+    private Executor executor;
+    private ServiceQueryCache queryCache;
+    private IdempotentRequests idempotentRequests;
+    private HedgingPolicy hedging;
+    private long endpointRefreshPeriod;
+    private TimeUnit endpointRefreshUnit;
 
     private ArrowheadClientBuilder(final ProtocolConfiguration protocol, final Transport transport)
     {
@@ -126,6 +144,100 @@ public class ArrowheadClientBuilder extends SSLContextBuilder<ArrowheadClientBui
         return this;
     }
 
+    public ArrowheadClientBuilder withConnectionConfiguration(final ConnectionConfiguration connectionConfiguration)
+    {
+        this.connectionConfiguration = connectionConfiguration;
+        return this;
+    }
+
+    public ArrowheadClientBuilder withConnectionConfiguration(final CoreSystems system, final ConnectionConfiguration connectionConfiguration)
+    {
+        this.systemConnectionConfigurations.put(system, connectionConfiguration);
+        return this;
+    }
+
+    public ArrowheadClientBuilder withCircuitBreaker(final CircuitBreakerConfiguration circuitBreakerConfiguration)
+    {
+        this.circuitBreakerConfiguration = circuitBreakerConfiguration;
+        return this;
+    }
+
+    public ArrowheadClientBuilder withCircuitBreaker(final CoreSystems system, final CircuitBreakerConfiguration circuitBreakerConfiguration)
+    {
+        this.systemCircuitBreakerConfigurations.put(system, circuitBreakerConfiguration);
+        return this;
+    }
+
+    /**
+     * Executor running the asynchronous variants of the client methods if the transport itself is blocking.
+     */
+    public ArrowheadClientBuilder withExecutor(final Executor executor)
+    {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Cache for ServiceRegistry queries, including the lookups of the core systems while building. By default nothing is cached and
+     * every query goes to the ServiceRegistry; {@link ServiceQueryCache#shared()} shares one cache between all clients of this JVM.
+     */
+    public ArrowheadClientBuilder withQueryCache(final ServiceQueryCache queryCache)
+    {
+        this.queryCache = queryCache;
+        return this;
+    }
+
+    /**
+     * Table of completed register and remove calls of the registry clients, see {@link IdempotentRequests}. By default every call is
+     * sent; {@link IdempotentRequests#shared()} shares one table between all clients of this JVM.
+     */
+    public ArrowheadClientBuilder withIdempotentRequests(final IdempotentRequests idempotentRequests)
+    {
+        this.idempotentRequests = idempotentRequests;
+        return this;
+    }
+
+    /**
+     * Periodically re-resolves the core systems through the ServiceRegistry in the background and updates the
+     * {@link SystemEndpointHolder} if one moved. This also keeps their ServiceRegistry queries warm in the query cache.
+     */
+    public ArrowheadClientBuilder withEndpointRefresh(final long period, final TimeUnit unit)
+    {
+        this.endpointRefreshPeriod = period;
+        this.endpointRefreshUnit = unit;
+        return this;
+    }
+
+    /**
+     * Hedges ServiceRegistry queries which take longer than usual. Hedges go to another replica of the ServiceRegistry if one was
+     * added with {@link SystemEndpointHolder#addReplica(CoreSystems, URI)}.
+     */
+    public ArrowheadClientBuilder withHedging(final HedgingPolicy hedging)
+    {
+        this.hedging = hedging;
+        return this;
+    }
+
+    private void applyClientOptions(final Object instance)
+    {
+        if (instance instanceof ServiceClientImpl && Objects.nonNull(idempotentRequests))
+        {
+            ((ServiceClientImpl) instance).setIdempotentRequests(idempotentRequests);
+        }
+        if (!(instance instanceof ServiceRegistryImpl))
+        {
+            return;
+        }
+        if (Objects.nonNull(queryCache))
+        {
+            ((ServiceRegistryImpl) instance).setQueryCache(queryCache);
+        }
+        if (Objects.nonNull(hedging))
+        {
+            ((ServiceRegistryImpl) instance).setHedging(hedging, endpointHolder);
+        }
+    }
+
     private Orchestrator getOrchestrator()
     {
         final URI orchestratorUri;
@@ -145,38 +257,50 @@ public class ArrowheadClientBuilder extends SSLContextBuilder<ArrowheadClientBui
                 }
 
                 serviceRegistry = new ServiceRegistryImpl(null, serviceRegistryUri, transport, this);
+                applyClientOptions(serviceRegistry);
             }
 
             // query service registry for orchestration service
             orchestratorUri = getSystemUri(ServiceDefinitions.ORCHESTRATION, Orchestrator.SYSTEM_SUFFIX);
+            endpointHolder.addIfAbsent(CoreSystems.ORCHESTRATOR, orchestratorUri);
         }
 
         return new OrchestratorImpl(null, orchestratorUri, transport, this);
     }
 
-    private URI getSystemUri(final ServiceDefinitions definition, final String serviceSuffix)
+    static ServiceRegistryQuery systemQuery(final ProtocolConfiguration protocol, final ServiceDefinitions definition)
     {
-        try
+        final String serviceDefinition = definition.getServiceDefinition(protocol);
+        final String serviceInterface = ServiceInterfaces.JSON.forProtocol(protocol);
+        final ServiceRegistryQuery serviceRegistryQuery = new ServiceRegistryQuery(new ArrowheadService(serviceDefinition, serviceInterface));
+        serviceRegistryQuery.setPingProviders(true);
+        return serviceRegistryQuery;
+    }
+
+    static URI systemUri(final ProtocolConfiguration protocol, final ServiceQueryResult queryResult, final ServiceDefinitions definition,
+                         final String serviceSuffix) throws UnknownHostException
+    {
+        if (queryResult.getServiceQueryData().isEmpty())
         {
-            final String serviceDefinition = definition.getServiceDefinition(protocol);
-            final String serviceInterface = ServiceInterfaces.JSON.forProtocol(protocol);
-            final ServiceRegistryQuery serviceRegistryQuery = new ServiceRegistryQuery(new ArrowheadService(serviceDefinition, serviceInterface));
-            serviceRegistryQuery.setPingProviders(true);
+            throw new RuntimeException("No "+definition+" found");
+        }
 
-            final ServiceQueryResult queryResult = serviceRegistry.query(serviceRegistryQuery);
-            if (queryResult.getServiceQueryData().isEmpty())
-            {
-                throw new RuntimeException("No "+definition+" found");
-            }
+        final ServiceRegistryEntry registryEntry = queryResult.getServiceQueryData().get(0);
+        final ArrowheadSystem provider = registryEntry.getProvider();
 
-            final ServiceRegistryEntry registryEntry = queryResult.getServiceQueryData().get(0);
-            final ArrowheadSystem provider = registryEntry.getProvider();
+        final UriUtils uriUtils = new UriUtils(protocol, provider.getAddress(), provider.getPort(), registryEntry.getServiceURI());
+        final UriBuilder uriBuilder = UriComponentsBuilder.fromUri(uriUtils.copyBuild());
+        uriBuilder.replacePath(serviceSuffix);
 
-            final UriUtils uriUtils = new UriUtils(protocol, provider.getAddress(), provider.getPort(), registryEntry.getServiceURI());
-            final UriBuilder uriBuilder = UriComponentsBuilder.fromUri(uriUtils.copyBuild());
-            uriBuilder.replacePath(serviceSuffix);
+        return uriBuilder.build();
+    }
 
-            return uriBuilder.build();
+    private URI getSystemUri(final ServiceDefinitions definition, final String serviceSuffix)
+    {
+        try
+        {
+            final ServiceQueryResult queryResult = serviceRegistry.query(systemQuery(protocol, definition));
+            return systemUri(protocol, queryResult, definition, serviceSuffix);
         }
         catch (TransportException | UnknownHostException e)
         {
@@ -194,31 +318,56 @@ public class ArrowheadClientBuilder extends SSLContextBuilder<ArrowheadClientBui
 
     public ArrowheadClient build()
     {
+        if (Objects.nonNull(executor))
+        { transport = AsyncTransportAdapter.adapt(transport, executor); }
+        if (Objects.nonNull(connectionConfiguration))
+        { transport.setConnectionConfiguration(connectionConfiguration); }
+        systemConnectionConfigurations.forEach(transport::setConnectionConfiguration);
+        if (Objects.nonNull(circuitBreakerConfiguration))
+        { transport.getCircuitBreakers().configure(circuitBreakerConfiguration); }
+        systemCircuitBreakerConfigurations.forEach(transport.getCircuitBreakers()::configure);
+        transport.setSystemEndpoints(endpointHolder);
         buildSslContext();
 
+        applyClientOptions(serviceRegistry);
         final ArrowheadClientImpl client = new ArrowheadClientImpl(endpointHolder, transport);
         orchestrator = getOrchestrator();
 
-        client.setDeviceRegistry(createImpl(DeviceRegistryImpl.class, client, ServiceDefinitions.DEVICE_REGISTRY, DeviceRegistry.SYSTEM_SUFFIX));
-        client.setSystemRegistry(createImpl(SystemRegistryImpl.class, client, ServiceDefinitions.SYSTEM_REGISTRY, SystemRegistry.SYSTEM_SUFFIX));
-        client.setServiceRegistry(createImpl(ServiceRegistryImpl.class, client, ServiceDefinitions.SERVICE_REGISTRY, ServiceRegistry.SYSTEM_SUFFIX));
-        client.setOnboardingController(createImpl(OnboardingControllerImpl.class, client, ServiceDefinitions.ONBOARDING, OnboardingController.SYSTEM_SUFFIX));
-        client.setOrchestrator(createImpl(OrchestratorImpl.class, client, ServiceDefinitions.ORCHESTRATION, Orchestrator.SYSTEM_SUFFIX));
-        client.setEventHandler(createImpl(EventHandlerImpl.class, client, ServiceDefinitions.EVENT_SUBSCRIPTION, EventHandler.SYSTEM_SUFFIX));
+        client.setDeviceRegistry(createImpl(DeviceRegistryImpl.class, client, CoreSystems.DEVICE_REGISTRY,
+                                            ServiceDefinitions.DEVICE_REGISTRY, DeviceRegistry.SYSTEM_SUFFIX));
+        client.setSystemRegistry(createImpl(SystemRegistryImpl.class, client, CoreSystems.SYSTEM_REGISTRY,
+                                            ServiceDefinitions.SYSTEM_REGISTRY, SystemRegistry.SYSTEM_SUFFIX));
+        client.setServiceRegistry(createImpl(ServiceRegistryImpl.class, client, CoreSystems.SERVICE_REGISTRY,
+                                             ServiceDefinitions.SERVICE_REGISTRY, ServiceRegistry.SYSTEM_SUFFIX));
+        client.setOnboardingController(createImpl(OnboardingControllerImpl.class, client, CoreSystems.ONBOARDING_CONTROLLER,
+                                                  ServiceDefinitions.ONBOARDING, OnboardingController.SYSTEM_SUFFIX));
+        client.setOrchestrator(createImpl(OrchestratorImpl.class, client, CoreSystems.ORCHESTRATOR,
+                                          ServiceDefinitions.ORCHESTRATION, Orchestrator.SYSTEM_SUFFIX));
+        client.setEventHandler(createImpl(EventHandlerImpl.class, client, CoreSystems.EVENT_HANDLER,
+                                          ServiceDefinitions.EVENT_SUBSCRIPTION, EventHandler.SYSTEM_SUFFIX));
 
         client.setServiceRegistryOnboarding(serviceRegistryOnboarding);
         client.setSystemRegistryOnboarding(systemRegistryOnboarding);
 
+        if (endpointRefreshPeriod > 0)
+        {
+            SystemEndpointRefresher.schedule(protocol, serviceRegistry, endpointHolder, endpointRefreshPeriod, endpointRefreshUnit);
+        }
+
         return client;
     }
 
-    private <T> T createImpl(final Class<T> cls, final ArrowheadClient client, final ServiceDefinitions definition, final String suffix)
+    private <T> T createImpl(final Class<T> cls, final ArrowheadClient client, final CoreSystems system, final ServiceDefinitions definition,
+                             final String suffix)
     {
         try
         {
             final URI uri = getSystemUri(definition, suffix);
+            endpointHolder.addIfAbsent(system, uri);
             final Constructor<T> constructor = cls.getDeclaredConstructor(ArrowheadClient.class, URI.class, Transport.class, SSLContextBuilder.class);
-            return constructor.newInstance(client, uri, transport, this);
+            final T instance = constructor.newInstance(client, uri, transport, this);
+            applyClientOptions(instance);
+            return instance;
         }
         catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e)
         {
@@ -8,6 +8,7 @@ import eu.arrowhead.client.services.request.DeviceRegistryEntry;
 import eu.arrowhead.onboarding.impl.SSLContextBuilder;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public class DeviceRegistryImpl extends ServiceClientImpl implements DeviceRegistry
 {
@@ -20,12 +21,28 @@ public class DeviceRegistryImpl extends ServiceClientImpl implements DeviceRegis
     @Override
     public DeviceRegistryEntry registerSystem(final DeviceRegistryEntry request) throws TransportException
     {
-        return transport.post(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REGISTER_SUFFIX), request);
+        return idempotentRequests.invoke(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                         () -> transport.post(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REGISTER_SUFFIX), request));
     }
 
     @Override
     public DeviceRegistryEntry removeSystem(final DeviceRegistryEntry request) throws TransportException
     {
-        return transport.post(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REMOVE_SUFFIX), request);
+        return idempotentRequests.invoke(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                         () -> transport.post(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REMOVE_SUFFIX), request));
+    }
+
+    @Override
+    public CompletableFuture<DeviceRegistryEntry> registerSystemAsync(final DeviceRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                              () -> asyncTransport.postAsync(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REGISTER_SUFFIX), request));
+    }
+
+    @Override
+    public CompletableFuture<DeviceRegistryEntry> removeSystemAsync(final DeviceRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                              () -> asyncTransport.postAsync(DeviceRegistryEntry.class, uriUtils.copyBuild(DeviceRegistry.METHOD_REMOVE_SUFFIX), request));
     }
 }
@@ -0,0 +1,280 @@
+package eu.arrowhead.client.impl;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.arrowhead.client.transport.SingleFlight;
+import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.client.transport.TransportInvocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Makes register and remove calls idempotent on the client side. Every call gets a key derived from the registry, the operation and
+ * the content of the entry. The <code>id</code> fields are not part of the content: the registries assign them, and callers copy
+ * them into their entries after a register and clear them after a remove, so the same entry must map to the same key either way.
+ * While a call is in flight, calls with the same key wait for its result instead of sending the entry again; once it completed, its
+ * result is kept for a while and returned to repeated calls without contacting the registry. A completed call forgets its inverse
+ * operation, so removing an entry allows registering it again and vice versa.
+ * <p>
+ * Callers with the same key receive the same result object. Registry clients use {@link #disabled()} unless given a table.
+ */
+public class IdempotentRequests
+{
+    public static final long DEFAULT_TTL_MILLIS = 120000;
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private static final IdempotentRequests SHARED = new IdempotentRequests(DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_ENTRIES);
+    private static final ObjectMapper MAPPER = canonicalMapper();
+    private static final String ID_FIELD = "id";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Logger logger = LogManager.getLogger();
+    private final SingleFlight<String, Object> inFlight = new SingleFlight<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Completed> completed;
+    private final AtomicLong shortCircuits = new AtomicLong();
+
+    public IdempotentRequests(final long ttl, final TimeUnit ttlUnit, final int maxEntries)
+    {
+        this.ttlMillis = ttlUnit.toMillis(ttl);
+        this.maxEntries = maxEntries;
+        this.completed = new LinkedHashMap<String, Completed>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Completed> eldest)
+            {
+                return size() > IdempotentRequests.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * A table shared by all registry clients of this JVM which opt in with
+     * {@link ServiceClientImpl#setIdempotentRequests(IdempotentRequests)} or
+     * {@link ArrowheadClientBuilder#withIdempotentRequests(IdempotentRequests)}.
+     */
+    public static IdempotentRequests shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Remembers nothing, every call is sent.
+     */
+    public static IdempotentRequests disabled()
+    {
+        return new IdempotentRequests(0, TimeUnit.MILLISECONDS, 0);
+    }
+
+    public boolean isEnabled()
+    {
+        return ttlMillis > 0 && maxEntries > 0;
+    }
+
+    /**
+     * @return hex encoded SHA-256 of registry, operation and the canonical JSON of the request without its <code>id</code> fields,
+     * or null if the request cannot be serialized
+     */
+    public static String key(final URI registry, final String operation, final Object request)
+    {
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(registry.toASCIIString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(MAPPER.writeValueAsBytes(request));
+
+            final byte[] hash = digest.digest();
+            final char[] chars = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++)
+            {
+                chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(chars);
+        }
+        catch (final JsonProcessingException | NoSuchAlgorithmException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @param inverseOperation operation undoing this one, its completed calls with the same entry are forgotten once this one
+     *                         completed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T invoke(final URI registry, final String operation, final String inverseOperation, final Object request,
+                        final TransportInvocation<T> invocation) throws TransportException
+    {
+        final String key = isEnabled() ? key(registry, operation, request) : null;
+        if (Objects.isNull(key))
+        {
+            return invocation.invoke();
+        }
+
+        final Completed previous = lookup(key);
+        if (Objects.nonNull(previous))
+        {
+            return (T) previous.result;
+        }
+
+        final String inverseKey = key(registry, inverseOperation, request);
+        final Object result = inFlight.invoke(key, () -> {
+            final T value = invocation.invoke();
+            complete(key, inverseKey, value);
+            return value;
+        });
+        return (T) result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> invokeAsync(final URI registry, final String operation, final String inverseOperation,
+                                                final Object request, final Supplier<CompletableFuture<T>> invocation)
+    {
+        final String key = isEnabled() ? key(registry, operation, request) : null;
+        if (Objects.isNull(key))
+        {
+            return invocation.get();
+        }
+
+        final Completed previous = lookup(key);
+        if (Objects.nonNull(previous))
+        {
+            return CompletableFuture.completedFuture((T) previous.result);
+        }
+
+        final String inverseKey = key(registry, inverseOperation, request);
+        return inFlight.invokeAsync(key, () -> invocation.get().thenApply(value -> {
+            complete(key, inverseKey, value);
+            return (Object) value;
+        })).thenApply(value -> (T) value);
+    }
+
+    private Completed lookup(final String key)
+    {
+        final Completed previous;
+        synchronized (completed)
+        {
+            previous = completed.get(key);
+            if (Objects.isNull(previous))
+            {
+                return null;
+            }
+            if (previous.expiresAt <= System.currentTimeMillis())
+            {
+                completed.remove(key);
+                return null;
+            }
+        }
+        shortCircuits.incrementAndGet();
+        logger.info("Request {} already completed, not sending it again", key);
+        return previous;
+    }
+
+    private void complete(final String key, final String inverseKey, final Object result)
+    {
+        synchronized (completed)
+        {
+            if (Objects.nonNull(inverseKey))
+            {
+                completed.remove(inverseKey);
+            }
+            completed.put(key, new Completed(result, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (completed)
+        {
+            completed.clear();
+        }
+    }
+
+    public int size()
+    {
+        synchronized (completed)
+        {
+            return completed.size();
+        }
+    }
+
+    /**
+     * @return number of calls answered from the table of completed calls
+     */
+    public long getShortCircuitCount()
+    {
+        return shortCircuits.get();
+    }
+
+    private static ObjectMapper canonicalMapper()
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+        mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector()
+        {
+            @Override
+            public boolean hasIgnoreMarker(final AnnotatedMember member)
+            {
+                return ID_FIELD.equals(member.getName()) || super.hasIgnoreMarker(member);
+            }
+        });
+        return mapper;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("IdempotentRequests [");
+        sb.append("ttlMillis=").append(ttlMillis);
+        sb.append(", maxEntries=").append(maxEntries);
+        sb.append(", size=").append(size());
+        sb.append(", inFlight=").append(inFlight.getInFlightCount());
+        sb.append(", shortCircuits=").append(shortCircuits);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static class Completed
+    {
+        private final Object result;
+        private final long expiresAt;
+
+        private Completed(final Object result, final long expiresAt)
+        {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import eu.arrowhead.client.services.response.OnboardingResponse;
 import eu.arrowhead.onboarding.impl.SSLContextBuilder;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public class OnboardingControllerImpl extends ServiceClientImpl implements OnboardingController
 {
@@ -36,4 +37,22 @@ public class OnboardingControllerImpl extends ServiceClientImpl implements Onboa
     {
         return transport.post(OnboardingResponse.class, uriUtils.copyBuild(METHOD_CERTIFICATE_SUFFIX), request);
     }
+
+    @Override
+    public CompletableFuture<OnboardingResponse> plainAsync(final OnboardingRequest request)
+    {
+        return asyncTransport.postAsync(OnboardingResponse.class, uriUtils.copyBuild(METHOD_PLAIN_SUFFIX), request);
+    }
+
+    @Override
+    public CompletableFuture<OnboardingResponse> withSharedKeyAsync(final OnboardingWithSharedKeyRequest request)
+    {
+        return asyncTransport.postAsync(OnboardingResponse.class, uriUtils.copyBuild(METHOD_SHARED_KEY_SUFFIX), request);
+    }
+
+    @Override
+    public CompletableFuture<OnboardingResponse> withCertificateAsync(final OnboardingWithCertificateRequest request)
+    {
+        return asyncTransport.postAsync(OnboardingResponse.class, uriUtils.copyBuild(METHOD_CERTIFICATE_SUFFIX), request);
+    }
 }
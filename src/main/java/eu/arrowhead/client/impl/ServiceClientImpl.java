@@ -1,19 +1,27 @@
 package eu.arrowhead.client.impl;
 
 import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.client.transport.AsyncTransport;
+import eu.arrowhead.client.transport.AsyncTransportAdapter;
 import eu.arrowhead.client.transport.Transport;
 import eu.arrowhead.client.services.ArrowheadClientFacet;
 import eu.arrowhead.client.utils.UriUtils;
 import eu.arrowhead.onboarding.impl.SSLContextBuilder;
 
 import java.net.URI;
+import java.util.Objects;
 
 public class ServiceClientImpl implements ArrowheadClientFacet
 {
+    protected static final String REGISTER = "register";
+    protected static final String REMOVE = "remove";
+
     protected final ArrowheadClient client;
     protected final UriUtils uriUtils;
     protected final Transport transport;
+    protected final AsyncTransport asyncTransport;
     protected final SSLContextBuilder<?> sslContextBuilder;
+    protected volatile IdempotentRequests idempotentRequests = IdempotentRequests.disabled();
 
     public ServiceClientImpl(final ArrowheadClient client, final URI uri, final Transport transport, final SSLContextBuilder<?> sslContextBuilder)
     {
@@ -21,9 +29,24 @@ public class ServiceClientImpl implements ArrowheadClientFacet
         this.client = client;
         this.uriUtils = new UriUtils(uri);
         this.transport = transport;
+        this.asyncTransport = AsyncTransportAdapter.adapt(transport);
         this.sslContextBuilder = sslContextBuilder;
     }
 
+    public IdempotentRequests getIdempotentRequests()
+    {
+        return idempotentRequests;
+    }
+
+    /**
+     * Table of completed register and remove calls, see {@link IdempotentRequests}. By default every call is sent. Not used by
+     * clients without such calls.
+     */
+    public void setIdempotentRequests(final IdempotentRequests idempotentRequests)
+    {
+        this.idempotentRequests = Objects.requireNonNull(idempotentRequests);
+    }
+
     @Override
     public ArrowheadClient getClient()
     {
@@ -0,0 +1,446 @@
+package eu.arrowhead.client.impl;
+
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.request.ServiceRegistryQuery;
+import eu.arrowhead.client.services.response.ServiceQueryResult;
+import eu.arrowhead.client.utils.ThreadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of {@link ServiceQueryResult}s with a time to live and least-recently-used eviction. Queries are normalized, so the
+ * order of interfaces or metadata does not matter. Entries of a service definition are invalidated whenever a service with this
+ * definition is registered or removed through this client.
+ * <p>
+ * Entries stored together with a refresher are revalidated in the background: when read within the refresh-ahead window before
+ * they expire, and when read after expiry but within the stale-while-revalidate period. In the latter case the stale result is
+ * returned and kept if the ServiceRegistry cannot be reached.
+ * <p>
+ * Queries with <code>pingProviders</code> set are never cached, their result reflects which providers are reachable right now.
+ */
+public class ServiceQueryCache
+{
+    public static final long DEFAULT_TTL_MILLIS = 30000;
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long DEFAULT_REFRESH_AHEAD_MILLIS = 5000;
+    public static final long DEFAULT_MAX_STALE_MILLIS = 30000;
+
+    private static final ServiceQueryCache SHARED = new ServiceQueryCache(DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_ENTRIES)
+            .withRefreshAhead(DEFAULT_REFRESH_AHEAD_MILLIS, TimeUnit.MILLISECONDS)
+            .withStaleWhileRevalidate(DEFAULT_MAX_STALE_MILLIS, TimeUnit.MILLISECONDS);
+
+    private final Logger logger = LogManager.getLogger();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<Key, CachedResult> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private long refreshAheadMillis;
+    private long maxStaleMillis;
+    private long generation;
+
+    public ServiceQueryCache(final long ttl, final TimeUnit ttlUnit, final int maxEntries)
+    {
+        this.ttlMillis = ttlUnit.toMillis(ttl);
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, CachedResult> eldest)
+            {
+                if (size() > ServiceQueryCache.this.maxEntries)
+                {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Entries read less than the given time before they expire are re-queried in the background.
+     */
+    public ServiceQueryCache withRefreshAhead(final long window, final TimeUnit unit)
+    {
+        this.refreshAheadMillis = unit.toMillis(window);
+        return this;
+    }
+
+    /**
+     * Expired entries are still returned for the given time while they are re-queried in the background.
+     */
+    public ServiceQueryCache withStaleWhileRevalidate(final long maxStale, final TimeUnit unit)
+    {
+        this.maxStaleMillis = unit.toMillis(maxStale);
+        return this;
+    }
+
+    /**
+     * A cache shared by all clients of this JVM which opt in, see {@link ArrowheadClientBuilder#withQueryCache(ServiceQueryCache)}.
+     */
+    public static ServiceQueryCache shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * A cache which never stores anything, i.e. every query goes to the ServiceRegistry.
+     */
+    public static ServiceQueryCache disabled()
+    {
+        return new ServiceQueryCache(0, TimeUnit.MILLISECONDS, 0);
+    }
+
+    public boolean isEnabled()
+    {
+        return ttlMillis > 0 && maxEntries > 0;
+    }
+
+    /**
+     * @return a copy of the cached result or null if there is none or it is expired
+     */
+    public ServiceQueryResult get(final URI registry, final ServiceRegistryQuery query)
+    {
+        if (!isCacheable(query))
+        {
+            return null;
+        }
+
+        final Key key = new Key(registry, query);
+        final CachedResult entry;
+        final boolean refresh;
+        synchronized (entries)
+        {
+            final CachedResult cached = entries.get(key);
+            final long now = System.currentTimeMillis();
+            if (Objects.isNull(cached))
+            {
+                entry = null;
+                refresh = false;
+            }
+            else if (cached.expiresAt > now)
+            {
+                entry = cached;
+                refresh = cached.expiresAt - now <= refreshAheadMillis;
+            }
+            else if (cached.expiresAt + maxStaleMillis > now && Objects.nonNull(cached.refresher))
+            {
+                staleHits.incrementAndGet();
+                entry = cached;
+                refresh = true;
+            }
+            else
+            {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+                refresh = false;
+            }
+        }
+
+        if (Objects.isNull(entry))
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        if (refresh)
+        {
+            refresh(key, entry);
+        }
+        // callers may modify their result, the cached one stays private
+        return new ServiceQueryResult(entry.result);
+    }
+
+    private void refresh(final Key key, final CachedResult entry)
+    {
+        if (Objects.isNull(entry.refresher) || !entry.refreshing.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        final long currentGeneration = getGeneration();
+        ThreadUtils.sharedScheduler().execute(() -> {
+            try
+            {
+                entry.refresher.get().whenComplete((result, throwable) -> {
+                    if (Objects.isNull(throwable))
+                    {
+                        refreshes.incrementAndGet();
+                        replace(key, entry, new CachedResult(result, System.currentTimeMillis() + ttlMillis, entry.refresher), currentGeneration);
+                    }
+                    else
+                    {
+                        refreshFailed(entry, throwable);
+                    }
+                });
+            }
+            catch (final RuntimeException e)
+            {
+                refreshFailed(entry, e);
+            }
+        });
+    }
+
+    private void refreshFailed(final CachedResult entry, final Throwable throwable)
+    {
+        refreshFailures.incrementAndGet();
+        logger.warn("Refreshing cached query failed, keeping previous result: {}", throwable.getMessage());
+        entry.refreshing.set(false);
+    }
+
+    private void replace(final Key key, final CachedResult previous, final CachedResult entry, final long generation)
+    {
+        synchronized (entries)
+        {
+            // skip if invalidated or replaced in the meantime
+            if (this.generation == generation && entries.get(key) == previous)
+            {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Generation to pass to {@link #put(URI, ServiceRegistryQuery, ServiceQueryResult, long)}. Read it before sending the query, so
+     * a result which was invalidated while in flight is not stored.
+     */
+    public long getGeneration()
+    {
+        synchronized (entries)
+        {
+            return generation;
+        }
+    }
+
+    public void put(final URI registry, final ServiceRegistryQuery query, final ServiceQueryResult result, final long generation)
+    {
+        put(registry, query, result, generation, null);
+    }
+
+    /**
+     * @param refresher re-sends the query, used for refresh-ahead and stale-while-revalidate
+     */
+    public void put(final URI registry, final ServiceRegistryQuery query, final ServiceQueryResult result, final long generation,
+                    final Supplier<CompletableFuture<ServiceQueryResult>> refresher)
+    {
+        if (!isCacheable(query) || Objects.isNull(result))
+        {
+            return;
+        }
+
+        synchronized (entries)
+        {
+            if (this.generation != generation)
+            {
+                logger.debug("Not caching result of {}, invalidated while in flight", query);
+                return;
+            }
+            entries.put(new Key(registry, query), new CachedResult(new ServiceQueryResult(result), System.currentTimeMillis() + ttlMillis, refresher));
+        }
+    }
+
+    /**
+     * Removes all cached queries for the given service definition of the given ServiceRegistry.
+     */
+    public void invalidate(final URI registry, final String serviceDefinition)
+    {
+        synchronized (entries)
+        {
+            generation++;
+            final Iterator<Key> iterator = entries.keySet().iterator();
+            while (iterator.hasNext())
+            {
+                final Key key = iterator.next();
+                if (key.registry.equals(registry) && Objects.equals(key.serviceDefinition, normalize(serviceDefinition)))
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll()
+    {
+        synchronized (entries)
+        {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public int size()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return number of entries dropped because they expired or the cache was full
+     */
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * @return number of expired results returned while they were revalidated
+     */
+    public long getStaleHitCount()
+    {
+        return staleHits.get();
+    }
+
+    public long getRefreshCount()
+    {
+        return refreshes.get();
+    }
+
+    public long getRefreshFailureCount()
+    {
+        return refreshFailures.get();
+    }
+
+    private boolean isCacheable(final ServiceRegistryQuery query)
+    {
+        return isEnabled() && !query.isPingProviders();
+    }
+
+    private static String normalize(final String serviceDefinition)
+    {
+        return Objects.isNull(serviceDefinition) ? null : serviceDefinition.trim();
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("ServiceQueryCache [");
+        sb.append("ttlMillis=").append(ttlMillis);
+        sb.append(", maxEntries=").append(maxEntries);
+        sb.append(", refreshAheadMillis=").append(refreshAheadMillis);
+        sb.append(", maxStaleMillis=").append(maxStaleMillis);
+        sb.append(", size=").append(size());
+        sb.append(", hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append(", evictions=").append(evictions);
+        sb.append(", staleHits=").append(staleHits);
+        sb.append(", refreshes=").append(refreshes);
+        sb.append(", refreshFailures=").append(refreshFailures);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static class CachedResult
+    {
+        private final ServiceQueryResult result;
+        private final long expiresAt;
+        private final Supplier<CompletableFuture<ServiceQueryResult>> refresher;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedResult(final ServiceQueryResult result, final long expiresAt,
+                             final Supplier<CompletableFuture<ServiceQueryResult>> refresher)
+        {
+            this.result = result;
+            this.expiresAt = expiresAt;
+            this.refresher = refresher;
+        }
+    }
+
+    /**
+     * Normalized snapshot of a query, later changes of the query object do not affect it.
+     */
+    static final class Key
+    {
+        private final URI registry;
+        private final String serviceDefinition;
+        private final SortedSet<String> interfaces = new TreeSet<>();
+        private final SortedMap<String, String> metadata = new TreeMap<>();
+        private final boolean pingProviders;
+        private final boolean metadataSearch;
+        private final Integer version;
+
+        Key(final URI registry, final ServiceRegistryQuery query)
+        {
+            final ArrowheadService service = query.getService();
+            this.registry = registry;
+            this.serviceDefinition = Objects.isNull(service) ? null : normalize(service.getServiceDefinition());
+            if (Objects.nonNull(service))
+            {
+                interfaces.addAll(Objects.isNull(service.getInterfaces()) ? Collections.<String>emptySet() : service.getInterfaces());
+                if (Objects.nonNull(service.getServiceMetadata()))
+                {
+                    metadata.putAll(service.getServiceMetadata());
+                }
+            }
+            this.pingProviders = query.isPingProviders();
+            this.metadataSearch = query.isMetadataSearch();
+            this.version = query.getVersion();
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            final Key key = (Key) o;
+            return pingProviders == key.pingProviders &&
+                    metadataSearch == key.metadataSearch &&
+                    Objects.equals(registry, key.registry) &&
+                    Objects.equals(serviceDefinition, key.serviceDefinition) &&
+                    Objects.equals(interfaces, key.interfaces) &&
+                    Objects.equals(metadata, key.metadata) &&
+                    Objects.equals(version, key.version);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(registry, serviceDefinition, interfaces, metadata, pingProviders, metadataSearch, version);
+        }
+
+        @Override
+        public String toString()
+        {
+            final StringBuilder sb = new StringBuilder("Key [");
+            sb.append("registry=").append(registry);
+            sb.append(", serviceDefinition='").append(serviceDefinition).append('\'');
+            sb.append(", interfaces=").append(interfaces);
+            sb.append(']');
+            return sb.toString();
+        }
+    }
+}
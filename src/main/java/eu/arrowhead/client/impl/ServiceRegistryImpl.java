@@ -1,37 +1,219 @@
 package eu.arrowhead.client.impl;
 
 import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+import eu.arrowhead.client.services.model.ArrowheadService;
 import eu.arrowhead.client.services.response.ServiceQueryResult;
+import eu.arrowhead.client.transport.HedgingPolicy;
+import eu.arrowhead.client.transport.SingleFlight;
 import eu.arrowhead.client.transport.Transport;
 import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.services.ServiceRegistry;
 import eu.arrowhead.client.services.request.*;
+import eu.arrowhead.client.utils.UriUtils;
 import eu.arrowhead.onboarding.impl.SSLContextBuilder;
 
 import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 public class ServiceRegistryImpl extends ServiceClientImpl implements ServiceRegistry
 {
+    // per client, clients with different key stores must not share each other's results or failures
+    private final SingleFlight<ServiceQueryCache.Key, ServiceQueryResult> queries = new SingleFlight<>(ServiceQueryResult::new);
+    private volatile ServiceQueryCache queryCache = ServiceQueryCache.disabled();
+    private volatile HedgingPolicy hedging;
+    private volatile SystemEndpointHolder endpointHolder;
+
     public ServiceRegistryImpl(final ArrowheadClient client, final URI uri, final Transport transport, final SSLContextBuilder<?> sslContextBuilder)
     {
         super(client, uri, transport, sslContextBuilder);
     }
 
+    public ServiceQueryCache getQueryCache()
+    {
+        return queryCache;
+    }
+
+    public void setQueryCache(final ServiceQueryCache queryCache)
+    {
+        this.queryCache = Objects.requireNonNull(queryCache);
+    }
+
+    public HedgingPolicy getHedging()
+    {
+        return hedging;
+    }
+
+    /**
+     * Hedges queries which take longer than usual, <code>null</code> disables hedging. Hedges are sent to another replica of the
+     * ServiceRegistry if the endpoint holder knows one, otherwise to the same one.
+     */
+    public void setHedging(final HedgingPolicy hedging, final SystemEndpointHolder endpointHolder)
+    {
+        this.hedging = hedging;
+        this.endpointHolder = endpointHolder;
+    }
+
+    private void invalidate(final ServiceRegistryEntry request)
+    {
+        if (Objects.nonNull(request) && Objects.nonNull(request.getProvidedService()))
+        {
+            queryCache.invalidate(uriUtils.copyBuild(), request.getProvidedService().getServiceDefinition());
+        }
+    }
+
     @Override
     public ServiceQueryResult query(final ServiceRegistryQuery request) throws TransportException
     {
-        return transport.put(ServiceQueryResult.class, uriUtils.copyBuild(ServiceRegistry.METHOD_QUERY_SUFFIX), request);
+        final URI registry = uriUtils.copyBuild();
+        final ServiceQueryCache cache = queryCache;
+        final ServiceQueryResult cached = cache.get(registry, request);
+        if (Objects.nonNull(cached))
+        {
+            return cached;
+        }
+
+        final long generation = cache.getGeneration();
+        final URI uri = uriUtils.copyBuild(ServiceRegistry.METHOD_QUERY_SUFFIX);
+        final ServiceQueryResult result = queries.invoke(new ServiceQueryCache.Key(uri, request), () -> fetch(uri, request));
+        cache.put(registry, request, result, generation, refresher(uri, request));
+        return result;
     }
 
     @Override
     public ServiceRegistryEntry registerService(final ServiceRegistryEntry request) throws TransportException
     {
-        return transport.post(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REGISTER_SUFFIX), request);
+        try
+        {
+            return idempotentRequests.invoke(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                             () -> transport.post(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REGISTER_SUFFIX), request));
+        }
+        finally
+        {
+            invalidate(request);
+        }
     }
 
     @Override
     public ServiceRegistryEntry removeService(final ServiceRegistryEntry request) throws TransportException
     {
-        return transport.put(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REMOVE_SUFFIX), request);
+        try
+        {
+            return idempotentRequests.invoke(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                             () -> transport.put(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REMOVE_SUFFIX), request));
+        }
+        finally
+        {
+            invalidate(request);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ServiceQueryResult> queryAsync(final ServiceRegistryQuery request)
+    {
+        final URI registry = uriUtils.copyBuild();
+        final ServiceQueryCache cache = queryCache;
+        final ServiceQueryResult cached = cache.get(registry, request);
+        if (Objects.nonNull(cached))
+        {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        final long generation = cache.getGeneration();
+        final URI uri = uriUtils.copyBuild(ServiceRegistry.METHOD_QUERY_SUFFIX);
+        return queryAsync(uri, request).thenApply(result -> {
+            cache.put(registry, request, result, generation, refresher(uri, request));
+            return result;
+        });
+    }
+
+    private CompletableFuture<ServiceQueryResult> queryAsync(final URI uri, final ServiceRegistryQuery request)
+    {
+        return queries.invokeAsync(new ServiceQueryCache.Key(uri, request), () -> fetchAsync(uri, request));
+    }
+
+    private ServiceQueryResult fetch(final URI uri, final ServiceRegistryQuery request) throws TransportException
+    {
+        if (Objects.isNull(hedging))
+        {
+            return transport.put(ServiceQueryResult.class, uri, request);
+        }
+
+        try
+        {
+            return fetchAsync(uri, request).get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new TransportException(e);
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof TransportException)
+            {
+                throw (TransportException) e.getCause();
+            }
+            throw new TransportException(e.getCause());
+        }
+    }
+
+    private CompletableFuture<ServiceQueryResult> fetchAsync(final URI uri, final ServiceRegistryQuery request)
+    {
+        final HedgingPolicy policy = hedging;
+        if (Objects.isNull(policy))
+        {
+            return asyncTransport.putAsync(ServiceQueryResult.class, uri, request);
+        }
+        return policy.invokeAsync(attempt -> asyncTransport.putAsync(ServiceQueryResult.class, attempt == 0 ? uri : hedgeUri(uri), request));
+    }
+
+    private URI hedgeUri(final URI uri)
+    {
+        final SystemEndpointHolder holder = endpointHolder;
+        if (Objects.isNull(holder))
+        {
+            return uri;
+        }
+
+        final URI registry = uriUtils.copyBuild();
+        for (URI replica : holder.getReplicas(CoreSystems.SERVICE_REGISTRY))
+        {
+            if (!replica.equals(registry))
+            {
+                return new UriUtils(replica).copyBuild(ServiceRegistry.METHOD_QUERY_SUFFIX);
+            }
+        }
+        return uri;
+    }
+
+    private Supplier<CompletableFuture<ServiceQueryResult>> refresher(final URI uri, final ServiceRegistryQuery request)
+    {
+        // copy, the caller may reuse its query and service objects
+        final ArrowheadService service = request.getService();
+        final ArrowheadService serviceCopy = Objects.isNull(service) ? null : new ArrowheadService(service);
+        final ServiceRegistryQuery query = new ServiceRegistryQuery(serviceCopy, request.isPingProviders(), request.isMetadataSearch(),
+                                                                    request.getVersion());
+        return () -> queryAsync(uri, query);
+    }
+
+    @Override
+    public CompletableFuture<ServiceRegistryEntry> registerServiceAsync(final ServiceRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                              () -> asyncTransport.postAsync(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REGISTER_SUFFIX), request))
+                                 .whenComplete((entry, throwable) -> invalidate(request));
+    }
+
+    @Override
+    public CompletableFuture<ServiceRegistryEntry> removeServiceAsync(final ServiceRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                              () -> asyncTransport.putAsync(ServiceRegistryEntry.class, uriUtils.copyBuild(ServiceRegistry.METHOD_REMOVE_SUFFIX), request))
+                                 .whenComplete((entry, throwable) -> invalidate(request));
     }
 }
@@ -0,0 +1,105 @@
+package eu.arrowhead.client.impl;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.ServiceDefinitions;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+import eu.arrowhead.client.services.DeviceRegistry;
+import eu.arrowhead.client.services.EventHandler;
+import eu.arrowhead.client.services.OnboardingController;
+import eu.arrowhead.client.services.Orchestrator;
+import eu.arrowhead.client.services.ServiceRegistry;
+import eu.arrowhead.client.services.SystemRegistry;
+import eu.arrowhead.client.transport.ProtocolConfiguration;
+import eu.arrowhead.client.utils.ThreadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-resolves the core systems of a {@link SystemEndpointHolder} through the ServiceRegistry on the shared scheduler. Queries are
+ * sent asynchronously, so the scheduler thread never waits for the ServiceRegistry. A failed lookup keeps the previous URI. The task
+ * stops itself once the endpoint holder is no longer referenced by any client.
+ */
+class SystemEndpointRefresher implements Runnable
+{
+    private final Logger logger = LogManager.getLogger();
+    private final ProtocolConfiguration protocol;
+    private final ServiceRegistry serviceRegistry;
+    private final WeakReference<SystemEndpointHolder> endpointHolder;
+    private volatile ScheduledFuture<?> future;
+
+    private SystemEndpointRefresher(final ProtocolConfiguration protocol, final ServiceRegistry serviceRegistry, final SystemEndpointHolder endpointHolder)
+    {
+        this.protocol = protocol;
+        this.serviceRegistry = serviceRegistry;
+        this.endpointHolder = new WeakReference<>(endpointHolder);
+    }
+
+    static void schedule(final ProtocolConfiguration protocol, final ServiceRegistry serviceRegistry, final SystemEndpointHolder endpointHolder,
+                         final long period, final TimeUnit unit)
+    {
+        if (Objects.isNull(serviceRegistry))
+        {
+            LogManager.getLogger().warn("No ServiceRegistry available, endpoints of {} are not refreshed", endpointHolder);
+            return;
+        }
+
+        final SystemEndpointRefresher refresher = new SystemEndpointRefresher(protocol, serviceRegistry, endpointHolder);
+        refresher.future = ThreadUtils.sharedScheduler().scheduleWithFixedDelay(refresher, period, period, unit);
+    }
+
+    @Override
+    public void run()
+    {
+        if (Objects.isNull(endpointHolder.get()))
+        {
+            logger.debug("SystemEndpointHolder is gone, stopping refresh");
+            future.cancel(false);
+            return;
+        }
+
+        refresh(CoreSystems.DEVICE_REGISTRY, ServiceDefinitions.DEVICE_REGISTRY, DeviceRegistry.SYSTEM_SUFFIX);
+        refresh(CoreSystems.SYSTEM_REGISTRY, ServiceDefinitions.SYSTEM_REGISTRY, SystemRegistry.SYSTEM_SUFFIX);
+        refresh(CoreSystems.SERVICE_REGISTRY, ServiceDefinitions.SERVICE_REGISTRY, ServiceRegistry.SYSTEM_SUFFIX);
+        refresh(CoreSystems.ONBOARDING_CONTROLLER, ServiceDefinitions.ONBOARDING, OnboardingController.SYSTEM_SUFFIX);
+        refresh(CoreSystems.ORCHESTRATOR, ServiceDefinitions.ORCHESTRATION, Orchestrator.SYSTEM_SUFFIX);
+        refresh(CoreSystems.EVENT_HANDLER, ServiceDefinitions.EVENT_SUBSCRIPTION, EventHandler.SYSTEM_SUFFIX);
+    }
+
+    private void refresh(final CoreSystems system, final ServiceDefinitions definition, final String suffix)
+    {
+        serviceRegistry.queryAsync(ArrowheadClientBuilder.systemQuery(protocol, definition)).whenComplete((result, throwable) -> {
+            final SystemEndpointHolder holder = endpointHolder.get();
+            if (Objects.isNull(holder))
+            {
+                return;
+            }
+
+            if (Objects.nonNull(throwable))
+            {
+                logger.warn("Unable to refresh {}, keeping {}: {}", system, holder.get(system), throwable.getMessage());
+                return;
+            }
+
+            try
+            {
+                final URI uri = ArrowheadClientBuilder.systemUri(protocol, result, definition, suffix);
+                final URI previous = holder.get(system);
+                if (!uri.equals(previous))
+                {
+                    logger.info("{} moved from {} to {}", system, previous, uri);
+                    holder.add(system, uri);
+                }
+            }
+            catch (final Exception e)
+            {
+                logger.warn("Unable to refresh {}, keeping {}: {}", system, holder.get(system), e.getMessage());
+            }
+        });
+    }
+}
@@ -8,6 +8,7 @@ import eu.arrowhead.client.services.request.SystemRegistryEntry;
 import eu.arrowhead.onboarding.impl.SSLContextBuilder;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public class SystemRegistryImpl extends ServiceClientImpl implements SystemRegistry
 {
@@ -20,13 +21,29 @@ public class SystemRegistryImpl extends ServiceClientImpl implements SystemRegis
     @Override
     public SystemRegistryEntry registerSystem(final SystemRegistryEntry request) throws TransportException
     {
-        return transport.post(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REGISTER_SUFFIX), request);
+        return idempotentRequests.invoke(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                         () -> transport.post(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REGISTER_SUFFIX), request));
 
     }
 
     @Override
     public SystemRegistryEntry removeSystem(final SystemRegistryEntry request) throws TransportException
     {
-        return transport.post(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REMOVE_SUFFIX), request);
+        return idempotentRequests.invoke(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                         () -> transport.post(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REMOVE_SUFFIX), request));
+    }
+
+    @Override
+    public CompletableFuture<SystemRegistryEntry> registerSystemAsync(final SystemRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REGISTER, REMOVE, request,
+                                              () -> asyncTransport.postAsync(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REGISTER_SUFFIX), request));
+    }
+
+    @Override
+    public CompletableFuture<SystemRegistryEntry> removeSystemAsync(final SystemRegistryEntry request)
+    {
+        return idempotentRequests.invokeAsync(uriUtils.copyBuild(), REMOVE, REGISTER, request,
+                                              () -> asyncTransport.postAsync(SystemRegistryEntry.class, uriUtils.copyBuild(SystemRegistry.METHOD_REMOVE_SUFFIX), request));
     }
 }
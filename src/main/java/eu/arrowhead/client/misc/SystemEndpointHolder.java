@@ -3,13 +3,18 @@ package eu.arrowhead.client.misc;
 import eu.arrowhead.client.transport.ProtocolConfiguration;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SystemEndpointHolder
 {
     private final ConcurrentMap<CoreSystems, URI> systems = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CoreSystems, List<URI>> replicas = new ConcurrentHashMap<>();
     private final ProtocolConfiguration protocolConfiguration;
 
     public SystemEndpointHolder(final ProtocolConfiguration protocolConfiguration) {this.protocolConfiguration = protocolConfiguration;}
@@ -19,11 +24,50 @@ public class SystemEndpointHolder
         systems.put(system, uri);
     }
 
+    public void addIfAbsent(final CoreSystems system, final URI uri)
+    {
+        systems.putIfAbsent(system, uri);
+    }
+
     public URI get(final CoreSystems system)
     {
         return systems.get(system);
     }
 
+    /**
+     * Adds a further endpoint of a system which runs replicated. Replicas are only used for requests which may be sent to any of
+     * them, e.g. hedged queries.
+     */
+    public void addReplica(final CoreSystems system, final URI uri)
+    {
+        final List<URI> uris = replicas.computeIfAbsent(system, s -> new CopyOnWriteArrayList<>());
+        if (!uris.contains(uri))
+        {
+            uris.add(uri);
+        }
+    }
+
+    /**
+     * @return the endpoint of the system followed by its replicas
+     */
+    public List<URI> getReplicas(final CoreSystems system)
+    {
+        final List<URI> uris = new ArrayList<>();
+        final URI primary = systems.get(system);
+        if (Objects.nonNull(primary))
+        {
+            uris.add(primary);
+        }
+        for (URI replica : replicas.getOrDefault(system, Collections.emptyList()))
+        {
+            if (!uris.contains(replica))
+            {
+                uris.add(replica);
+            }
+        }
+        return uris;
+    }
+
     public boolean contains(final CoreSystems system)
     {
         return systems.containsKey(system);
@@ -33,6 +77,41 @@ public class SystemEndpointHolder
     {
         if (!Objects.equals(this.systems, endpointHolder.systems))
         { systems.putAll(endpointHolder.systems); }
+        endpointHolder.replicas.forEach((system, uris) -> uris.forEach(uri -> addReplica(system, uri)));
+    }
+
+    /**
+     * Finds the core system the given request URI belongs to. The system with the longest matching base path wins.
+     *
+     * @return the core system or <code>null</code> if the URI does not belong to any known system
+     */
+    public CoreSystems resolve(final URI uri)
+    {
+        CoreSystems match = null;
+        int matchLength = -1;
+
+        for (CoreSystems system : CoreSystems.values())
+        {
+            for (URI base : getReplicas(system))
+            {
+                if (!Objects.equals(base.getScheme(), uri.getScheme())
+                        || !Objects.equals(base.getHost(), uri.getHost())
+                        || base.getPort() != uri.getPort())
+                {
+                    continue;
+                }
+
+                final String basePath = Objects.toString(base.getPath(), "");
+                final String path = Objects.toString(uri.getPath(), "");
+                if (path.startsWith(basePath) && basePath.length() > matchLength)
+                {
+                    match = system;
+                    matchLength = basePath.length();
+                }
+            }
+        }
+
+        return match;
     }
 
     public ProtocolConfiguration getProtocolConfiguration()
@@ -0,0 +1,12 @@
+package eu.arrowhead.client.services;
+
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncDeviceRegistry extends ArrowheadClientFacet
+{
+    CompletableFuture<DeviceRegistryEntry> registerSystemAsync(final DeviceRegistryEntry entry);
+
+    CompletableFuture<DeviceRegistryEntry> removeSystemAsync(final DeviceRegistryEntry entry);
+}
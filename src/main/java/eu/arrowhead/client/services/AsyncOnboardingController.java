@@ -0,0 +1,17 @@
+package eu.arrowhead.client.services;
+
+import eu.arrowhead.client.services.request.OnboardingRequest;
+import eu.arrowhead.client.services.request.OnboardingWithCertificateRequest;
+import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
+import eu.arrowhead.client.services.response.OnboardingResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncOnboardingController extends ArrowheadClientFacet
+{
+    CompletableFuture<OnboardingResponse> plainAsync(final OnboardingRequest request);
+
+    CompletableFuture<OnboardingResponse> withSharedKeyAsync(final OnboardingWithSharedKeyRequest request);
+
+    CompletableFuture<OnboardingResponse> withCertificateAsync(final OnboardingWithCertificateRequest request);
+}
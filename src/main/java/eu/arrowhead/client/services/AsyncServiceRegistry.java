@@ -0,0 +1,16 @@
+package eu.arrowhead.client.services;
+
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.ServiceRegistryQuery;
+import eu.arrowhead.client.services.response.ServiceQueryResult;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncServiceRegistry extends ArrowheadClientFacet
+{
+    CompletableFuture<ServiceQueryResult> queryAsync(final ServiceRegistryQuery request);
+
+    CompletableFuture<ServiceRegistryEntry> registerServiceAsync(final ServiceRegistryEntry request);
+
+    CompletableFuture<ServiceRegistryEntry> removeServiceAsync(final ServiceRegistryEntry request);
+}
@@ -0,0 +1,12 @@
+package eu.arrowhead.client.services;
+
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncSystemRegistry extends ArrowheadClientFacet
+{
+    CompletableFuture<SystemRegistryEntry> registerSystemAsync(final SystemRegistryEntry request);
+
+    CompletableFuture<SystemRegistryEntry> removeSystemAsync(final SystemRegistryEntry request);
+}
@@ -4,7 +4,7 @@ package eu.arrowhead.client.services;
 import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.services.request.DeviceRegistryEntry;
 
-public interface DeviceRegistry extends ArrowheadClientFacet
+public interface DeviceRegistry extends AsyncDeviceRegistry
 {
     String SYSTEM_SUFFIX = "deviceregistry";
     String PORT_PROPERTY = "device_registry.port";
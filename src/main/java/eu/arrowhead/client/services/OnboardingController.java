@@ -7,7 +7,7 @@ import eu.arrowhead.client.services.request.OnboardingWithCertificateRequest;
 import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
 import eu.arrowhead.client.services.response.OnboardingResponse;
 
-public interface OnboardingController extends ArrowheadClientFacet
+public interface OnboardingController extends AsyncOnboardingController
 {
     String SYSTEM_SUFFIX = "onboarding";
     String PORT_PROPERTY = "onboarding.port";
@@ -6,7 +6,7 @@ import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.services.request.ServiceRegistryEntry;
 import eu.arrowhead.client.services.request.ServiceRegistryQuery;
 
-public interface ServiceRegistry extends ArrowheadClientFacet
+public interface ServiceRegistry extends AsyncServiceRegistry
 {
     String SYSTEM_SUFFIX = "serviceregistry";
     String PORT_PROPERTY = "service_registry.port";
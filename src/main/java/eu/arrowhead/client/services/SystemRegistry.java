@@ -4,7 +4,7 @@ package eu.arrowhead.client.services;
 import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.services.request.SystemRegistryEntry;
 
-public interface SystemRegistry extends ArrowheadClientFacet
+public interface SystemRegistry extends AsyncSystemRegistry
 {
     String SYSTEM_SUFFIX = "systemregistry";
     String PORT_PROPERTY = "system_registry.port";
@@ -21,6 +21,11 @@ public class ArrowheadDevice
         this.deviceName = deviceName;
     }
 
+    public ArrowheadDevice(final ArrowheadDevice other)
+    {
+        this(other.id, other.deviceName);
+    }
+
     public Long getId()
     {
         return id;
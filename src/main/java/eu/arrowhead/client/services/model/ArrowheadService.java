@@ -42,6 +42,14 @@ public class ArrowheadService
         this.serviceMetadata = serviceMetadata;
     }
 
+    public ArrowheadService(final ArrowheadService other)
+    {
+        this(other.id,
+             other.serviceDefinition,
+             Objects.isNull(other.interfaces) ? null : new HashSet<>(other.interfaces),
+             Objects.isNull(other.serviceMetadata) ? null : new HashMap<>(other.serviceMetadata));
+    }
+
     public Long getId()
     {
         return id;
@@ -82,6 +90,24 @@ public class ArrowheadService
         this.serviceMetadata = serviceMetadata;
     }
 
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        final ArrowheadService that = (ArrowheadService) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(serviceDefinition, that.serviceDefinition) &&
+                Objects.equals(interfaces, that.interfaces) &&
+                Objects.equals(serviceMetadata, that.serviceMetadata);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(id, serviceDefinition, interfaces, serviceMetadata);
+    }
+
     @Override
     public String toString()
     {
@@ -29,6 +29,11 @@ public class ArrowheadSystem
         this.authenticationInfo = authenticationInfo;
     }
 
+    public ArrowheadSystem(final ArrowheadSystem other)
+    {
+        this(other.id, other.systemName, other.address, other.port, other.authenticationInfo);
+    }
+
     public String getId()
     {
         return id;
@@ -3,6 +3,7 @@ package eu.arrowhead.client.services.request;
 import eu.arrowhead.client.services.model.ArrowheadDevice;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class DeviceRegistryEntry
 {
@@ -31,6 +32,11 @@ public class DeviceRegistryEntry
         this.providedDevice = providedDevice;
     }
 
+    public DeviceRegistryEntry(final DeviceRegistryEntry other)
+    {
+        this(other.id, other.macAddress, other.endOfValidity, Objects.isNull(other.providedDevice) ? null : new ArrowheadDevice(other.providedDevice));
+    }
+
 
     public DeviceRegistryEntry(final String macAddress, final LocalDateTime endOfValidity, final String deviceName)
     {
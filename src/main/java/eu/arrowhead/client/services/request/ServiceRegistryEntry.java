@@ -4,6 +4,7 @@ import eu.arrowhead.client.services.model.ArrowheadService;
 import eu.arrowhead.client.services.model.ArrowheadSystem;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class ServiceRegistryEntry extends AbstractRegistryEntry
 {
@@ -36,6 +37,16 @@ public class ServiceRegistryEntry extends AbstractRegistryEntry
         this.endOfValidity = endOfValidity;
     }
 
+    public ServiceRegistryEntry(final ServiceRegistryEntry other)
+    {
+        this(other.id,
+             Objects.isNull(other.provider) ? null : new ArrowheadSystem(other.provider),
+             Objects.isNull(other.providedService) ? null : new ArrowheadService(other.providedService),
+             other.serviceURI,
+             other.udp,
+             other.endOfValidity);
+    }
+
     public Long getId()
     {
         return id;
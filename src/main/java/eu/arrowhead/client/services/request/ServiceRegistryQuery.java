@@ -2,6 +2,8 @@ package eu.arrowhead.client.services.request;
 
 import eu.arrowhead.client.services.model.ArrowheadService;
 
+import java.util.Objects;
+
 public class ServiceRegistryQuery
 {
     private ArrowheadService service;
@@ -67,6 +69,24 @@ public class ServiceRegistryQuery
         this.version = version;
     }
 
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        final ServiceRegistryQuery that = (ServiceRegistryQuery) o;
+        return pingProviders == that.pingProviders &&
+                metadataSearch == that.metadataSearch &&
+                Objects.equals(service, that.service) &&
+                Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(service, pingProviders, metadataSearch, version);
+    }
+
     @Override
     public String toString()
     {
@@ -4,6 +4,7 @@ import eu.arrowhead.client.services.model.ArrowheadDevice;
 import eu.arrowhead.client.services.model.ArrowheadSystem;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class SystemRegistryEntry extends AbstractRegistryEntry
 {
@@ -34,6 +35,15 @@ public class SystemRegistryEntry extends AbstractRegistryEntry
         this.endOfValidity = endOfValidity;
     }
 
+    public SystemRegistryEntry(final SystemRegistryEntry other)
+    {
+        this(other.id,
+             Objects.isNull(other.provider) ? null : new ArrowheadDevice(other.provider),
+             Objects.isNull(other.providedSystem) ? null : new ArrowheadSystem(other.providedSystem),
+             other.serviceURI,
+             other.endOfValidity);
+    }
+
     public Long getId()
     {
         return id;
@@ -4,6 +4,7 @@ import eu.arrowhead.client.services.request.ServiceRegistryEntry;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class ServiceQueryResult
 {
@@ -19,6 +20,25 @@ public class ServiceQueryResult
         this.serviceQueryData = serviceQueryData;
     }
 
+    /**
+     * Deep copy, the entries of the copy can be modified without affecting the other result.
+     */
+    public ServiceQueryResult(final ServiceQueryResult other)
+    {
+        if (Objects.nonNull(other.serviceQueryData))
+        {
+            this.serviceQueryData = new ArrayList<>(other.serviceQueryData.size());
+            for (ServiceRegistryEntry entry : other.serviceQueryData)
+            {
+                this.serviceQueryData.add(Objects.isNull(entry) ? null : new ServiceRegistryEntry(entry));
+            }
+        }
+        else
+        {
+            this.serviceQueryData = null;
+        }
+    }
+
     public List<ServiceRegistryEntry> getServiceQueryData()
     {
         return serviceQueryData;
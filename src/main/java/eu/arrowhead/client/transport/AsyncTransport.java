@@ -0,0 +1,31 @@
+package eu.arrowhead.client.transport;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link Transport}. Every returned future completes exceptionally with a {@link TransportException}
+ * if the invocation fails.
+ */
+public interface AsyncTransport extends Transport
+{
+    <T> CompletableFuture<T> getAsync(final Class<T> clz, final URI uri);
+
+    <T> CompletableFuture<T> getAsync(final Class<T> clz, final URI uri, final Object... pathParameters);
+
+    <T, B> CompletableFuture<T> postAsync(final Class<T> clz, final URI uri, final B body);
+
+    <T, B> CompletableFuture<T> postAsync(final Class<T> clz, final URI uri, final B body, final Object... pathParameters);
+
+    <B> CompletableFuture<Void> putAsync(final URI uri, final B body);
+
+    <B> CompletableFuture<Void> putAsync(final URI uri, final B body, final Object... pathParameters);
+
+    <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body);
+
+    <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters);
+
+    CompletableFuture<Void> deleteAsync(final URI uri);
+
+    CompletableFuture<Void> deleteAsync(final URI uri, final Object... pathParameters);
+}
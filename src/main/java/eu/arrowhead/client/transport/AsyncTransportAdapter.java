@@ -0,0 +1,249 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+import eu.arrowhead.client.utils.ThreadUtils;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Makes a blocking {@link Transport} usable as {@link AsyncTransport} by running each invocation on an {@link Executor}. The
+ * {@link RetryScope} of the submitting thread is carried to the executor, so the blocking retries stay within the scope.
+ */
+public class AsyncTransportAdapter implements AsyncTransport
+{
+    private static final ExecutorService DEFAULT_EXECUTOR = ThreadUtils.newDaemonThreadPool("async-transport");
+
+    private final Transport transport;
+    private final Executor executor;
+
+    public AsyncTransportAdapter(final Transport transport, final Executor executor)
+    {
+        this.transport = Objects.requireNonNull(transport);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public static AsyncTransport adapt(final Transport transport)
+    {
+        return adapt(transport, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Blocking invocations of a transport which is not already an {@link AsyncTransport} are run on the given executor, e.g. one
+     * starting a virtual thread per task.
+     */
+    public static AsyncTransport adapt(final Transport transport, final Executor executor)
+    {
+        if (transport instanceof AsyncTransport)
+        {
+            return (AsyncTransport) transport;
+        }
+        return new AsyncTransportAdapter(transport, executor);
+    }
+
+    private <T> CompletableFuture<T> supply(final TransportInvocation<T> invocation)
+    {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final RetryScope scope = RetryScope.current();
+        executor.execute(() -> RetryScope.runIn(scope, () -> {
+            try
+            {
+                return future.complete(invocation.invoke());
+            }
+            catch (final TransportException e)
+            {
+                return future.completeExceptionally(e);
+            }
+            catch (final Exception e)
+            {
+                return future.completeExceptionally(new TransportException(e));
+            }
+        }));
+        return future;
+    }
+
+    private CompletableFuture<Void> run(final VoidTransportInvocation invocation)
+    {
+        return supply(() -> {
+            invocation.invoke();
+            return null;
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> clz, final URI uri)
+    {
+        return supply(() -> transport.get(clz, uri));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> clz, final URI uri, final Object... pathParameters)
+    {
+        return supply(() -> transport.get(clz, uri, pathParameters));
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> clz, final URI uri, final B body)
+    {
+        return supply(() -> transport.post(clz, uri, body));
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> clz, final URI uri, final B body, final Object... pathParameters)
+    {
+        return supply(() -> transport.post(clz, uri, body, pathParameters));
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body)
+    {
+        return run(() -> transport.put(uri, body));
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body, final Object... pathParameters)
+    {
+        return run(() -> transport.put(uri, body, pathParameters));
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body)
+    {
+        return supply(() -> transport.put(cls, uri, body));
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters)
+    {
+        return supply(() -> transport.put(cls, uri, body, pathParameters));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri)
+    {
+        return run(() -> transport.delete(uri));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri, final Object... pathParameters)
+    {
+        return run(() -> transport.delete(uri, pathParameters));
+    }
+
+    @Override
+    public <T> T get(final Class<T> clz, final URI uri) throws TransportException
+    {
+        return transport.get(clz, uri);
+    }
+
+    @Override
+    public <T> T get(final Class<T> clz, final URI uri, final Object... pathParameters) throws TransportException
+    {
+        return transport.get(clz, uri, pathParameters);
+    }
+
+    @Override
+    public <T, B> T post(final Class<T> clz, final URI uri, final B body) throws TransportException
+    {
+        return transport.post(clz, uri, body);
+    }
+
+    @Override
+    public <T, B> T post(final Class<T> clz, final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        return transport.post(clz, uri, body, pathParameters);
+    }
+
+    @Override
+    public <B> void put(final URI uri, final B body) throws TransportException
+    {
+        transport.put(uri, body);
+    }
+
+    @Override
+    public <B> void put(final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        transport.put(uri, body, pathParameters);
+    }
+
+    @Override
+    public <T, B> T put(final Class<T> cls, final URI uri, final B body) throws TransportException
+    {
+        return transport.put(cls, uri, body);
+    }
+
+    @Override
+    public <T, B> T put(final Class<T> cls, final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        return transport.put(cls, uri, body, pathParameters);
+    }
+
+    @Override
+    public void delete(final URI uri) throws TransportException
+    {
+        transport.delete(uri);
+    }
+
+    @Override
+    public void delete(final URI uri, final Object... pathParameters) throws TransportException
+    {
+        transport.delete(uri, pathParameters);
+    }
+
+    @Override
+    public void setRetryHandler(final RetryHandler retryHandler)
+    {
+        transport.setRetryHandler(retryHandler);
+    }
+
+    @Override
+    public void setConnectionConfiguration(final ConnectionConfiguration connectionConfiguration)
+    {
+        transport.setConnectionConfiguration(connectionConfiguration);
+    }
+
+    @Override
+    public void setConnectionConfiguration(final CoreSystems system, final ConnectionConfiguration connectionConfiguration)
+    {
+        transport.setConnectionConfiguration(system, connectionConfiguration);
+    }
+
+    @Override
+    public void setSystemEndpoints(final SystemEndpointHolder endpointHolder)
+    {
+        transport.setSystemEndpoints(endpointHolder);
+    }
+
+    @Override
+    public Map<CoreSystems, ConnectionPoolStatistics> getPoolStatistics()
+    {
+        return transport.getPoolStatistics();
+    }
+
+    @Override
+    public ConnectionPoolStatistics getDefaultPoolStatistics()
+    {
+        return transport.getDefaultPoolStatistics();
+    }
+
+    @Override
+    public CircuitBreakers getCircuitBreakers()
+    {
+        return transport.getCircuitBreakers();
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("AsyncTransportAdapter [");
+        sb.append("transport=").append(transport);
+        sb.append(", executor=").append(executor);
+        sb.append(']');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package eu.arrowhead.client.transport;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the delay before the next retry of a {@link RetryHandler}.
+ */
+@FunctionalInterface
+public interface BackoffPolicy
+{
+    /**
+     * @param retry         number of the upcoming retry, starting with 1
+     * @param previousDelay delay before the previous retry in milliseconds, 0 before the first retry
+     * @return delay in milliseconds
+     */
+    long nextDelay(final int retry, final long previousDelay);
+
+    /**
+     * Like {@link #nextDelay(int, long)}, but never more than <code>maxDelay</code>. Random policies draw within this limit instead
+     * of clamping the drawn value, which would pile up delays at the limit.
+     */
+    default long nextDelay(final int retry, final long previousDelay, final long maxDelay)
+    {
+        return Math.min(maxDelay, nextDelay(retry, previousDelay));
+    }
+
+    /**
+     * Limits the delays of this policy to the given maximum.
+     */
+    default BackoffPolicy capped(final long maxDelay, final TimeUnit unit)
+    {
+        return new BoundedBackoff(this::nextDelay, unit.toMillis(maxDelay));
+    }
+
+    /**
+     * The same delay before every retry, i.e. the behaviour of {@link RetryHandler#setDelayBetweenRetries(long, TimeUnit)}.
+     */
+    static BackoffPolicy fixed(final long delay, final TimeUnit unit)
+    {
+        final long millis = unit.toMillis(delay);
+        return (retry, previousDelay) -> millis;
+    }
+
+    /**
+     * <code>initialDelay * multiplier^(retry - 1)</code>, with "full jitter": the actual delay is chosen uniformly between 0 and
+     * this value, so clients failing at the same time do not retry in lock-step.
+     */
+    static BackoffPolicy exponential(final long initialDelay, final TimeUnit unit, final double multiplier)
+    {
+        final long initial = unit.toMillis(initialDelay);
+        return new BoundedBackoff((retry, previousDelay, maxDelay) -> {
+            final double delay = initial * Math.pow(multiplier, retry - 1);
+            final long bound = delay >= maxDelay ? maxDelay : (long) delay;
+            return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(BoundedBackoff.inclusive(bound));
+        }, Long.MAX_VALUE);
+    }
+
+    /**
+     * "Decorrelated jitter": a random delay between <code>baseDelay</code> and three times the previous delay. Grows like
+     * {@link #exponential(long, TimeUnit, double)} but spreads clients further apart; usually combined with
+     * {@link #capped(long, TimeUnit)}.
+     */
+    static BackoffPolicy decorrelatedJitter(final long baseDelay, final TimeUnit unit)
+    {
+        final long base = unit.toMillis(baseDelay);
+        return new BoundedBackoff((retry, previousDelay, maxDelay) -> {
+            final long lower = Math.min(base, maxDelay);
+            final long upper = Math.min(maxDelay, Math.max(base, previousDelay > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : previousDelay * 3));
+            return upper <= lower ? lower : ThreadLocalRandom.current().nextLong(lower, BoundedBackoff.inclusive(upper));
+        }, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,54 @@
+package eu.arrowhead.client.transport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link BackoffPolicy} which draws its delay with the cap already applied, so random policies never draw from a range beyond
+ * <code>maxDelay</code> and a cap of several {@link #capped(long, TimeUnit)} calls is the smallest one.
+ */
+final class BoundedBackoff implements BackoffPolicy
+{
+    @FunctionalInterface
+    interface Draw
+    {
+        /**
+         * @return delay in milliseconds, at most <code>maxDelay</code>
+         */
+        long draw(final int retry, final long previousDelay, final long maxDelay);
+    }
+
+    private final Draw draw;
+    private final long maxDelay;
+
+    BoundedBackoff(final Draw draw, final long maxDelay)
+    {
+        this.draw = draw;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public long nextDelay(final int retry, final long previousDelay)
+    {
+        return draw.draw(retry, previousDelay, maxDelay);
+    }
+
+    @Override
+    public long nextDelay(final int retry, final long previousDelay, final long maxDelay)
+    {
+        return draw.draw(retry, previousDelay, Math.min(this.maxDelay, maxDelay));
+    }
+
+    @Override
+    public BackoffPolicy capped(final long maxDelay, final TimeUnit unit)
+    {
+        return new BoundedBackoff(draw, Math.min(this.maxDelay, unit.toMillis(maxDelay)));
+    }
+
+    /**
+     * @return the exclusive upper bound for drawing a value up to and including <code>max</code>
+     */
+    static long inclusive(final long max)
+    {
+        return max == Long.MAX_VALUE ? max : max + 1;
+    }
+}
@@ -0,0 +1,378 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker guarding the calls to one core system, based on the outcome of the most recent calls (count based sliding window).
+ * <ul>
+ * <li>CLOSED: calls pass; opens once the failure rate or slow call rate reaches its threshold</li>
+ * <li>OPEN: calls fail immediately with a {@link CircuitBreakerOpenException}; turns half-open after the configured wait</li>
+ * <li>HALF_OPEN: a few probe calls pass; closes if their rates are below the thresholds, opens again otherwise</li>
+ * </ul>
+ * Every transition starts a new generation. The outcome of a call only counts if it finishes in the generation it was permitted
+ * in, so e.g. a slow call permitted while closed cannot take the place of a probe once the breaker is half-open.
+ */
+public class CircuitBreaker
+{
+    public enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @FunctionalInterface
+    public interface Listener
+    {
+        void onStateTransition(final CoreSystems system, final State from, final State to);
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final Logger logger = LogManager.getLogger();
+    private final CoreSystems system;
+    private final CircuitBreakerConfiguration configuration;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong notPermittedCalls = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failedCalls;
+    private int slowCalls;
+    private long openedAt;
+    private int halfOpenPermits;
+    private long generation;
+
+    public CircuitBreaker(final CoreSystems system, final CircuitBreakerConfiguration configuration)
+    {
+        this.system = system;
+        this.configuration = Objects.requireNonNull(configuration);
+        resetWindow(configuration.getSlidingWindowSize());
+    }
+
+    public CoreSystems getSystem()
+    {
+        return system;
+    }
+
+    public CircuitBreakerConfiguration getConfiguration()
+    {
+        return configuration;
+    }
+
+    public void addListener(final Listener listener)
+    {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public synchronized State getState()
+    {
+        if (state == State.OPEN && openWaitElapsed())
+        {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return percentage of failed calls in the sliding window, -1 if fewer than the minimum number of calls were recorded
+     */
+    public synchronized float getFailureRate()
+    {
+        return rate(failedCalls);
+    }
+
+    /**
+     * @return percentage of slow calls in the sliding window, -1 if fewer than the minimum number of calls were recorded
+     */
+    public synchronized float getSlowCallRate()
+    {
+        return rate(slowCalls);
+    }
+
+    public synchronized int getBufferedCalls()
+    {
+        return windowCount;
+    }
+
+    /**
+     * @return number of calls rejected because the breaker was open
+     */
+    public long getNotPermittedCalls()
+    {
+        return notPermittedCalls.get();
+    }
+
+    public <T> T execute(final TransportInvocation<T> invocation) throws TransportException
+    {
+        final long permission = acquirePermission();
+        final long start = System.nanoTime();
+        try
+        {
+            final T returnValue = invocation.invoke();
+            onResult(permission, start, null);
+            return returnValue;
+        }
+        catch (final TransportException | RuntimeException e)
+        {
+            onResult(permission, start, e);
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(final Supplier<CompletableFuture<T>> invocation)
+    {
+        final long permission;
+        try
+        {
+            permission = acquirePermission();
+        }
+        catch (final CircuitBreakerOpenException e)
+        {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        final long start = System.nanoTime();
+        final CompletableFuture<T> future;
+        try
+        {
+            future = invocation.get();
+        }
+        catch (final RuntimeException e)
+        {
+            onResult(permission, start, e);
+            throw e;
+        }
+
+        return future.whenComplete((result, throwable) -> {
+            final Throwable cause = throwable instanceof CompletionException && Objects.nonNull(throwable.getCause())
+                    ? throwable.getCause()
+                    : throwable;
+            onResult(permission, start, cause);
+        });
+    }
+
+    /**
+     * @return the generation the call is permitted in
+     */
+    private long acquirePermission() throws CircuitBreakerOpenException
+    {
+        if (!configuration.isEnabled())
+        {
+            return -1;
+        }
+
+        State from = null;
+        final long permission;
+        synchronized (this)
+        {
+            if (state == State.OPEN && openWaitElapsed())
+            {
+                from = transition(State.HALF_OPEN);
+            }
+
+            if (state == State.OPEN || (state == State.HALF_OPEN && halfOpenPermits <= 0))
+            {
+                notPermittedCalls.incrementAndGet();
+                throw new CircuitBreakerOpenException(system);
+            }
+
+            if (state == State.HALF_OPEN)
+            {
+                halfOpenPermits--;
+            }
+            permission = generation;
+        }
+        notify(from, State.HALF_OPEN);
+        return permission;
+    }
+
+    private void onResult(final long permission, final long startNanos, final Throwable throwable)
+    {
+        if (!configuration.isEnabled())
+        {
+            return;
+        }
+
+        final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        byte outcome = 0;
+        if (Objects.nonNull(throwable) && configuration.getFailurePredicate().test(throwable))
+        {
+            outcome |= FAILED;
+        }
+        if (durationMillis >= configuration.getSlowCallMillis())
+        {
+            outcome |= SLOW;
+        }
+
+        final State from;
+        final State to;
+        synchronized (this)
+        {
+            if (permission != generation)
+            {
+                // permitted before the last transition, its outcome says nothing about the current state
+                return;
+            }
+
+            record(outcome);
+            from = state;
+            to = evaluate();
+            if (to != from)
+            {
+                transition(to);
+            }
+        }
+
+        if (to != from)
+        {
+            notify(from, to);
+        }
+    }
+
+    private State evaluate()
+    {
+        if (state == State.HALF_OPEN)
+        {
+            if (windowCount < configuration.getPermittedCallsInHalfOpenState())
+            {
+                return State.HALF_OPEN;
+            }
+            return thresholdReached(windowCount) ? State.OPEN : State.CLOSED;
+        }
+
+        if (windowCount < configuration.getMinimumNumberOfCalls())
+        {
+            return State.CLOSED;
+        }
+        return thresholdReached(windowCount) ? State.OPEN : State.CLOSED;
+    }
+
+    private boolean thresholdReached(final int calls)
+    {
+        return failedCalls * 100f / calls >= configuration.getFailureRateThreshold()
+                || slowCalls * 100f / calls >= configuration.getSlowCallRateThreshold();
+    }
+
+    private State transition(final State to)
+    {
+        final State from = state;
+        state = to;
+        generation++;
+        switch (to)
+        {
+            case OPEN:
+                openedAt = System.currentTimeMillis();
+                break;
+            case HALF_OPEN:
+                halfOpenPermits = configuration.getPermittedCallsInHalfOpenState();
+                resetWindow(configuration.getPermittedCallsInHalfOpenState());
+                break;
+            case CLOSED:
+                resetWindow(configuration.getSlidingWindowSize());
+                break;
+            default:
+                break;
+        }
+        return from;
+    }
+
+    private void notify(final State from, final State to)
+    {
+        if (Objects.isNull(from))
+        {
+            return;
+        }
+
+        if (to == State.OPEN)
+        {
+            logger.warn("Circuit breaker of {} changed from {} to {}", system, from, to);
+        }
+        else
+        {
+            logger.info("Circuit breaker of {} changed from {} to {}", system, from, to);
+        }
+
+        for (Listener listener : listeners)
+        {
+            try
+            {
+                listener.onStateTransition(system, from, to);
+            }
+            catch (final RuntimeException e)
+            {
+                logger.warn("Circuit breaker listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean openWaitElapsed()
+    {
+        return System.currentTimeMillis() - openedAt >= configuration.getWaitInOpenStateMillis();
+    }
+
+    private void record(final byte outcome)
+    {
+        if (windowCount == window.length)
+        {
+            final byte evicted = window[windowIndex];
+            if ((evicted & FAILED) != 0) { failedCalls--; }
+            if ((evicted & SLOW) != 0) { slowCalls--; }
+        }
+        else
+        {
+            windowCount++;
+        }
+
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        if ((outcome & FAILED) != 0) { failedCalls++; }
+        if ((outcome & SLOW) != 0) { slowCalls++; }
+    }
+
+    private void resetWindow(final int size)
+    {
+        window = new byte[Math.max(1, size)];
+        windowIndex = 0;
+        windowCount = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+
+    private float rate(final int calls)
+    {
+        if (windowCount == 0 || (state == State.CLOSED && windowCount < configuration.getMinimumNumberOfCalls()))
+        {
+            return -1;
+        }
+        return calls * 100f / windowCount;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder sb = new StringBuilder("CircuitBreaker [");
+        sb.append("system=").append(system);
+        sb.append(", state=").append(state);
+        sb.append(", bufferedCalls=").append(windowCount);
+        sb.append(", failedCalls=").append(failedCalls);
+        sb.append(", slowCalls=").append(slowCalls);
+        sb.append(", notPermittedCalls=").append(notPermittedCalls);
+        sb.append(']');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package eu.arrowhead.client.transport;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+public class CircuitBreakerConfiguration
+{
+    public static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final float DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+    public static final long DEFAULT_SLOW_CALL_MILLIS = 10000;
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+    public static final long DEFAULT_WAIT_IN_OPEN_STATE_MILLIS = 30000;
+    public static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 3;
+
+    private final boolean enabled;
+    private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private long slowCallMillis = DEFAULT_SLOW_CALL_MILLIS;
+    private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+    private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+    private long waitInOpenStateMillis = DEFAULT_WAIT_IN_OPEN_STATE_MILLIS;
+    private int permittedCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+    private Predicate<Throwable> failurePredicate = RetryClassifier.defaults()::isRetryable;
+
+    private CircuitBreakerConfiguration(final boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Opens once half of the last 20 calls (at least 10) failed and probes the system again after 30 seconds.
+     */
+    public static CircuitBreakerConfiguration defaults()
+    {
+        return new CircuitBreakerConfiguration(true);
+    }
+
+    /**
+     * Never opens, every call is passed through.
+     */
+    public static CircuitBreakerConfiguration disabled()
+    {
+        return new CircuitBreakerConfiguration(false);
+    }
+
+    /**
+     * Percentage of failed calls in the sliding window at which the breaker opens.
+     */
+    public CircuitBreakerConfiguration withFailureRateThreshold(final float percentage)
+    {
+        this.failureRateThreshold = percentage;
+        return this;
+    }
+
+    /**
+     * Percentage of calls slower than the slow call duration at which the breaker opens.
+     */
+    public CircuitBreakerConfiguration withSlowCallRateThreshold(final float percentage)
+    {
+        this.slowCallRateThreshold = percentage;
+        return this;
+    }
+
+    public CircuitBreakerConfiguration withSlowCallDuration(final long duration, final TimeUnit unit)
+    {
+        this.slowCallMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * Number of most recent calls the rates are computed from.
+     */
+    public CircuitBreakerConfiguration withSlidingWindowSize(final int slidingWindowSize)
+    {
+        this.slidingWindowSize = slidingWindowSize;
+        return this;
+    }
+
+    /**
+     * Number of calls which must be recorded before the rates are evaluated.
+     */
+    public CircuitBreakerConfiguration withMinimumNumberOfCalls(final int minimumNumberOfCalls)
+    {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    public CircuitBreakerConfiguration withWaitInOpenState(final long duration, final TimeUnit unit)
+    {
+        this.waitInOpenStateMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    /**
+     * Number of probe calls let through in the half-open state; they decide whether the breaker closes or opens again.
+     */
+    public CircuitBreakerConfiguration withPermittedCallsInHalfOpenState(final int permittedCalls)
+    {
+        this.permittedCallsInHalfOpenState = permittedCalls;
+        return this;
+    }
+
+    /**
+     * Decides which exceptions count as failure of the system. Exceptions not matching are recorded as successful calls. Defaults to
+     * the transient failures of {@link RetryClassifier#defaults()}, so e.g. a 400 Bad Request does not open the breaker.
+     */
+    public CircuitBreakerConfiguration withFailurePredicate(final Predicate<Throwable> failurePredicate)
+    {
+        this.failurePredicate = Objects.requireNonNull(failurePredicate);
+        return this;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public float getFailureRateThreshold()
+    {
+        return failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold()
+    {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallMillis()
+    {
+        return slowCallMillis;
+    }
+
+    public int getSlidingWindowSize()
+    {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls()
+    {
+        return minimumNumberOfCalls;
+    }
+
+    public long getWaitInOpenStateMillis()
+    {
+        return waitInOpenStateMillis;
+    }
+
+    public int getPermittedCallsInHalfOpenState()
+    {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public Predicate<Throwable> getFailurePredicate()
+    {
+        return failurePredicate;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("CircuitBreakerConfiguration [");
+        sb.append("enabled=").append(enabled);
+        sb.append(", failureRateThreshold=").append(failureRateThreshold);
+        sb.append(", slowCallRateThreshold=").append(slowCallRateThreshold);
+        sb.append(", slowCallMillis=").append(slowCallMillis);
+        sb.append(", slidingWindowSize=").append(slidingWindowSize);
+        sb.append(", minimumNumberOfCalls=").append(minimumNumberOfCalls);
+        sb.append(", waitInOpenStateMillis=").append(waitInOpenStateMillis);
+        sb.append(", permittedCallsInHalfOpenState=").append(permittedCallsInHalfOpenState);
+        sb.append(']');
+        return sb.toString();
+    }
+}
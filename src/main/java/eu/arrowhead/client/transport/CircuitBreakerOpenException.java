@@ -0,0 +1,23 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.misc.CoreSystems;
+
+/**
+ * Thrown instead of sending a request while the {@link CircuitBreaker} of the target system is open. Nothing was sent, so there
+ * is nothing to compensate.
+ */
+public class CircuitBreakerOpenException extends TransportException
+{
+    private final CoreSystems system;
+
+    public CircuitBreakerOpenException(final CoreSystems system)
+    {
+        super("Circuit breaker of " + system + " is open");
+        this.system = system;
+    }
+
+    public CoreSystems getSystem()
+    {
+        return system;
+    }
+}
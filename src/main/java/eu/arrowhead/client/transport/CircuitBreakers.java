@@ -0,0 +1,104 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.misc.CoreSystems;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * One {@link CircuitBreaker} per core system. Calls to URIs which do not belong to a core system are not guarded.
+ */
+public class CircuitBreakers
+{
+    private final ConcurrentMap<CoreSystems, CircuitBreakerConfiguration> configurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CoreSystems, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final List<CircuitBreaker.Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile CircuitBreakerConfiguration defaultConfiguration;
+
+    public CircuitBreakers(final CircuitBreakerConfiguration defaultConfiguration)
+    {
+        this.defaultConfiguration = Objects.requireNonNull(defaultConfiguration);
+    }
+
+    /**
+     * Replaces the configuration of all systems without an own one. Resets the state of their breakers.
+     */
+    public void configure(final CircuitBreakerConfiguration configuration)
+    {
+        this.defaultConfiguration = Objects.requireNonNull(configuration);
+        breakers.keySet().removeIf(system -> !configurations.containsKey(system));
+    }
+
+    /**
+     * Replaces the configuration of the given system. Resets the state of its breaker.
+     */
+    public void configure(final CoreSystems system, final CircuitBreakerConfiguration configuration)
+    {
+        configurations.put(Objects.requireNonNull(system), Objects.requireNonNull(configuration));
+        breakers.remove(system);
+    }
+
+    /**
+     * The listener is informed about state transitions of all breakers, including those created later.
+     */
+    public void addListener(final CircuitBreaker.Listener listener)
+    {
+        listeners.add(Objects.requireNonNull(listener));
+        breakers.values().forEach(breaker -> breaker.addListener(listener));
+    }
+
+    public CircuitBreaker get(final CoreSystems system)
+    {
+        return breakers.computeIfAbsent(system, s -> {
+            final CircuitBreaker breaker = new CircuitBreaker(s, configurations.getOrDefault(s, defaultConfiguration));
+            listeners.forEach(breaker::addListener);
+            return breaker;
+        });
+    }
+
+    /**
+     * @return the breakers of all systems called so far
+     */
+    public Map<CoreSystems, CircuitBreaker> getAll()
+    {
+        return new EnumMap<>(breakers);
+    }
+
+    /**
+     * Runs the invocation guarded by the breaker of the given system, or unguarded if the system is <code>null</code>.
+     */
+    public <T> T execute(final CoreSystems system, final TransportInvocation<T> invocation) throws TransportException
+    {
+        if (Objects.isNull(system))
+        {
+            return invocation.invoke();
+        }
+        return get(system).execute(invocation);
+    }
+
+    public <T> CompletableFuture<T> executeAsync(final CoreSystems system, final Supplier<CompletableFuture<T>> invocation)
+    {
+        if (Objects.isNull(system))
+        {
+            return invocation.get();
+        }
+        return get(system).executeAsync(invocation);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("CircuitBreakers [");
+        sb.append("defaultConfiguration=").append(defaultConfiguration);
+        sb.append(", breakers=").append(breakers.values());
+        sb.append(']');
+        return sb.toString();
+    }
+}
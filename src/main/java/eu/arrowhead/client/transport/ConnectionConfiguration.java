@@ -0,0 +1,146 @@
+package eu.arrowhead.client.transport;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionConfiguration
+{
+    public static final int DEFAULT_MAX_TOTAL = 50;
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 30000;
+
+    private final boolean reuseConnections;
+    private int maxTotal = DEFAULT_MAX_TOTAL;
+    private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+    private long keepAlive = DEFAULT_KEEP_ALIVE_MILLIS;
+    private TimeUnit keepAliveUnit = TimeUnit.MILLISECONDS;
+    private int validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+    private int connectTimeout = DEFAULT_TIMEOUT_MILLIS;
+    private int readTimeout = DEFAULT_TIMEOUT_MILLIS;
+    private int connectionRequestTimeout = DEFAULT_TIMEOUT_MILLIS;
+
+    private ConnectionConfiguration(final boolean reuseConnections)
+    {
+        this.reuseConnections = reuseConnections;
+    }
+
+    /**
+     * Connections are kept alive and shared between invocations through a connection pool.
+     */
+    public static ConnectionConfiguration pooled()
+    {
+        return new ConnectionConfiguration(true);
+    }
+
+    /**
+     * Every invocation opens (and closes) its own connection. This was the behaviour before connection pooling was introduced.
+     */
+    public static ConnectionConfiguration noReuse()
+    {
+        return new ConnectionConfiguration(false);
+    }
+
+    public ConnectionConfiguration withMaxTotal(final int maxTotal)
+    {
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    public ConnectionConfiguration withMaxPerRoute(final int maxPerRoute)
+    {
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    public ConnectionConfiguration withKeepAlive(final long keepAlive, final TimeUnit keepAliveUnit)
+    {
+        this.keepAlive = keepAlive;
+        this.keepAliveUnit = keepAliveUnit;
+        return this;
+    }
+
+    public ConnectionConfiguration withValidateAfterInactivity(final int milliseconds)
+    {
+        this.validateAfterInactivity = milliseconds;
+        return this;
+    }
+
+    public ConnectionConfiguration withConnectTimeout(final int milliseconds)
+    {
+        this.connectTimeout = milliseconds;
+        return this;
+    }
+
+    public ConnectionConfiguration withReadTimeout(final int milliseconds)
+    {
+        this.readTimeout = milliseconds;
+        return this;
+    }
+
+    /**
+     * Maximum time to wait for a free connection from the pool before failing.
+     */
+    public ConnectionConfiguration withConnectionRequestTimeout(final int milliseconds)
+    {
+        this.connectionRequestTimeout = milliseconds;
+        return this;
+    }
+
+    public boolean isReuseConnections()
+    {
+        return reuseConnections;
+    }
+
+    public int getMaxTotal()
+    {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute()
+    {
+        return maxPerRoute;
+    }
+
+    public long getKeepAliveMillis()
+    {
+        return keepAliveUnit.toMillis(keepAlive);
+    }
+
+    public int getValidateAfterInactivity()
+    {
+        return validateAfterInactivity;
+    }
+
+    public int getConnectTimeout()
+    {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout()
+    {
+        return readTimeout;
+    }
+
+    public int getConnectionRequestTimeout()
+    {
+        return connectionRequestTimeout;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("ConnectionConfiguration [");
+        sb.append("reuseConnections=").append(reuseConnections);
+        sb.append(", maxTotal=").append(maxTotal);
+        sb.append(", maxPerRoute=").append(maxPerRoute);
+        sb.append(", keepAlive=").append(keepAlive);
+        sb.append(", keepAliveUnit=").append(keepAliveUnit);
+        sb.append(", validateAfterInactivity=").append(validateAfterInactivity);
+        sb.append(", connectTimeout=").append(connectTimeout);
+        sb.append(", readTimeout=").append(readTimeout);
+        sb.append(", connectionRequestTimeout=").append(connectionRequestTimeout);
+        sb.append(']');
+        return sb.toString();
+    }
+}
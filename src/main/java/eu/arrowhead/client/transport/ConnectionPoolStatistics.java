@@ -0,0 +1,49 @@
+package eu.arrowhead.client.transport;
+
+public class ConnectionPoolStatistics
+{
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    public ConnectionPoolStatistics(final int leased, final int pending, final int available, final int max)
+    {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    public int getLeased()
+    {
+        return leased;
+    }
+
+    public int getPending()
+    {
+        return pending;
+    }
+
+    public int getAvailable()
+    {
+        return available;
+    }
+
+    public int getMax()
+    {
+        return max;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("ConnectionPoolStatistics [");
+        sb.append("leased=").append(leased);
+        sb.append(", pending=").append(pending);
+        sb.append(", available=").append(available);
+        sb.append(", max=").append(max);
+        sb.append(']');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.utils.ThreadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Hedged requests for idempotent reads: if the first attempt has not answered within the given percentile of the recently observed
+ * latencies, a second identical attempt is started and the first answer wins, the other attempt is cancelled. The number of hedges is
+ * limited to a percentage of all requests, so a slow system does not receive twice the load.
+ */
+public class HedgingPolicy
+{
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 10;
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 500;
+    public static final float DEFAULT_MAX_HEDGE_PERCENT = 10;
+    public static final int DEFAULT_SAMPLE_SIZE = 128;
+
+    private final Logger logger = LogManager.getLogger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private double percentile = DEFAULT_PERCENTILE;
+    private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+    private long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+    private RetryBudget hedgeBudget = new RetryBudget(DEFAULT_MAX_HEDGE_PERCENT, 0, 10);
+    private long[] samples = new long[DEFAULT_SAMPLE_SIZE];
+    private int sampleIndex;
+    private int sampleCount;
+
+    /**
+     * Hedges after the 95th percentile of the last 128 latencies (500 ms until 10 latencies were observed), for at most 10% of the
+     * requests.
+     */
+    public static HedgingPolicy defaults()
+    {
+        return new HedgingPolicy();
+    }
+
+    /**
+     * Percentile of the recent latencies after which the hedge is sent, e.g. 95.
+     */
+    public HedgingPolicy withPercentile(final double percentile)
+    {
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Lower bound for the hedge delay, so a burst of very fast answers does not cause hedges for every request.
+     */
+    public HedgingPolicy withMinDelay(final long delay, final TimeUnit unit)
+    {
+        this.minDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Hedge delay used until enough latencies were observed.
+     */
+    public HedgingPolicy withInitialDelay(final long delay, final TimeUnit unit)
+    {
+        this.initialDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Upper bound for the hedges as percentage of all requests, with a burst of up to 10 hedges.
+     */
+    public HedgingPolicy withMaxHedgePercent(final float percent)
+    {
+        this.hedgeBudget = new RetryBudget(percent, 0, 10);
+        return this;
+    }
+
+    public synchronized HedgingPolicy withSampleSize(final int sampleSize)
+    {
+        this.samples = new long[Math.max(1, sampleSize)];
+        this.sampleIndex = 0;
+        this.sampleCount = 0;
+        return this;
+    }
+
+    /**
+     * Runs the attempt with index 0 and, if it has not completed after the hedge delay, the attempt with index 1. Completes with the
+     * first successful result, or with the failure of the last attempt if all attempts failed. Cancelling the returned future cancels
+     * the running attempts.
+     *
+     * @param attempt creates the attempt with the given index; each call must send a new request
+     */
+    public <T> CompletableFuture<T> invokeAsync(final IntFunction<CompletableFuture<T>> attempt)
+    {
+        requests.incrementAndGet();
+        hedgeBudget.deposit();
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger running = new AtomicInteger(1);
+        final long start = System.nanoTime();
+        final CompletableFuture<T> primary = start(attempt, 0, result, running, start);
+
+        final long delay = getHedgeDelay();
+        try
+        {
+            final ScheduledFuture<?> hedge = ThreadUtils.sharedScheduler().schedule(() -> {
+                if (result.isDone() || !hedgeBudget.tryWithdraw())
+                {
+                    return;
+                }
+                logger.debug("No answer after {} ms, sending hedged request", delay);
+                hedges.incrementAndGet();
+                running.incrementAndGet();
+                final CompletableFuture<T> secondary = start(attempt, 1, result, running, start);
+                result.whenComplete((value, throwable) -> secondary.cancel(true));
+            }, delay, TimeUnit.MILLISECONDS);
+            result.whenComplete((value, throwable) -> hedge.cancel(false));
+        }
+        catch (final RejectedExecutionException e)
+        {
+            logger.debug("Not hedging, scheduler rejected the hedge: {}", e.getMessage());
+        }
+
+        result.whenComplete((value, throwable) -> primary.cancel(true));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> start(final IntFunction<CompletableFuture<T>> attempt, final int index, final CompletableFuture<T> result,
+                                           final AtomicInteger running, final long startNanos)
+    {
+        CompletableFuture<T> future;
+        try
+        {
+            future = attempt.apply(index);
+        }
+        catch (final RuntimeException e)
+        {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((value, throwable) -> {
+            if (Objects.isNull(throwable))
+            {
+                record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                if (result.complete(value) && index > 0)
+                {
+                    hedgeWins.incrementAndGet();
+                }
+            }
+            else if (running.decrementAndGet() == 0)
+            {
+                result.completeExceptionally(throwable instanceof CompletionException && Objects.nonNull(throwable.getCause())
+                                                     ? throwable.getCause()
+                                                     : throwable);
+            }
+        });
+        return future;
+    }
+
+    private synchronized void record(final long latencyMillis)
+    {
+        samples[sampleIndex] = latencyMillis;
+        sampleIndex = (sampleIndex + 1) % samples.length;
+        if (sampleCount < samples.length)
+        {
+            sampleCount++;
+        }
+    }
+
+    /**
+     * @return delay after which a hedge is sent in milliseconds
+     */
+    public synchronized long getHedgeDelay()
+    {
+        if (sampleCount < Math.min(10, samples.length))
+        {
+            return Math.max(minDelayMillis, initialDelayMillis);
+        }
+
+        final long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return Math.max(minDelayMillis, sorted[Math.max(0, Math.min(sorted.length - 1, index))]);
+    }
+
+    public long getRequestCount()
+    {
+        return requests.get();
+    }
+
+    public long getHedgeCount()
+    {
+        return hedges.get();
+    }
+
+    /**
+     * @return number of hedges which answered before the original request
+     */
+    public long getHedgeWinCount()
+    {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("HedgingPolicy [");
+        sb.append("percentile=").append(percentile);
+        sb.append(", minDelayMillis=").append(minDelayMillis);
+        sb.append(", initialDelayMillis=").append(initialDelayMillis);
+        sb.append(", hedgeDelay=").append(getHedgeDelay());
+        sb.append(", requests=").append(requests);
+        sb.append(", hedges=").append(hedges);
+        sb.append(", hedgeWins=").append(hedgeWins);
+        sb.append(']');
+        return sb.toString();
+    }
+}
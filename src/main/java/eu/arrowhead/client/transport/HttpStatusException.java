@@ -0,0 +1,46 @@
+package eu.arrowhead.client.transport;
+
+/**
+ * A request was answered with a non-2xx status code.
+ */
+public class HttpStatusException extends TransportException
+{
+    private final int statusCode;
+    private final String retryAfter;
+    private final String responseBody;
+
+    /**
+     * @param retryAfter value of the <code>Retry-After</code> header, <code>null</code> if absent
+     */
+    public HttpStatusException(final int statusCode, final String message, final String retryAfter)
+    {
+        this(statusCode, message, retryAfter, null);
+    }
+
+    /**
+     * @param retryAfter   value of the <code>Retry-After</code> header, <code>null</code> if absent
+     * @param responseBody body of the response, e.g. the error message of the core system, <code>null</code> if absent
+     */
+    public HttpStatusException(final int statusCode, final String message, final String retryAfter, final String responseBody)
+    {
+        super(statusCode + " " + message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+        this.responseBody = responseBody;
+    }
+
+    public int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    public String getRetryAfter()
+    {
+        return retryAfter;
+    }
+
+    public String getResponseBody()
+    {
+        return responseBody;
+    }
+}
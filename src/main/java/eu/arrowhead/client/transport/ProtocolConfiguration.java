@@ -25,6 +25,16 @@ public class ProtocolConfiguration
     private final String scheme;
     private final boolean secure;
 
+    public static ProtocolConfiguration http(final TransportFactory transportFactory)
+    {
+        return new ProtocolConfiguration("http.properties", "http", false, transportFactory.get());
+    }
+
+    public static ProtocolConfiguration https(final TransportFactory transportFactory)
+    {
+        return new ProtocolConfiguration("https.properties", "https", true, transportFactory.get());
+    }
+
     private ProtocolConfiguration(final String configFile, final String scheme, final boolean secure, final Transport transport)
     {
         this.scheme = scheme;
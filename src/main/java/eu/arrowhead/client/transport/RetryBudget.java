@@ -0,0 +1,125 @@
+package eu.arrowhead.client.transport;
+
+/**
+ * Token bucket limiting retries relative to successful calls, so retries help during short disturbances but cannot multiply the
+ * load on a core system which is already failing. Every successful call deposits <code>percentCanRetry / 100</code> tokens, every
+ * retry withdraws one. Independent of the balance, <code>minRetriesPerSecond</code> retries are always allowed, so a client which
+ * has not succeeded yet (e.g. while onboarding) can still retry slowly.
+ * <p>
+ * By default all {@link RetryHandler}s of the JVM share {@link #shared()}.
+ */
+public class RetryBudget
+{
+    public static final float DEFAULT_PERCENT_CAN_RETRY = 20;
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    public static final int DEFAULT_MAX_BALANCE = 100;
+
+    private static final RetryBudget SHARED = new RetryBudget(DEFAULT_PERCENT_CAN_RETRY, DEFAULT_MIN_RETRIES_PER_SECOND, DEFAULT_MAX_BALANCE);
+    private static final RetryBudget UNLIMITED = new RetryBudget(0, Integer.MAX_VALUE, 0);
+
+    private final float depositPerCall;
+    private final int minRetriesPerSecond;
+    private final int maxBalance;
+
+    private float balance;
+    private long currentSecond;
+    private int retriesInCurrentSecond;
+    private long retries;
+    private long rejectedRetries;
+
+    /**
+     * @param percentCanRetry     retries allowed as percentage of successful calls
+     * @param minRetriesPerSecond retries allowed per second regardless of the balance
+     * @param maxBalance          upper bound for the tokens saved up while the systems are healthy, i.e. the largest burst of retries
+     *                            beyond the minimum
+     */
+    public RetryBudget(final float percentCanRetry, final int minRetriesPerSecond, final int maxBalance)
+    {
+        this.depositPerCall = percentCanRetry / 100;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxBalance = maxBalance;
+    }
+
+    /**
+     * The budget used by all retry handlers without an own one: 20% of the successful calls plus 10 retries per second.
+     */
+    public static RetryBudget shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Never rejects a retry.
+     */
+    public static RetryBudget unlimited()
+    {
+        return UNLIMITED;
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void deposit()
+    {
+        balance = Math.min(maxBalance, balance + depositPerCall);
+    }
+
+    /**
+     * @return <code>true</code> if a retry may be started
+     */
+    public synchronized boolean tryWithdraw()
+    {
+        final long second = System.nanoTime() / 1_000_000_000L;
+        if (second != currentSecond)
+        {
+            currentSecond = second;
+            retriesInCurrentSecond = 0;
+        }
+
+        if (retriesInCurrentSecond < minRetriesPerSecond)
+        {
+            retriesInCurrentSecond++;
+        }
+        else if (balance >= 1)
+        {
+            balance -= 1;
+        }
+        else
+        {
+            rejectedRetries++;
+            return false;
+        }
+
+        retries++;
+        return true;
+    }
+
+    public synchronized float getBalance()
+    {
+        return balance;
+    }
+
+    public synchronized long getRetries()
+    {
+        return retries;
+    }
+
+    public synchronized long getRejectedRetries()
+    {
+        return rejectedRetries;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder sb = new StringBuilder("RetryBudget [");
+        sb.append("percentCanRetry=").append(depositPerCall * 100);
+        sb.append(", minRetriesPerSecond=").append(minRetriesPerSecond);
+        sb.append(", maxBalance=").append(maxBalance);
+        sb.append(", balance=").append(balance);
+        sb.append(", retries=").append(retries);
+        sb.append(", rejectedRetries=").append(rejectedRetries);
+        sb.append(']');
+        return sb.toString();
+    }
+}
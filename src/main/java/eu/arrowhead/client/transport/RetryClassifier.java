@@ -0,0 +1,177 @@
+package eu.arrowhead.client.transport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.web.client.RestClientResponseException;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Decides whether a failed request is worth retrying. Shared by the {@link RetryHandler} and the connection level retries of the
+ * HTTP client, and used as default failure predicate of the {@link CircuitBreaker}.
+ * <ul>
+ * <li>retried: I/O and connect errors, 5xx (except 501 and 505) and 429</li>
+ * <li>not retried: other 4xx, (de)serialization errors, certificate errors, interrupts and open circuit breakers</li>
+ * <li>anything else is retried, as before the classification existed</li>
+ * </ul>
+ */
+public class RetryClassifier
+{
+    private static final RetryClassifier DEFAULTS = new RetryClassifier();
+
+    public static RetryClassifier defaults()
+    {
+        return DEFAULTS;
+    }
+
+    public boolean isRetryable(final Throwable throwable)
+    {
+        for (Throwable cause = throwable; Objects.nonNull(cause); cause = next(cause))
+        {
+            final int statusCode = statusCode(cause);
+            if (statusCode > 0)
+            {
+                return isRetryableStatus(statusCode);
+            }
+
+            if (cause instanceof CircuitBreakerOpenException
+                    || cause instanceof InterruptedException
+                    || cause instanceof JsonProcessingException
+                    || cause instanceof HttpMessageConversionException
+                    || cause instanceof SSLHandshakeException
+                    || cause instanceof SSLPeerUnverifiedException)
+            {
+                return false;
+            }
+
+            if (cause instanceof IOException)
+            {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 429 Too Many Requests and server errors which may go away, i.e. all 5xx except 501 Not Implemented and 505 HTTP Version Not
+     * Supported.
+     */
+    protected boolean isRetryableStatus(final int statusCode)
+    {
+        if (statusCode == 429)
+        {
+            return true;
+        }
+        return statusCode >= 500 && statusCode != 501 && statusCode != 505;
+    }
+
+    /**
+     * @return the delay the server asked for with a <code>Retry-After</code> header in milliseconds, -1 if there is none
+     */
+    public long getRetryAfterMillis(final Throwable throwable)
+    {
+        for (Throwable cause = throwable; Objects.nonNull(cause); cause = next(cause))
+        {
+            final String retryAfter = retryAfter(cause);
+            if (Objects.nonNull(retryAfter))
+            {
+                return parseRetryAfter(retryAfter.trim());
+            }
+        }
+        return -1;
+    }
+
+    private static long parseRetryAfter(final String retryAfter)
+    {
+        try
+        {
+            if (!retryAfter.isEmpty() && retryAfter.chars().allMatch(Character::isDigit))
+            {
+                return Long.parseLong(retryAfter) * 1000;
+            }
+
+            final ZonedDateTime date = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        }
+        catch (final NumberFormatException | DateTimeParseException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the HTTP status code the failure was answered with, -1 if it has none
+     */
+    public int getStatusCode(final Throwable throwable)
+    {
+        for (Throwable cause = throwable; Objects.nonNull(cause); cause = next(cause))
+        {
+            final int statusCode = statusCode(cause);
+            if (statusCode > 0)
+            {
+                return statusCode;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the body of the response the failure was answered with, <code>null</code> if it has none
+     */
+    public String getResponseBody(final Throwable throwable)
+    {
+        for (Throwable cause = throwable; Objects.nonNull(cause); cause = next(cause))
+        {
+            if (cause instanceof HttpStatusException)
+            {
+                return ((HttpStatusException) cause).getResponseBody();
+            }
+            if (cause instanceof RestClientResponseException)
+            {
+                return ((RestClientResponseException) cause).getResponseBodyAsString();
+            }
+        }
+        return null;
+    }
+
+    private static int statusCode(final Throwable throwable)
+    {
+        if (throwable instanceof HttpStatusException)
+        {
+            return ((HttpStatusException) throwable).getStatusCode();
+        }
+        if (throwable instanceof RestClientResponseException)
+        {
+            return ((RestClientResponseException) throwable).getRawStatusCode();
+        }
+        return -1;
+    }
+
+    private static String retryAfter(final Throwable throwable)
+    {
+        if (throwable instanceof HttpStatusException)
+        {
+            return ((HttpStatusException) throwable).getRetryAfter();
+        }
+        if (throwable instanceof RestClientResponseException)
+        {
+            final HttpHeaders headers = ((RestClientResponseException) throwable).getResponseHeaders();
+            return Objects.isNull(headers) ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        }
+        return null;
+    }
+
+    private static Throwable next(final Throwable throwable)
+    {
+        // wrappers like TransportException, CompletionException or Spring's ResourceAccessException
+        final Throwable cause = throwable.getCause();
+        return cause == throwable ? null : cause;
+    }
+}
@@ -6,15 +6,24 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class RetryHandler
 {
     private final Logger logger = LogManager.getLogger();
 
+    private ScheduledExecutorService scheduler = ThreadUtils.sharedScheduler();
     private int maxRetries = 5;
-    private long delayBetweenRetries = 200;
-    private TimeUnit timeUnitForRetries = TimeUnit.MILLISECONDS;
+    private BackoffPolicy backoffPolicy = BackoffPolicy.fixed(200, TimeUnit.MILLISECONDS);
+    private long deadlineMillis = 0;
+    private RetryClassifier classifier = RetryClassifier.defaults();
+    private RetryBudget retryBudget = RetryBudget.shared();
 
     public void setMaxRetries(final int maxRetries)
     {
@@ -23,8 +32,93 @@ public class RetryHandler
 
     public void setDelayBetweenRetries(final long delayBetweenRetries, final TimeUnit timeUnitForRetries)
     {
-        this.delayBetweenRetries = delayBetweenRetries;
-        this.timeUnitForRetries = timeUnitForRetries;
+        this.backoffPolicy = BackoffPolicy.fixed(delayBetweenRetries, timeUnitForRetries);
+    }
+
+    public void setBackoffPolicy(final BackoffPolicy backoffPolicy)
+    {
+        this.backoffPolicy = Objects.requireNonNull(backoffPolicy);
+    }
+
+    /**
+     * Upper bound for the total time of one invocation including all retries and delays. No retry is started if its delay would
+     * end after the deadline. 0 disables the deadline.
+     */
+    public void setDeadline(final long deadline, final TimeUnit unit)
+    {
+        this.deadlineMillis = unit.toMillis(deadline);
+    }
+
+    /**
+     * Decides which failures are retried and whether the server asked for a longer delay. Defaults to
+     * {@link RetryClassifier#defaults()}.
+     */
+    public void setRetryClassifier(final RetryClassifier classifier)
+    {
+        this.classifier = Objects.requireNonNull(classifier);
+    }
+
+    /**
+     * Budget the retries are drawn from and the successful calls are deposited into. Defaults to the JVM-wide
+     * {@link RetryBudget#shared()}, {@link RetryBudget#unlimited()} restores independent retries.
+     */
+    public void setRetryBudget(final RetryBudget retryBudget)
+    {
+        this.retryBudget = Objects.requireNonNull(retryBudget);
+    }
+
+    /**
+     * Scheduler the retries of asynchronous invocations are started on. Defaults to {@link ThreadUtils#sharedScheduler()}.
+     */
+    public void setScheduler(final ScheduledExecutorService scheduler)
+    {
+        this.scheduler = Objects.requireNonNull(scheduler);
+    }
+
+    /**
+     * @return the delay before the given retry in milliseconds or -1 if the retry would exceed the deadline. A
+     * <code>Retry-After</code> of the failure is honoured if it is longer than the backoff.
+     */
+    private long nextDelay(final int retry, final long previousDelay, final long startMillis, final Throwable cause)
+    {
+        final long delay = Math.max(classifier.getRetryAfterMillis(cause), Math.max(0, backoffPolicy.nextDelay(retry, previousDelay)));
+        if (deadlineMillis > 0 && System.currentTimeMillis() + delay - startMillis > deadlineMillis)
+        {
+            logger.warn("Not retrying, deadline of {} ms would be exceeded", deadlineMillis);
+            return -1;
+        }
+        return delay;
+    }
+
+    /**
+     * Sleeps before the given retry.
+     *
+     * @return the delay slept in milliseconds or -1 if the retry would exceed the deadline
+     * @throws TransportException if the thread was interrupted while sleeping
+     */
+    private long awaitRetry(final int retry, final long previousDelay, final long startMillis, final Throwable cause) throws TransportException
+    {
+        final long delay = nextDelay(retry, previousDelay, startMillis, cause);
+        if (delay >= 0)
+        {
+            logger.info("Sleeping {} MILLISECONDS before retry ...", delay);
+            try
+            {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw interrupted(e);
+            }
+        }
+        return delay;
+    }
+
+    private TransportException interrupted(final InterruptedException e)
+    {
+        logger.warn("Interrupted, not retrying");
+        return new TransportException("Interrupted", e);
     }
 
     private TransportException rethrowException(final Throwable throwable)
@@ -39,54 +133,117 @@ public class RetryHandler
         return new TransportException(throwable);
     }
 
+    /**
+     * Invokes the method until it succeeds, the failure is not retryable, the retries are used up or the deadline is reached. The
+     * error method is invoked after every retryable failure, a failure which is not retryable is rethrown right away. Retries of
+     * nested invocations on the same thread count against the retries of this one, see {@link RetryScope}.
+     * <p>
+     * Interrupting the thread cancels the invocation: a delay is cut short and no further attempt or error method is started. The
+     * interrupt flag stays set.
+     */
     public <T> T invokeWithErrorHandler(final TransportInvocation<T> method, final VoidTransportInvocation errorMethod) throws TransportException
     {
-        Throwable throwable = null;
-        for (int i = 0; i <= maxRetries; i++)
+        final RetryScope scope = RetryScope.enter(classifier, retryBudget, maxRetries);
+        try
         {
-            try
-            {
-                return method.invoke();
-            }
-            catch (final Exception e)
+            final long startMillis = System.currentTimeMillis();
+            long delay = 0;
+            for (int i = 0; ; i++)
             {
-                logger.warn("{}: {} - Invoking error method", e.getClass().getSimpleName(), e.getMessage());
-                errorMethod.invoke();
-                throwable = e;
-            }
+                if (Thread.currentThread().isInterrupted())
+                {
+                    throw interrupted(new InterruptedException());
+                }
 
-            if (i < maxRetries)
-            {
-                logger.info("Sleeping {} {} before retry ...", delayBetweenRetries, timeUnitForRetries.name());
-                ThreadUtils.sleep(delayBetweenRetries, timeUnitForRetries);
+                try
+                {
+                    final T returnValue = method.invoke();
+                    scope.onSuccess();
+                    return returnValue;
+                }
+                catch (final CircuitBreakerOpenException e)
+                {
+                    // nothing was sent and retrying would fail the same way
+                    throw e;
+                }
+                catch (final Exception e)
+                {
+                    if (Thread.currentThread().isInterrupted())
+                    {
+                        // cancelled, the caller cleans up instead of the error method
+                        throw rethrowException(e);
+                    }
+                    if (!isRetryable(e))
+                    {
+                        throw rethrowException(e);
+                    }
+
+                    logger.warn("{}: {} - Invoking error method", e.getClass().getSimpleName(), e.getMessage());
+                    errorMethod.invoke();
+                    delay = prepareRetry(scope, i + 1, delay, startMillis, e);
+                    if (delay < 0)
+                    {
+                        throw rethrowException(e);
+                    }
+                }
             }
         }
-        throw rethrowException(throwable);
+        finally
+        {
+            scope.exit();
+        }
     }
 
     public void invokeVoid(final VoidTransportInvocation method) throws TransportException
     {
-        Throwable throwable = null;
-        for (int i = 0; i <= maxRetries; i++)
+        invokeWithErrorHandler(() -> {
+            method.invoke();
+            return null;
+        }, this::doNothing);
+    }
+
+    private boolean isRetryable(final Throwable cause)
+    {
+        if (!classifier.isRetryable(cause))
         {
-            try
-            {
-                method.invoke();
-                break;
-            }
-            catch (final Exception e)
-            {
-                logger.warn("{}: {} - Invoking error method", e.getClass().getSimpleName(), e.getMessage());
-                throwable = e;
-            }
+            logger.warn("Not retrying, {} is not transient", cause.getClass().getSimpleName());
+            return false;
+        }
+        return true;
+    }
 
-            if (i < maxRetries)
-            {
-                logger.info("Sleeping {} {} before retry ...", delayBetweenRetries, timeUnitForRetries.name());
-                ThreadUtils.sleep(delayBetweenRetries, timeUnitForRetries);
-            }
+    /**
+     * Decides whether the given retry of a retryable failure happens, i.e. whether it is within the retries of the invocation and
+     * its scope and the budget allows it.
+     */
+    private boolean acquireRetry(final RetryScope scope, final int retry)
+    {
+        if (retry > maxRetries || !scope.tryAcquireRetry())
+        {
+            return false;
+        }
+        if (!scope.getBudget().tryWithdraw())
+        {
+            logger.warn("Not retrying, retry budget exhausted: {}", scope.getBudget());
+            return false;
+        }
+        scope.onRetry();
+        return true;
+    }
+
+    /**
+     * Decides whether the given retry happens and sleeps before it.
+     *
+     * @return the delay slept in milliseconds or -1 if there is no retry
+     */
+    private long prepareRetry(final RetryScope scope, final int retry, final long previousDelay, final long startMillis, final Throwable cause)
+            throws TransportException
+    {
+        if (!acquireRetry(scope, retry))
+        {
+            return -1;
         }
-        throw rethrowException(throwable);
+        return awaitRetry(retry, previousDelay, startMillis, cause);
     }
 
     public <T> T invoke(final TransportInvocation<T> method) throws TransportException
@@ -99,13 +256,126 @@ public class RetryHandler
         // intentionally empty
     }
 
+    /**
+     * Asynchronous variant of {@link #invoke(TransportInvocation)}. No thread waits between attempts: each retry is scheduled on the
+     * scheduler, which also starts the attempt, so the method must not block.
+     */
+    public <T> CompletableFuture<T> invokeAsync(final Supplier<CompletableFuture<T>> method)
+    {
+        return invokeWithErrorHandlerAsync(method, () -> CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Asynchronous variant of {@link #invokeWithErrorHandler(TransportInvocation, VoidTransportInvocation)}. The next attempt starts
+     * once the future of the error method completed. Cancelling the returned future cancels the running attempt and all retries.
+     * <p>
+     * The invocation joins the {@link RetryScope} of the calling thread or opens its own and carries it to the threads its attempts
+     * and error methods are started on, so nested invocations draw from the same retries as in the synchronous case.
+     */
+    public <T> CompletableFuture<T> invokeWithErrorHandlerAsync(final Supplier<CompletableFuture<T>> method,
+                                                                final Supplier<CompletableFuture<Void>> errorMethod)
+    {
+        final RetryScope outer = RetryScope.current();
+        final RetryScope scope = Objects.isNull(outer) ? new RetryScope(classifier, retryBudget, maxRetries) : outer;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(scope, Objects.isNull(outer), method, errorMethod, result, 0, 0, System.currentTimeMillis());
+        return result;
+    }
+
+    private <T> void attemptAsync(final RetryScope scope,
+                                  final boolean outermost,
+                                  final Supplier<CompletableFuture<T>> method,
+                                  final Supplier<CompletableFuture<Void>> errorMethod,
+                                  final CompletableFuture<T> result,
+                                  final int attempt,
+                                  final long previousDelay,
+                                  final long startMillis)
+    {
+        if (result.isDone())
+        {
+            return;
+        }
+
+        final CompletableFuture<T> future = RetryScope.runIn(scope, () -> call(method));
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) { future.cancel(true); }
+        });
+
+        future.whenComplete((value, throwable) -> {
+            if (Objects.isNull(throwable))
+            {
+                if (outermost) { scope.getBudget().deposit(); }
+                result.complete(value);
+                return;
+            }
+
+            final Throwable cause = unwrap(throwable);
+            if (cause instanceof CircuitBreakerOpenException)
+            {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!isRetryable(cause))
+            {
+                result.completeExceptionally(rethrowException(cause));
+                return;
+            }
+
+            logger.warn("{}: {} - Invoking error method", cause.getClass().getSimpleName(), cause.getMessage());
+            RetryScope.runIn(scope, () -> call(errorMethod)).whenComplete((ignored, errorThrowable) -> {
+                final long delay = acquireRetry(scope, attempt + 1) ? nextDelay(attempt + 1, previousDelay, startMillis, cause) : -1;
+                if (delay < 0)
+                {
+                    result.completeExceptionally(rethrowException(cause));
+                    return;
+                }
+
+                logger.info("Scheduling retry in {} MILLISECONDS ...", delay);
+                try
+                {
+                    scheduler.schedule(() -> attemptAsync(scope, outermost, method, errorMethod, result, attempt + 1, delay, startMillis),
+                            delay, TimeUnit.MILLISECONDS);
+                }
+                catch (final RejectedExecutionException e)
+                {
+                    result.completeExceptionally(rethrowException(cause));
+                }
+            });
+        });
+    }
+
+    private <V> CompletableFuture<V> call(final Supplier<CompletableFuture<V>> method)
+    {
+        try
+        {
+            return method.get();
+        }
+        catch (final RuntimeException e)
+        {
+            final CompletableFuture<V> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private static Throwable unwrap(final Throwable throwable)
+    {
+        if (throwable instanceof CompletionException && Objects.nonNull(throwable.getCause()))
+        {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
     @Override
     public String toString()
     {
         final StringBuilder sb = new StringBuilder("TransportHandler [");
         sb.append("maxRetries=").append(maxRetries);
-        sb.append(", delayBetweenRetries=").append(delayBetweenRetries);
-        sb.append(", timeUnitForRetries=").append(timeUnitForRetries);
+        sb.append(", backoffPolicy=").append(backoffPolicy);
+        sb.append(", deadlineMillis=").append(deadlineMillis);
+        sb.append(", retryBudget=").append(retryBudget);
+        sb.append(", classifier=").append(classifier.getClass().getSimpleName());
         sb.append(']');
         return sb.toString();
     }
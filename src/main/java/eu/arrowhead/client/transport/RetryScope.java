@@ -0,0 +1,171 @@
+package eu.arrowhead.client.transport;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Retries left for an invocation and everything it invokes. Nested {@link RetryHandler} invocations (e.g. an onboarding step
+ * retrying a transport call which retries itself) and the connection level retries of the HTTP client all draw from the scope of
+ * the outermost invocation, so the retry limit of that invocation caps the total number of attempts instead of being multiplied by
+ * every layer. Retries and successes are accounted in the {@link RetryBudget} of the outermost invocation.
+ * <p>
+ * A synchronous invocation binds its scope to the current thread. An asynchronous invocation keeps its scope with the invocation
+ * and binds it only while one of its attempts or error methods is being started, see {@link #runIn(RetryScope, Supplier)}. Work
+ * handed to an executor is part of the scope only if the executor binds it as well, as {@link AsyncTransportAdapter} does.
+ */
+public final class RetryScope
+{
+    private static final ThreadLocal<RetryScope> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> DEPTH = new ThreadLocal<>();
+
+    private final RetryClassifier classifier;
+    private final RetryBudget budget;
+    private int remainingRetries;
+    private long retryCount;
+
+    RetryScope(final RetryClassifier classifier, final RetryBudget budget, final int maxRetries)
+    {
+        this.classifier = classifier;
+        this.budget = budget;
+        this.remainingRetries = maxRetries;
+    }
+
+    /**
+     * @return the scope bound to the current thread or <code>null</code>
+     */
+    public static RetryScope current()
+    {
+        return CURRENT.get();
+    }
+
+    /**
+     * Joins the scope of the current thread or opens a new one. Every call must be paired with {@link #exit()}.
+     */
+    static RetryScope enter(final RetryClassifier classifier, final RetryBudget budget, final int maxRetries)
+    {
+        RetryScope scope = CURRENT.get();
+        if (Objects.isNull(scope))
+        {
+            scope = new RetryScope(classifier, budget, maxRetries);
+            CURRENT.set(scope);
+            DEPTH.set(0);
+        }
+        else
+        {
+            DEPTH.set(DEPTH.get() + 1);
+        }
+        return scope;
+    }
+
+    void exit()
+    {
+        final int depth = DEPTH.get();
+        if (depth == 0)
+        {
+            CURRENT.remove();
+            DEPTH.remove();
+        }
+        else
+        {
+            DEPTH.set(depth - 1);
+        }
+    }
+
+    /**
+     * Runs the supplier with the given scope bound to the current thread, so invocations it starts join the scope instead of opening
+     * their own. Invocations joining this way are nested and never deposit into the budget. A <code>null</code> scope runs the
+     * supplier outside of any scope.
+     */
+    static <T> T runIn(final RetryScope scope, final Supplier<T> supplier)
+    {
+        final RetryScope previousScope = CURRENT.get();
+        final Integer previousDepth = DEPTH.get();
+        if (Objects.isNull(scope))
+        {
+            CURRENT.remove();
+            DEPTH.remove();
+        }
+        else
+        {
+            CURRENT.set(scope);
+            DEPTH.set(1);
+        }
+
+        try
+        {
+            return supplier.get();
+        }
+        finally
+        {
+            if (Objects.isNull(previousScope))
+            {
+                CURRENT.remove();
+                DEPTH.remove();
+            }
+            else
+            {
+                CURRENT.set(previousScope);
+                DEPTH.set(previousDepth);
+            }
+        }
+    }
+
+    RetryBudget getBudget()
+    {
+        return budget;
+    }
+
+    /**
+     * Deposits into the budget once the outermost invocation succeeded, nested invocations are part of the same call.
+     */
+    void onSuccess()
+    {
+        if (DEPTH.get() == 0)
+        {
+            budget.deposit();
+        }
+    }
+
+    /**
+     * @return number of times an invocation of this scope or the HTTP client resent a request so far; a request resent after its
+     * response was lost may have been applied twice
+     */
+    public synchronized long getRetryCount()
+    {
+        return retryCount;
+    }
+
+    synchronized void onRetry()
+    {
+        retryCount++;
+    }
+
+    synchronized boolean tryAcquireRetry()
+    {
+        if (remainingRetries <= 0)
+        {
+            return false;
+        }
+        remainingRetries--;
+        return true;
+    }
+
+    /**
+     * Decides whether the connection level retry handler may resend a request which failed with the given exception. Outside of a
+     * scope the {@link RetryClassifier#defaults() default classification} and the {@link RetryBudget#shared() shared budget} apply.
+     */
+    public static boolean permitsRetry(final Throwable throwable)
+    {
+        final RetryScope scope = CURRENT.get();
+        if (Objects.isNull(scope))
+        {
+            return RetryClassifier.defaults().isRetryable(throwable) && RetryBudget.shared().tryWithdraw();
+        }
+        if (scope.classifier.isRetryable(throwable) && scope.tryAcquireRetry() && scope.budget.tryWithdraw())
+        {
+            scope.onRetry();
+            return true;
+        }
+        return false;
+    }
+}
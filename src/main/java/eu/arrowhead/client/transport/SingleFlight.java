@@ -0,0 +1,140 @@
+package eu.arrowhead.client.transport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent invocations with equal keys: only the first caller goes to the wire, every caller arriving while it is in
+ * flight receives the same result (or failure). Only use it for idempotent reads. Without a copier all callers share the returned
+ * object; with one every caller receives its own copy.
+ *
+ * @param <K> key identifying equal invocations, must implement equals and hashCode
+ * @param <V> result type
+ */
+public class SingleFlight<K, V>
+{
+    private final Logger logger = LogManager.getLogger();
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+
+    public SingleFlight()
+    {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * @param copier copies a result for each caller, so a caller modifying its result does not affect the others
+     */
+    public SingleFlight(final UnaryOperator<V> copier)
+    {
+        this.copier = Objects.requireNonNull(copier);
+    }
+
+    public V invoke(final K key, final TransportInvocation<V> invocation) throws TransportException
+    {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (Objects.nonNull(existing))
+        {
+            logger.debug("Joining in-flight invocation for {}", key);
+            return copy(await(existing));
+        }
+
+        try
+        {
+            final V returnValue = invocation.invoke();
+            inFlight.remove(key, future);
+            future.complete(returnValue);
+            return copy(returnValue);
+        }
+        catch (final TransportException | RuntimeException e)
+        {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<V> invokeAsync(final K key, final Supplier<CompletableFuture<V>> invocation)
+    {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (Objects.nonNull(existing))
+        {
+            logger.debug("Joining in-flight invocation for {}", key);
+            return existing.thenApply(this::copy);
+        }
+
+        try
+        {
+            invocation.get().whenComplete((returnValue, throwable) -> {
+                inFlight.remove(key, future);
+                if (Objects.nonNull(throwable))
+                {
+                    future.completeExceptionally(throwable);
+                }
+                else
+                {
+                    future.complete(returnValue);
+                }
+            });
+        }
+        catch (final RuntimeException e)
+        {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+
+        // a waiter cancelling its copy must not cancel the shared invocation
+        return future.thenApply(this::copy);
+    }
+
+    /**
+     * @return number of distinct invocations currently in flight
+     */
+    public int getInFlightCount()
+    {
+        return inFlight.size();
+    }
+
+    private V copy(final V value)
+    {
+        return Objects.isNull(value) ? null : copier.apply(value);
+    }
+
+    private V await(final CompletableFuture<V> future) throws TransportException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new TransportException(e);
+        }
+        catch (final ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof TransportException)
+            {
+                throw (TransportException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new TransportException(cause);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package eu.arrowhead.client.transport;
 
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+
 import java.net.URI;
+import java.util.Map;
 
 public interface Transport
 {
@@ -25,4 +29,19 @@ public interface Transport
     void delete(final URI uri, final Object... pathParameters) throws TransportException;
 
     void setRetryHandler(RetryHandler retryHandler);
+
+    void setConnectionConfiguration(ConnectionConfiguration connectionConfiguration);
+
+    void setConnectionConfiguration(CoreSystems system, ConnectionConfiguration connectionConfiguration);
+
+    void setSystemEndpoints(SystemEndpointHolder endpointHolder);
+
+    Map<CoreSystems, ConnectionPoolStatistics> getPoolStatistics();
+
+    ConnectionPoolStatistics getDefaultPoolStatistics();
+
+    /**
+     * @return the circuit breakers guarding the calls to the core systems
+     */
+    CircuitBreakers getCircuitBreakers();
 }
@@ -0,0 +1,404 @@
+package eu.arrowhead.client.transport.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.arrowhead.client.transport.ConnectionConfiguration;
+import eu.arrowhead.client.transport.ConnectionPoolStatistics;
+import eu.arrowhead.client.transport.RetryScope;
+import eu.arrowhead.client.utils.ThreadUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.StandardHttpRequestRetryHandler;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool and {@link RestTemplate} serving a single route (usually one core system) of the {@link HttpTransport}.
+ * The non-blocking client for asynchronous invocations is only started on first use.
+ * <p>
+ * A pool replaced by a new one, e.g. after the SSL context changed, is {@link #retire() retired} instead of closed, so requests
+ * still running on it can finish.
+ */
+class HttpRoutePool implements Closeable
+{
+    private static final long DRAIN_CHECK_MILLIS = 500;
+
+    private final Logger logger = LogManager.getLogger();
+    private final String name;
+    private final ConnectionConfiguration configuration;
+    private final SSLContext sslContext;
+    private final HostnameVerifier hostnameVerifier;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private CloseableHttpAsyncClient asyncClient;
+    private boolean closed;
+    private boolean retired;
+
+    HttpRoutePool(final String name,
+                  final ConnectionConfiguration configuration,
+                  final SSLContext sslContext,
+                  final HostnameVerifier hostnameVerifier,
+                  final ObjectMapper mapper)
+    {
+        this.name = name;
+        this.configuration = configuration;
+        this.sslContext = sslContext;
+        this.hostnameVerifier = hostnameVerifier;
+        this.connectionManager = createConnectionManager(sslContext, hostnameVerifier);
+        this.httpClient = createHttpClient();
+
+        final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(configuration.getConnectionRequestTimeout());
+        requestFactory.setConnectTimeout(configuration.getConnectTimeout());
+        requestFactory.setReadTimeout(configuration.getReadTimeout());
+
+        this.restTemplate = new RestTemplate();
+        this.restTemplate.getMessageConverters().add(new MappingJackson2HttpMessageConverter(mapper));
+        this.restTemplate.getInterceptors().add(new LoggingInterceptor());
+        this.restTemplate.setRequestFactory(requestFactory);
+        logger.debug("Created {}", this);
+    }
+
+    private SocketConfig createSocketConfig()
+    {
+        return SocketConfig.custom()
+                           .setTcpNoDelay(true)
+                           .setSoReuseAddress(false)
+                           .setSoTimeout(10000)
+                           .build();
+    }
+
+    private PoolingHttpClientConnectionManager createConnectionManager(final SSLContext sslContext, final HostnameVerifier hostnameVerifier)
+    {
+        final SSLConnectionSocketFactory sslSocketFactory;
+        if (Objects.nonNull(sslContext))
+        { sslSocketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier); }
+        else
+        { sslSocketFactory = SSLConnectionSocketFactory.getSocketFactory(); }
+
+        final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+
+        final PoolingHttpClientConnectionManager manager;
+        if (configuration.isReuseConnections())
+        {
+            manager = new PoolingHttpClientConnectionManager(registry);
+        }
+        else
+        {
+            manager = new PoolingHttpClientConnectionManager(registry, null, null, null, 1, TimeUnit.MINUTES);
+        }
+
+        manager.setMaxTotal(configuration.getMaxTotal());
+        manager.setDefaultMaxPerRoute(configuration.getMaxPerRoute());
+        manager.setValidateAfterInactivity(configuration.getValidateAfterInactivity());
+        manager.setDefaultSocketConfig(createSocketConfig());
+        return manager;
+    }
+
+    private CloseableHttpClient createHttpClient()
+    {
+        final HttpClientBuilder builder = HttpClients.custom()
+                                                     .setConnectionManager(connectionManager)
+                                                     .setRetryHandler(new CustomRetryHandler());
+
+        if (configuration.isReuseConnections())
+        {
+            final long keepAlive = configuration.getKeepAliveMillis();
+            builder.setKeepAliveStrategy(new CappedKeepAliveStrategy(keepAlive))
+                   .evictExpiredConnections()
+                   .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+        }
+
+        return builder.build();
+    }
+
+    private PoolingNHttpClientConnectionManager createAsyncConnectionManager() throws IOReactorException
+    {
+        final SchemeIOSessionStrategy sslStrategy;
+        if (Objects.nonNull(sslContext))
+        { sslStrategy = new SSLIOSessionStrategy(sslContext, hostnameVerifier); }
+        else
+        { sslStrategy = SSLIOSessionStrategy.getDefaultStrategy(); }
+
+        final Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", sslStrategy)
+                .build();
+
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                                                             .setTcpNoDelay(true)
+                                                             .setSoReuseAddress(false)
+                                                             .setConnectTimeout(configuration.getConnectTimeout())
+                                                             .setSoTimeout(configuration.getReadTimeout())
+                                                             .build();
+
+        final PoolingNHttpClientConnectionManager manager;
+        if (configuration.isReuseConnections())
+        {
+            manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig), registry);
+        }
+        else
+        {
+            manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig), null, registry, null, null, 1,
+                                                              TimeUnit.MINUTES);
+        }
+
+        manager.setMaxTotal(configuration.getMaxTotal());
+        manager.setDefaultMaxPerRoute(configuration.getMaxPerRoute());
+        return manager;
+    }
+
+    private CloseableHttpAsyncClient createAsyncClient()
+    {
+        final RequestConfig requestConfig = RequestConfig.custom()
+                                                         .setConnectionRequestTimeout(configuration.getConnectionRequestTimeout())
+                                                         .setConnectTimeout(configuration.getConnectTimeout())
+                                                         .setSocketTimeout(configuration.getReadTimeout())
+                                                         .build();
+
+        final HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                                                               .setConnectionManager(asyncConnectionManager)
+                                                               .setDefaultRequestConfig(requestConfig);
+
+        if (configuration.isReuseConnections())
+        {
+            builder.setKeepAliveStrategy(new CappedKeepAliveStrategy(configuration.getKeepAliveMillis()));
+        }
+        else
+        {
+            builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+        }
+
+        return builder.build();
+    }
+
+    RestTemplate getRestTemplate()
+    {
+        return restTemplate;
+    }
+
+    synchronized CloseableHttpAsyncClient getAsyncClient() throws IOReactorException
+    {
+        if (closed)
+        {
+            throw new IllegalStateException(name + " connection pool is closed");
+        }
+
+        if (Objects.isNull(asyncClient))
+        {
+            asyncConnectionManager = createAsyncConnectionManager();
+            asyncClient = createAsyncClient();
+            asyncClient.start();
+            logger.debug("Started asynchronous client of {}", this);
+        }
+
+        return asyncClient;
+    }
+
+    ConnectionConfiguration getConfiguration()
+    {
+        return configuration;
+    }
+
+    synchronized ConnectionPoolStatistics getStatistics()
+    {
+        final PoolStats stats = connectionManager.getTotalStats();
+        int leased = stats.getLeased();
+        int pending = stats.getPending();
+        int available = stats.getAvailable();
+        int max = stats.getMax();
+
+        if (Objects.nonNull(asyncConnectionManager))
+        {
+            final PoolStats asyncStats = asyncConnectionManager.getTotalStats();
+            leased += asyncStats.getLeased();
+            pending += asyncStats.getPending();
+            available += asyncStats.getAvailable();
+            max += asyncStats.getMax();
+        }
+
+        return new ConnectionPoolStatistics(leased, pending, available, max);
+    }
+
+    /**
+     * Closes the idle connections right away and the pool once the connections leased by requests in flight were returned, at the
+     * latest after the longest time a single request may take with the configured timeouts. Requests started meanwhile still work,
+     * they just open a new connection.
+     */
+    void retire()
+    {
+        synchronized (this)
+        {
+            if (closed || retired)
+            {
+                return;
+            }
+            retired = true;
+        }
+
+        connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        synchronized (this)
+        {
+            if (Objects.nonNull(asyncConnectionManager))
+            {
+                asyncConnectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        final long deadline = System.currentTimeMillis() + maxRequestMillis();
+        scheduleDrainCheck(deadline);
+    }
+
+    private long maxRequestMillis()
+    {
+        final long timeout = (long) Math.max(0, configuration.getConnectionRequestTimeout())
+                + Math.max(0, configuration.getConnectTimeout())
+                + Math.max(0, configuration.getReadTimeout());
+        return Math.max(DRAIN_CHECK_MILLIS, timeout);
+    }
+
+    private void scheduleDrainCheck(final long deadline)
+    {
+        try
+        {
+            ThreadUtils.sharedScheduler().schedule(() -> closeWhenDrained(deadline), DRAIN_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            logger.warn("Unable to drain {}, closing it: {}", this, e.getMessage());
+            close();
+        }
+    }
+
+    private void closeWhenDrained(final long deadline)
+    {
+        final ConnectionPoolStatistics statistics = getStatistics();
+        final int busy = statistics.getLeased() + statistics.getPending();
+        if (busy == 0)
+        {
+            logger.debug("Closing drained {}", this);
+            close();
+        }
+        else if (System.currentTimeMillis() >= deadline)
+        {
+            logger.warn("Closing {} with {} connection(s) still in use", this, busy);
+            close();
+        }
+        else
+        {
+            scheduleDrainCheck(deadline);
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        try
+        {
+            httpClient.close();
+            if (Objects.nonNull(asyncClient))
+            {
+                asyncClient.close();
+            }
+        }
+        catch (Exception e)
+        {
+            logger.warn(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("HttpRoutePool [");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", configuration=").append(configuration);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy
+    {
+        private final long maxKeepAlive;
+
+        private CappedKeepAliveStrategy(final long maxKeepAlive)
+        {
+            this.maxKeepAlive = maxKeepAlive;
+        }
+
+        @Override
+        public long getKeepAliveDuration(final HttpResponse response, final HttpContext context)
+        {
+            final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+        }
+    }
+
+    /**
+     * Resends requests only if the method is idempotent (as defined by RFC 7231, so not POST), the failure is transient and the
+     * {@link RetryScope} of the invocation has retries left.
+     */
+    private static class CustomRetryHandler extends StandardHttpRequestRetryHandler
+    {
+        private CustomRetryHandler()
+        {
+            super(3, true);
+        }
+
+        @Override
+        public boolean retryRequest(final IOException exception, final int executionCount, final HttpContext context)
+        {
+            return super.retryRequest(exception, executionCount, context) && RetryScope.permitsRetry(exception);
+        }
+    }
+}
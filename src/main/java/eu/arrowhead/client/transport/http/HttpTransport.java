@@ -1,65 +1,77 @@
 package eu.arrowhead.client.transport.http;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+import eu.arrowhead.client.transport.AsyncTransport;
+import eu.arrowhead.client.transport.CircuitBreakerConfiguration;
+import eu.arrowhead.client.transport.CircuitBreakers;
+import eu.arrowhead.client.transport.ConnectionConfiguration;
+import eu.arrowhead.client.transport.ConnectionPoolStatistics;
+import eu.arrowhead.client.transport.HttpStatusException;
 import eu.arrowhead.client.transport.RetryHandler;
 import eu.arrowhead.client.transport.SecureTransport;
+import eu.arrowhead.client.transport.SingleFlight;
 import eu.arrowhead.client.transport.Transport;
 import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.client.transport.TransportInvocation;
+import eu.arrowhead.client.transport.VoidTransportInvocation;
 import eu.arrowhead.client.utils.security.SSLContextConfigurator;
-import org.apache.http.HttpRequest;
-import org.apache.http.client.HttpClient;
-import org.apache.http.config.SocketConfig;
-import org.apache.http.impl.NoConnectionReuseStrategy;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.ParseException;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
+import java.io.IOException;
 import java.net.URI;
-import java.util.concurrent.TimeUnit;
-
-public class HttpTransport implements SecureTransport, Transport
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class HttpTransport implements SecureTransport, AsyncTransport
 {
     private final Logger logger = LogManager.getLogger();
-    private final RestTemplate restTemplate;
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<CoreSystems, ConnectionConfiguration> systemConfigurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CoreSystems, HttpRoutePool> systemPools = new ConcurrentHashMap<>();
+    private final SingleFlight<List<Object>, Object> reads = new SingleFlight<>();
+    private final CircuitBreakers circuitBreakers = new CircuitBreakers(CircuitBreakerConfiguration.defaults());
     private RetryHandler retryHandler;
+    private ConnectionConfiguration connectionConfiguration = ConnectionConfiguration.pooled();
+    private SSLContext sslContext;
+    private HostnameVerifier hostnameVerifier = SSLContextConfigurator.NoopHostnameVerifier.INSTANCE;
+    private volatile SystemEndpointHolder endpointHolder;
+    private volatile HttpRoutePool defaultPool;
 
     public HttpTransport()
     {
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        mapper.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDefaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.ALWAYS, JsonInclude.Include.NON_NULL));
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-
-        final MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(mapper);
-
-        restTemplate = new RestTemplate();
-        restTemplate.getMessageConverters().add(jackson);
-        restTemplate.getInterceptors().add(new LoggingInterceptor());
-        restTemplate.setRequestFactory(createRequestFactory(createHttpClient()));
+        mapper = ObjectMapperFactory.create();
+        defaultPool = createPool("default", connectionConfiguration);
 
         retryHandler = new RetryHandler();
     }
@@ -70,83 +82,141 @@ public class HttpTransport implements SecureTransport, Transport
         this.retryHandler = retryHandler;
     }
 
-    private void closeRequestFactory(final ClientHttpRequestFactory requestFactory)
+    @Override
+    public void setConnectionConfiguration(final ConnectionConfiguration connectionConfiguration)
     {
-        if (requestFactory instanceof HttpComponentsClientHttpRequestFactory)
-        {
-            try
-            {
-                final HttpClient httpClient = ((HttpComponentsClientHttpRequestFactory) requestFactory).getHttpClient();
-                if (httpClient instanceof CloseableHttpClient)
-                {
-                    ((CloseableHttpClient) httpClient).close();
-                }
+        logger.debug("Using {}", connectionConfiguration);
+        this.connectionConfiguration = Objects.requireNonNull(connectionConfiguration);
+        recreatePools();
+    }
 
-                ((HttpComponentsClientHttpRequestFactory) requestFactory).destroy();
-            }
-            catch (Exception e)
-            {
-                logger.warn(e.getMessage(), e);
-            }
-        }
+    @Override
+    public void setConnectionConfiguration(final CoreSystems system, final ConnectionConfiguration connectionConfiguration)
+    {
+        logger.debug("Using {} for {}", connectionConfiguration, system);
+        systemConfigurations.put(Objects.requireNonNull(system), Objects.requireNonNull(connectionConfiguration));
+        retirePool(systemPools.remove(system));
+    }
+
+    @Override
+    public void setSystemEndpoints(final SystemEndpointHolder endpointHolder)
+    {
+        this.endpointHolder = endpointHolder;
+    }
+
+    @Override
+    public Map<CoreSystems, ConnectionPoolStatistics> getPoolStatistics()
+    {
+        final Map<CoreSystems, ConnectionPoolStatistics> statistics = new EnumMap<>(CoreSystems.class);
+        systemPools.forEach((system, pool) -> statistics.put(system, pool.getStatistics()));
+        return statistics;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getDefaultPoolStatistics()
+    {
+        return defaultPool.getStatistics();
+    }
+
+    @Override
+    public CircuitBreakers getCircuitBreakers()
+    {
+        return circuitBreakers;
+    }
+
+    private CoreSystems system(final URI uri)
+    {
+        final SystemEndpointHolder holder = endpointHolder;
+        return Objects.nonNull(holder) ? holder.resolve(uri) : null;
+    }
+
+    /**
+     * Runs one attempt guarded by the circuit breaker of the target system.
+     */
+    private <T> TransportInvocation<T> guarded(final URI uri, final TransportInvocation<T> invocation)
+    {
+        return () -> circuitBreakers.execute(system(uri), invocation);
+    }
 
+    private VoidTransportInvocation guarded(final URI uri, final VoidTransportInvocation invocation)
+    {
+        return () -> circuitBreakers.execute(system(uri), () -> {
+            invocation.invoke();
+            return null;
+        });
     }
 
-    private HttpComponentsClientHttpRequestFactory createRequestFactory(final HttpClient httpClient)
+    private HttpRoutePool createPool(final String name, final ConnectionConfiguration configuration)
     {
-        final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        requestFactory.setConnectionRequestTimeout(30000);
-        requestFactory.setConnectTimeout(30000);
-        requestFactory.setReadTimeout(30000);
-        return requestFactory;
+        return new HttpRoutePool(name, configuration, sslContext, hostnameVerifier, mapper);
     }
 
-    private SocketConfig createSocketConfig()
+    /**
+     * Requests which already picked the old pool keep running on it, it is closed once they finished.
+     */
+    private void retirePool(final HttpRoutePool pool)
     {
-        return SocketConfig.custom()
-                           .setTcpNoDelay(true)
-                           .setSoReuseAddress(false)
-                           .setSoTimeout(10000)
-                           .build();
+        if (Objects.nonNull(pool))
+        {
+            pool.retire();
+        }
     }
 
-    private HttpClient createHttpClient()
+    private synchronized void recreatePools()
     {
-        return HttpClients.custom()
-                          .setConnectionReuseStrategy(new NoConnectionReuseStrategy())
-                          .setConnectionTimeToLive(1, TimeUnit.MINUTES)
-                          .build();
+        final HttpRoutePool oldPool = defaultPool;
+        defaultPool = createPool("default", connectionConfiguration);
+        retirePool(oldPool);
+
+        for (CoreSystems system : systemPools.keySet())
+        {
+            retirePool(systemPools.remove(system));
+        }
     }
 
-    private HttpClient createHttpClient(final SSLContext sslContext)
+    private HttpRoutePool pool(final URI uri)
     {
-        return createHttpClient(sslContext, SSLContextConfigurator.NoopHostnameVerifier.INSTANCE);
+        final CoreSystems system = system(uri);
+        if (Objects.isNull(system))
+        {
+            return defaultPool;
+        }
+
+        return systemPools.computeIfAbsent(system, s -> createPool(s.name(), systemConfigurations.getOrDefault(s, connectionConfiguration)));
     }
 
-    private HttpClient createHttpClient(final SSLContext sslContext, final HostnameVerifier verifier)
+    private RestTemplate restTemplate(final URI uri)
     {
-        return HttpClients.custom()
-                          .setDefaultSocketConfig(createSocketConfig())
-                          .setSSLContext(sslContext)
-                          .setSSLHostnameVerifier(verifier)
-                          .setRetryHandler(new CustomRetryHandler())
-                          .setConnectionReuseStrategy(new NoConnectionReuseStrategy())
-                          .setConnectionTimeToLive(1, TimeUnit.MINUTES)
-                          .build();
+        return pool(uri).getRestTemplate();
     }
 
     @Override
     public void setSSLContext(final SSLContext sslContext)
     {
-        closeRequestFactory(restTemplate.getRequestFactory());
-        restTemplate.setRequestFactory(createRequestFactory(createHttpClient(sslContext)));
+        setSSLContext(sslContext, SSLContextConfigurator.NoopHostnameVerifier.INSTANCE);
     }
 
     @Override
     public void setSSLContext(final SSLContext sslContext, final HostnameVerifier verifier)
     {
-        closeRequestFactory(restTemplate.getRequestFactory());
-        restTemplate.setRequestFactory(createRequestFactory(createHttpClient(sslContext, verifier)));
+        this.sslContext = sslContext;
+        this.hostnameVerifier = verifier;
+        recreatePools();
+    }
+
+    /**
+     * GET is idempotent, so concurrent requests for the same resource share one round trip.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(final List<Object> key, final TransportInvocation<T> invocation) throws TransportException
+    {
+        return (T) reads.invoke(key, () -> retryHandler.invoke(invocation));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesceAsync(final List<Object> key, final Supplier<CompletableFuture<T>> invocation)
+    {
+        return (CompletableFuture<T>) reads.invokeAsync(key, () -> (CompletableFuture<Object>) invocation.get());
     }
 
     @Override
@@ -154,9 +224,8 @@ public class HttpTransport implements SecureTransport, Transport
     {
         try
         {
-            retryHandler.invoke(() -> restTemplate.getForEntity(uri, cls).getBody());
             logger.info("Invoking method: {} getForEntity( {})", cls.getSimpleName(), uri.toASCIIString());
-            final T returnValue = retryHandler.invoke(() -> restTemplate.getForEntity(uri, cls).getBody());
+            final T returnValue = coalesce(Arrays.asList(cls, uri), guarded(uri, () -> restTemplate(uri).getForEntity(uri, cls).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -177,7 +246,8 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: {} getForEntity({}, {})", cls.getSimpleName(), uri.toASCIIString(), pathParameters);
-            final T returnValue = retryHandler.invoke(() -> restTemplate.getForEntity(uri.toASCIIString(), cls, pathParameters).getBody());
+            final T returnValue = coalesce(Arrays.asList(cls, uri, Arrays.asList(pathParameters)),
+                                           guarded(uri, () -> restTemplate(uri).getForEntity(uri.toASCIIString(), cls, pathParameters).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -199,7 +269,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: {} getForEntity({}, {})", cls.getSimpleName(), uri.toASCIIString(), body);
-            final T returnValue = retryHandler.invoke(() -> restTemplate.postForEntity(uri, body, cls).getBody());
+            final T returnValue = retryHandler.invoke(guarded(uri, () -> restTemplate(uri).postForEntity(uri, body, cls).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -220,7 +290,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: {} getForEntity({}, {}, {})", cls.getSimpleName(), uri.toASCIIString(), body, pathParameters);
-            final T returnValue = retryHandler.invoke(() -> restTemplate.postForEntity(uri.toASCIIString(), body, cls, pathParameters).getBody());
+            final T returnValue = retryHandler.invoke(guarded(uri, () -> restTemplate(uri).postForEntity(uri.toASCIIString(), body, cls, pathParameters).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -241,7 +311,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: void put({}, {})", uri.toASCIIString(), body);
-            retryHandler.invokeVoid(() -> restTemplate.put(uri, body));
+            retryHandler.invokeVoid(guarded(uri, () -> restTemplate(uri).put(uri, body)));
         }
         catch (final TransportException e)
         {
@@ -260,7 +330,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: void put({}, {}, {})", uri.toASCIIString(), body, pathParameters);
-            retryHandler.invokeVoid(() -> restTemplate.put(uri.toASCIIString(), body, pathParameters));
+            retryHandler.invokeVoid(guarded(uri, () -> restTemplate(uri).put(uri.toASCIIString(), body, pathParameters)));
             logger.info("Returning from void invocation");
         }
         catch (final TransportException e)
@@ -280,7 +350,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: {} exchange(PUT)({}, {})", cls.getSimpleName(), uri.toASCIIString(), body);
-            final T returnValue = retryHandler.invoke(() -> restTemplate.exchange(uri, HttpMethod.PUT, new HttpEntity<>(body), cls).getBody());
+            final T returnValue = retryHandler.invoke(guarded(uri, () -> restTemplate(uri).exchange(uri, HttpMethod.PUT, new HttpEntity<>(body), cls).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -302,7 +372,7 @@ public class HttpTransport implements SecureTransport, Transport
         {
             logger.info("Invoking method: {} exchange(PUT)({}, {}, {})", cls.getSimpleName(), uri.toASCIIString(), body, pathParameters);
             final T returnValue = retryHandler
-                    .invoke(() -> restTemplate.exchange(uri.toASCIIString(), HttpMethod.PUT, new HttpEntity<>(body), cls, pathParameters).getBody());
+                    .invoke(guarded(uri, () -> restTemplate(uri).exchange(uri.toASCIIString(), HttpMethod.PUT, new HttpEntity<>(body), cls, pathParameters).getBody()));
             logger.info("Returning from invocation with {}", returnValue);
             return returnValue;
         }
@@ -323,7 +393,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: void delete({})", uri.toASCIIString());
-            retryHandler.invokeVoid(() -> restTemplate.delete(uri));
+            retryHandler.invokeVoid(guarded(uri, () -> restTemplate(uri).delete(uri)));
             logger.info("Returning from void invocation");
         }
         catch (final TransportException e)
@@ -343,7 +413,7 @@ public class HttpTransport implements SecureTransport, Transport
         try
         {
             logger.info("Invoking method: void delete({}, {})", uri.toASCIIString(), pathParameters);
-            retryHandler.invokeVoid(() -> restTemplate.delete(uri.toASCIIString(), pathParameters));
+            retryHandler.invokeVoid(guarded(uri, () -> restTemplate(uri).delete(uri.toASCIIString(), pathParameters)));
             logger.info("Returning from void invocation");
         }
         catch (final TransportException e)
@@ -357,22 +427,193 @@ public class HttpTransport implements SecureTransport, Transport
         }
     }
 
-    @Override
-    public String toString()
+    private URI expand(final URI uri, final Object... pathParameters)
+    {
+        return restTemplate(uri).getUriTemplateHandler().expand(uri.toASCIIString(), pathParameters);
+    }
+
+    /**
+     * Sends a new request created by the factory for every attempt, retries are scheduled by the {@link RetryHandler}. Each attempt
+     * is guarded by the circuit breaker of the target system.
+     */
+    private <T> CompletableFuture<T> executeAsync(final Supplier<HttpRequestBase> requestFactory, final Object body, final Class<T> cls)
     {
-        return "HttpTransport []";
+        return retryHandler.invokeAsync(() -> {
+            final HttpRequestBase request = requestFactory.get();
+            return circuitBreakers.executeAsync(system(request.getURI()), () -> sendAsync(request, body, cls));
+        });
     }
 
-    private static class CustomRetryHandler extends DefaultHttpRequestRetryHandler
+    private <T> CompletableFuture<T> sendAsync(final HttpRequestBase request, final Object body, final Class<T> cls)
     {
-        private CustomRetryHandler()
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try
         {
-            super(3, true);
+            logger.info("Invoking async method: {} {}({}, {})", cls.getSimpleName(), request.getMethod(), request.getURI(), body);
+            request.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+            if (Objects.nonNull(body) && request instanceof HttpEntityEnclosingRequestBase)
+            {
+                ((HttpEntityEnclosingRequestBase) request).setEntity(new ByteArrayEntity(mapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+            }
+
+            final Future<HttpResponse> responseFuture = pool(request.getURI()).getAsyncClient().execute(request, new FutureCallback<HttpResponse>()
+            {
+                @Override
+                public void completed(final HttpResponse response)
+                {
+                    completeAsync(future, response, cls);
+                }
+
+                @Override
+                public void failed(final Exception e)
+                {
+                    logger.warn("{}: {}", e.getClass().getSimpleName(), e.getMessage());
+                    future.completeExceptionally(new TransportException(e));
+                }
+
+                @Override
+                public void cancelled()
+                {
+                    future.cancel(false);
+                }
+            });
+
+            future.whenComplete((result, throwable) -> {
+                if (future.isCancelled()) { responseFuture.cancel(true); }
+            });
         }
+        catch (final Exception e)
+        {
+            logger.warn("{}: {}", e.getClass().getSimpleName(), e.getMessage());
+            future.completeExceptionally(new TransportException(e));
+        }
+        return future;
+    }
+
+    private <T> void completeAsync(final CompletableFuture<T> future, final HttpResponse response, final Class<T> cls)
+    {
+        try
+        {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode < 200 || statusCode >= 300)
+            {
+                final Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                future.completeExceptionally(new HttpStatusException(statusCode, response.getStatusLine().getReasonPhrase(),
+                                                                     Objects.isNull(retryAfter) ? null : retryAfter.getValue(),
+                                                                     errorBody(response)));
+                return;
+            }
+
+            final T returnValue;
+            if (Void.class.equals(cls) || Objects.isNull(response.getEntity()))
+            {
+                EntityUtils.consumeQuietly(response.getEntity());
+                returnValue = null;
+            }
+            else
+            {
+                returnValue = mapper.readValue(EntityUtils.toByteArray(response.getEntity()), cls);
+            }
+
+            logger.info("Returning from async invocation with {}", returnValue);
+            future.complete(returnValue);
+        }
+        catch (final Exception e)
+        {
+            logger.warn("{}: {}", e.getClass().getSimpleName(), e.getMessage());
+            future.completeExceptionally(new TransportException(e));
+        }
+    }
 
-        protected boolean handleAsIdempotent(final HttpRequest request)
+    /**
+     * @return the body of an error response, e.g. the error message of the core system, <code>null</code> if it cannot be read
+     */
+    private static String errorBody(final HttpResponse response)
+    {
+        if (Objects.isNull(response.getEntity()))
         {
-            return true;
+            return null;
         }
+
+        try
+        {
+            return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        }
+        catch (final IOException | ParseException e)
+        {
+            EntityUtils.consumeQuietly(response.getEntity());
+            return null;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> cls, final URI uri)
+    {
+        return coalesceAsync(Arrays.asList(cls, uri), () -> executeAsync(() -> new HttpGet(uri), null, cls));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> cls, final URI uri, final Object... pathParameters)
+    {
+        return coalesceAsync(Arrays.asList(cls, uri, Arrays.asList(pathParameters)),
+                             () -> executeAsync(() -> new HttpGet(expand(uri, pathParameters)), null, cls));
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> cls, final URI uri, final B body)
+    {
+        return executeAsync(() -> new HttpPost(uri), body, cls);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters)
+    {
+        return executeAsync(() -> new HttpPost(expand(uri, pathParameters)), body, cls);
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body)
+    {
+        return executeAsync(() -> new HttpPut(uri), body, Void.class);
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body, final Object... pathParameters)
+    {
+        return executeAsync(() -> new HttpPut(expand(uri, pathParameters)), body, Void.class);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body)
+    {
+        return executeAsync(() -> new HttpPut(uri), body, cls);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters)
+    {
+        return executeAsync(() -> new HttpPut(expand(uri, pathParameters)), body, cls);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri)
+    {
+        return executeAsync(() -> new HttpDelete(uri), null, Void.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri, final Object... pathParameters)
+    {
+        return executeAsync(() -> new HttpDelete(expand(uri, pathParameters)), null, Void.class);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("HttpTransport [");
+        sb.append("connectionConfiguration=").append(connectionConfiguration);
+        sb.append(", systemPools=").append(systemPools.keySet());
+        sb.append(']');
+        return sb.toString();
     }
 }
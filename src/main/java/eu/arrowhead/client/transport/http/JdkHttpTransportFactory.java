@@ -0,0 +1,43 @@
+package eu.arrowhead.client.transport.http;
+
+import eu.arrowhead.client.transport.Transport;
+import eu.arrowhead.client.transport.TransportFactory;
+
+/**
+ * Creates a {@link Transport} based on <code>java.net.http.HttpClient</code> (HTTP/2). The implementation is shipped in the
+ * Java 11 section of the multi-release jar, so this factory fails on older runtimes.
+ */
+public class JdkHttpTransportFactory implements TransportFactory
+{
+    private static final String IMPLEMENTATION = "eu.arrowhead.client.transport.http.JdkHttpTransport";
+
+    public static boolean isSupported()
+    {
+        try
+        {
+            Class.forName(IMPLEMENTATION);
+            return true;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public Transport get()
+    {
+        try
+        {
+            return (Transport) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new UnsupportedOperationException("JdkHttpTransport requires Java 11 or newer", e);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,9 +1,22 @@
 package eu.arrowhead.client.utils;
 
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ThreadUtils
 {
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+    private static final ScheduledExecutorService SHARED_SCHEDULER = newDaemonScheduler("arrowhead-scheduler", 1);
+
+    /**
+     * Sleeps without throwing. If interrupted, returns early and keeps the interrupt flag set, so the caller can still notice.
+     */
     public static void sleep(final long delay, final TimeUnit timeUnit)
     {
         try
@@ -12,7 +25,7 @@ public class ThreadUtils
         }
         catch (InterruptedException e)
         {
-            // noop
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -25,4 +38,82 @@ public class ThreadUtils
     {
         sleep(delay, TimeUnit.SECONDS);
     }
+
+    /**
+     * Cached thread pool of daemon threads named <code>prefix-N</code>.
+     */
+    public static ExecutorService newDaemonThreadPool(final String prefix)
+    {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Scheduled pool of daemon threads named <code>prefix-N</code>. Cancelled tasks are removed from the queue immediately.
+     */
+    public static ScheduledExecutorService newDaemonScheduler(final String prefix, final int threads)
+    {
+        final AtomicInteger counter = new AtomicInteger();
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            final Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Scheduler for short background housekeeping of the library, e.g. cache refreshes. Tasks must not block.
+     */
+    public static ScheduledExecutorService sharedScheduler()
+    {
+        return SHARED_SCHEDULER;
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads (Java 21 and newer)
+     */
+    public static boolean isVirtualThreadSupported()
+    {
+        return Objects.nonNull(NEW_VIRTUAL_THREAD_EXECUTOR);
+    }
+
+    /**
+     * Executor starting a new virtual thread for each task. Looked up at runtime, so the library can still be built for and run on Java 8.
+     *
+     * @throws UnsupportedOperationException if the running JVM has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor()
+    {
+        if (!isVirtualThreadSupported())
+        {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+
+        try
+        {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Method findVirtualThreadExecutorFactory()
+    {
+        try
+        {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,458 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.client.services.model.ArrowheadDevice;
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.model.ArrowheadSystem;
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+import eu.arrowhead.onboarding.services.DeviceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Onboards many devices concurrently. A fixed number of workers on the given executor pull devices from the stream and each runs the
+ * whole chain (onboarding, device, system and service registration) for one device at a time, so at most <code>parallelism</code>
+ * chains are in flight and the stream is consumed lazily.
+ * <p>
+ * Every device is onboarded through its own {@link OnboardingClient}. A client holds exactly one identity: the onboarding stores
+ * the certificate of the device in the key store of the client and reloads the SSL context of its transport, so devices sharing a
+ * client would replace each other's connection pools mid-request and could present each other's certificate.
+ * <p>
+ * A failing device does not affect the others, its failure is recorded in the {@link Report} and the registrations completed for it
+ * are removed again in the background, see {@link OnboardingSaga}.
+ */
+public class FleetOnboarder
+{
+    public static final int DEFAULT_PARALLELISM = 32;
+
+    @FunctionalInterface
+    public interface ProgressListener
+    {
+        /**
+         * Called on the worker thread after each device, successful or not.
+         */
+        void onProgress(final Outcome outcome, final long succeeded, final long failed);
+    }
+
+    private final Logger logger = LogManager.getLogger();
+    private final Executor executor;
+    private final Supplier<OnboardingClient> clientFactory;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private ProgressListener progressListener = (outcome, succeeded, failed) -> {};
+
+    /**
+     * @param executor      runs the workers and the removals of failed chains
+     * @param clientFactory creates the client of one device. Every call must return a new client built on its own
+     *                      {@link eu.arrowhead.client.transport.ProtocolConfiguration} and key store, so the devices share neither
+     *                      transport nor SSL context.
+     */
+    public FleetOnboarder(final Executor executor, final Supplier<OnboardingClient> clientFactory)
+    {
+        this.executor = Objects.requireNonNull(executor);
+        this.clientFactory = Objects.requireNonNull(clientFactory);
+    }
+
+    /**
+     * Upper bound for the devices onboarded at the same time. The executor needs at least as many threads.
+     */
+    public FleetOnboarder withParallelism(final int parallelism)
+    {
+        if (parallelism < 1)
+        {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public FleetOnboarder withProgressListener(final ProgressListener progressListener)
+    {
+        this.progressListener = Objects.requireNonNull(progressListener);
+        return this;
+    }
+
+    /**
+     * Onboards all devices and waits for them. Interrupting the calling thread stops taking further devices from the stream, the
+     * chains already in flight are finished.
+     */
+    public Report onboard(final Stream<Device> devices) throws InterruptedException
+    {
+        final CompletableFuture<Report> future = onboardAsync(devices);
+        try
+        {
+            return future.get();
+        }
+        catch (final InterruptedException e)
+        {
+            future.cancel(false);
+            throw e;
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Starts onboarding the devices and returns immediately. Cancelling the returned future stops taking further devices from the
+     * stream.
+     */
+    public CompletableFuture<Report> onboardAsync(final Stream<Device> devices)
+    {
+        final Run run = new Run(devices.iterator());
+        final CompletableFuture<?>[] workers = new CompletableFuture<?>[parallelism];
+        for (int i = 0; i < parallelism; i++)
+        {
+            try
+            {
+                workers[i] = CompletableFuture.runAsync(() -> drain(run), executor);
+            }
+            catch (final RejectedExecutionException e)
+            {
+                logger.warn("Executor rejected fleet worker {}: {}", i, e.getMessage());
+                workers[i] = CompletableFuture.completedFuture(null);
+            }
+        }
+
+        final CompletableFuture<Report> result = CompletableFuture.allOf(workers).thenApply(ignored -> run.report);
+        result.whenComplete((report, throwable) -> {
+            if (result.isCancelled()) { run.cancelled = true; }
+        });
+        return result;
+    }
+
+    private void drain(final Run run)
+    {
+        Device device;
+        while (Objects.nonNull(device = run.next()))
+        {
+            final Outcome outcome = onboard(device);
+            run.report.add(outcome);
+            notifyProgress(outcome, run.report);
+        }
+    }
+
+    private Outcome onboard(final Device device)
+    {
+        final long start = System.nanoTime();
+        final OnboardingSaga saga = new OnboardingSaga(device.getName(), executor);
+        // registrations and removals set and clear ids on the entries, the device of the caller stays untouched for resubmission
+        final Entries entries = new Entries(device);
+        try
+        {
+            final DeviceRegistryOnboarding deviceRegistryOnboarding = clientFactory.get()
+                    .withSharedKey(new OnboardingWithSharedKeyRequest(device.getName(), device.getSharedKey()));
+            final SystemRegistryOnboarding systemRegistryOnboarding = deviceRegistryOnboarding.registerDevice(entries.deviceEntry);
+            saga.record("device registration", () -> deviceRegistryOnboarding.removeDevice(entries.deviceEntry));
+            final ServiceRegistryOnboarding serviceRegistryOnboarding = systemRegistryOnboarding.registerSystem(entries.systemEntry);
+            saga.record("system registration", () -> systemRegistryOnboarding.removeSystem(entries.systemEntry));
+            final ArrowheadClient client = serviceRegistryOnboarding.registerService(entries.serviceEntry);
+            saga.commit();
+            return new Outcome(device, client, null, Duration.ofNanos(System.nanoTime() - start));
+        }
+        catch (final Exception e)
+        {
+            logger.warn("Onboarding of {} failed: {}", device.getName(), e.getMessage());
+            saga.abandon();
+            return new Outcome(device, null, e, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void notifyProgress(final Outcome outcome, final Report report)
+    {
+        try
+        {
+            progressListener.onProgress(outcome, report.getSucceededCount(), report.getFailedCount());
+        }
+        catch (final RuntimeException e)
+        {
+            logger.warn("Fleet progress listener failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("FleetOnboarder [");
+        sb.append("parallelism=").append(parallelism);
+        sb.append(", executor=").append(executor);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static class Run
+    {
+        private final Iterator<Device> devices;
+        private final Report report = new Report();
+        private volatile boolean cancelled;
+
+        private Run(final Iterator<Device> devices)
+        {
+            this.devices = devices;
+        }
+
+        private synchronized Device next()
+        {
+            if (cancelled || Thread.currentThread().isInterrupted() || !devices.hasNext())
+            {
+                return null;
+            }
+            return devices.next();
+        }
+    }
+
+    /**
+     * Copies of the entries of one device used by one onboarding. Descriptors shared between the entries of the device stay shared
+     * between the copies, so an id assigned by one registration is seen by the next one.
+     */
+    private static class Entries
+    {
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+        private final DeviceRegistryEntry deviceEntry;
+        private final SystemRegistryEntry systemEntry;
+        private final ServiceRegistryEntry serviceEntry;
+
+        private Entries(final Device device)
+        {
+            deviceEntry = copy(device.getDeviceEntry());
+            systemEntry = copy(device.getSystemEntry());
+            serviceEntry = copy(device.getServiceEntry());
+        }
+
+        private DeviceRegistryEntry copy(final DeviceRegistryEntry entry)
+        {
+            if (Objects.isNull(entry)) { return null; }
+            return new DeviceRegistryEntry(entry.getId(), entry.getMacAddress(), entry.getEndOfValidity(), copy(entry.getProvidedDevice()));
+        }
+
+        private SystemRegistryEntry copy(final SystemRegistryEntry entry)
+        {
+            if (Objects.isNull(entry)) { return null; }
+            return new SystemRegistryEntry(entry.getId(), copy(entry.getProvider()), copy(entry.getProvidedSystem()), entry.getServiceURI(),
+                                           entry.getEndOfValidity());
+        }
+
+        private ServiceRegistryEntry copy(final ServiceRegistryEntry entry)
+        {
+            if (Objects.isNull(entry)) { return null; }
+            return new ServiceRegistryEntry(entry.getId(), copy(entry.getProvider()), copy(entry.getProvidedService()), entry.getServiceURI(),
+                                            entry.getUdp(), entry.getEndOfValidity());
+        }
+
+        private ArrowheadDevice copy(final ArrowheadDevice device)
+        {
+            if (Objects.isNull(device)) { return null; }
+            return (ArrowheadDevice) copies.computeIfAbsent(device, ignored -> new ArrowheadDevice(device.getId(), device.getDeviceName()));
+        }
+
+        private ArrowheadSystem copy(final ArrowheadSystem system)
+        {
+            if (Objects.isNull(system)) { return null; }
+            return (ArrowheadSystem) copies.computeIfAbsent(system, ignored -> new ArrowheadSystem(system.getId(), system.getSystemName(),
+                                                                                                   system.getAddress(), system.getPort(),
+                                                                                                   system.getAuthenticationInfo()));
+        }
+
+        private ArrowheadService copy(final ArrowheadService service)
+        {
+            if (Objects.isNull(service)) { return null; }
+            return (ArrowheadService) copies.computeIfAbsent(service, ignored -> new ArrowheadService(service.getId(),
+                                                                                                      service.getServiceDefinition(),
+                                                                                                      service.getInterfaces(),
+                                                                                                      service.getServiceMetadata()));
+        }
+    }
+
+    /**
+     * Everything needed to onboard one device, system and service.
+     */
+    public static class Device
+    {
+        private final String name;
+        private final String sharedKey;
+        private final DeviceRegistryEntry deviceEntry;
+        private final SystemRegistryEntry systemEntry;
+        private final ServiceRegistryEntry serviceEntry;
+
+        public Device(final String name,
+                      final String sharedKey,
+                      final DeviceRegistryEntry deviceEntry,
+                      final SystemRegistryEntry systemEntry,
+                      final ServiceRegistryEntry serviceEntry)
+        {
+            this.name = name;
+            this.sharedKey = sharedKey;
+            this.deviceEntry = deviceEntry;
+            this.systemEntry = systemEntry;
+            this.serviceEntry = serviceEntry;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getSharedKey()
+        {
+            return sharedKey;
+        }
+
+        public DeviceRegistryEntry getDeviceEntry()
+        {
+            return deviceEntry;
+        }
+
+        public SystemRegistryEntry getSystemEntry()
+        {
+            return systemEntry;
+        }
+
+        public ServiceRegistryEntry getServiceEntry()
+        {
+            return serviceEntry;
+        }
+
+        @Override
+        public String toString()
+        {
+            final StringBuilder sb = new StringBuilder("Device [");
+            sb.append("name='").append(name).append('\'');
+            sb.append(", deviceEntry=").append(deviceEntry);
+            sb.append(", systemEntry=").append(systemEntry);
+            sb.append(", serviceEntry=").append(serviceEntry);
+            sb.append(']');
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Result of onboarding one device: the client if it succeeded, the failure otherwise.
+     */
+    public static class Outcome
+    {
+        private final Device device;
+        private final ArrowheadClient client;
+        private final Throwable failure;
+        private final Duration duration;
+
+        private Outcome(final Device device, final ArrowheadClient client, final Throwable failure, final Duration duration)
+        {
+            this.device = device;
+            this.client = client;
+            this.failure = failure;
+            this.duration = duration;
+        }
+
+        public boolean isSuccess()
+        {
+            return Objects.isNull(failure);
+        }
+
+        public Device getDevice()
+        {
+            return device;
+        }
+
+        public ArrowheadClient getClient()
+        {
+            return client;
+        }
+
+        public Throwable getFailure()
+        {
+            return failure;
+        }
+
+        public Duration getDuration()
+        {
+            return duration;
+        }
+
+        @Override
+        public String toString()
+        {
+            final StringBuilder sb = new StringBuilder("Outcome [");
+            sb.append("device='").append(device.getName()).append('\'');
+            sb.append(", success=").append(isSuccess());
+            sb.append(", duration=").append(duration);
+            if (!isSuccess()) { sb.append(", failure=").append(failure); }
+            sb.append(']');
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Outcomes of a fleet onboarding, filled while it runs.
+     */
+    public static class Report
+    {
+        private final List<Outcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private void add(final Outcome outcome)
+        {
+            outcomes.add(outcome);
+            (outcome.isSuccess() ? succeeded : failed).incrementAndGet();
+        }
+
+        public List<Outcome> getOutcomes()
+        {
+            synchronized (outcomes)
+            {
+                return new ArrayList<>(outcomes);
+            }
+        }
+
+        public List<Outcome> getFailures()
+        {
+            final List<Outcome> failures = new ArrayList<>();
+            for (Outcome outcome : getOutcomes())
+            {
+                if (!outcome.isSuccess()) { failures.add(outcome); }
+            }
+            return failures;
+        }
+
+        public long getSucceededCount()
+        {
+            return succeeded.get();
+        }
+
+        public long getFailedCount()
+        {
+            return failed.get();
+        }
+
+        @Override
+        public String toString()
+        {
+            final StringBuilder sb = new StringBuilder("Report [");
+            sb.append("succeeded=").append(succeeded);
+            sb.append(", failed=").append(failed);
+            sb.append(']');
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.utils.ThreadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renews registry entries before their <code>endOfValidity</code> passes. Each lease is renewed after a share of its remaining
+ * lifetime (3/4 by default) has passed, shifted by a random jitter so a fleet started at the same time does not renew at the same
+ * time. Leases falling due within the batch window of the earliest one are renewed together, in the order they were tracked, in a
+ * single task on the executor; the scheduler only keeps one timer for the earliest lease.
+ * <p>
+ * A failed renewal is retried after the retry delay as long as the lease has not expired. Once it has, the lease is no longer
+ * tracked and reported to the {@link ExpiryListener}.
+ */
+public class LeaseRenewer
+{
+    public static final double DEFAULT_RENEW_AT = 0.75;
+    public static final double DEFAULT_JITTER = 0.1;
+    public static final long DEFAULT_BATCH_WINDOW_MILLIS = 30000;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 10000;
+
+    @FunctionalInterface
+    public interface Renewal
+    {
+        /**
+         * Renews the registration.
+         *
+         * @return the new end of validity, <code>null</code> to stop tracking the lease
+         */
+        LocalDateTime renew() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ExpiryListener
+    {
+        /**
+         * Called on the renewal thread once a lease expired without being renewed. The lease is no longer tracked.
+         *
+         * @param failure the failure of the last renewal
+         */
+        void onExpired(final String name, final Exception failure);
+    }
+
+    private final Logger logger = LogManager.getLogger();
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler = ThreadUtils.sharedScheduler();
+    private final Map<String, Lease> leases = new LinkedHashMap<>();
+    private ScheduledFuture<?> timer;
+    private long timerDueAt = Long.MAX_VALUE;
+
+    private double renewAt = DEFAULT_RENEW_AT;
+    private double jitter = DEFAULT_JITTER;
+    private long batchWindowMillis = DEFAULT_BATCH_WINDOW_MILLIS;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+    private ExpiryListener expiryListener = (name, failure) -> {};
+
+    /**
+     * @param executor executor the renewals run on, they block while talking to the registries
+     */
+    public LeaseRenewer(final Executor executor)
+    {
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Share of the remaining lifetime after which a lease is renewed, e.g. 0.75.
+     */
+    public LeaseRenewer withRenewAt(final double renewAt)
+    {
+        if (renewAt <= 0 || renewAt >= 1)
+        {
+            throw new IllegalArgumentException("renewAt must be between 0 and 1");
+        }
+        this.renewAt = renewAt;
+        return this;
+    }
+
+    /**
+     * Maximum random shift of a renewal as share of the remaining lifetime, in both directions.
+     */
+    public LeaseRenewer withJitter(final double jitter)
+    {
+        this.jitter = Math.max(0, Math.min(jitter, Math.min(renewAt, 1 - renewAt)));
+        return this;
+    }
+
+    public LeaseRenewer withBatchWindow(final long window, final TimeUnit unit)
+    {
+        this.batchWindowMillis = unit.toMillis(window);
+        return this;
+    }
+
+    public LeaseRenewer withRetryDelay(final long delay, final TimeUnit unit)
+    {
+        this.retryDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    public LeaseRenewer withExpiryListener(final ExpiryListener expiryListener)
+    {
+        this.expiryListener = Objects.requireNonNull(expiryListener);
+        return this;
+    }
+
+    /**
+     * Tracks a lease, replacing a lease with the same name. Entries without end of validity never expire and are not tracked.
+     */
+    public synchronized void track(final String name, final LocalDateTime endOfValidity, final Renewal renewal)
+    {
+        if (Objects.isNull(endOfValidity))
+        {
+            leases.remove(name);
+            return;
+        }
+
+        final Lease lease = new Lease(name, renewal);
+        lease.update(toMillis(endOfValidity), System.currentTimeMillis());
+        leases.put(name, lease);
+        logger.debug("Tracking lease {} valid until {}", name, endOfValidity);
+        reschedule();
+    }
+
+    public synchronized void untrack(final String name)
+    {
+        leases.remove(name);
+        reschedule();
+    }
+
+    /**
+     * Stops tracking all leases. A batch already running is finished.
+     */
+    public synchronized void clear()
+    {
+        leases.clear();
+        reschedule();
+    }
+
+    public synchronized int size()
+    {
+        return leases.size();
+    }
+
+    /**
+     * @return time of the next renewal in milliseconds since the epoch, {@link Long#MAX_VALUE} if nothing is tracked
+     */
+    public synchronized long getNextRenewalMillis()
+    {
+        long next = Long.MAX_VALUE;
+        for (Lease lease : leases.values())
+        {
+            if (!lease.renewing)
+            {
+                next = Math.min(next, lease.dueAt);
+            }
+        }
+        return next;
+    }
+
+    private synchronized void reschedule()
+    {
+        final long next = getNextRenewalMillis();
+        if (next == timerDueAt && Objects.nonNull(timer))
+        {
+            return;
+        }
+        if (Objects.nonNull(timer))
+        {
+            timer.cancel(false);
+            timer = null;
+        }
+        timerDueAt = next;
+        if (next == Long.MAX_VALUE)
+        {
+            return;
+        }
+
+        try
+        {
+            timer = scheduler.schedule(this::fire, Math.max(0, next - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            logger.warn("Unable to schedule lease renewal: {}", e.getMessage());
+        }
+    }
+
+    private void fire()
+    {
+        final List<Lease> batch = new ArrayList<>();
+        synchronized (this)
+        {
+            timer = null;
+            timerDueAt = Long.MAX_VALUE;
+            final long limit = System.currentTimeMillis() + batchWindowMillis;
+            for (Lease lease : leases.values())
+            {
+                if (!lease.renewing && lease.dueAt <= limit)
+                {
+                    lease.renewing = true;
+                    batch.add(lease);
+                }
+            }
+            reschedule();
+        }
+
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        try
+        {
+            executor.execute(() -> renew(batch));
+        }
+        catch (final RejectedExecutionException e)
+        {
+            logger.warn("Unable to run lease renewal: {}", e.getMessage());
+            finish(batch);
+        }
+    }
+
+    private void renew(final List<Lease> batch)
+    {
+        logger.info("Renewing {} lease(s)", batch.size());
+        for (Lease lease : batch)
+        {
+            try
+            {
+                final LocalDateTime endOfValidity = lease.renewal.renew();
+                synchronized (this)
+                {
+                    if (Objects.isNull(endOfValidity))
+                    {
+                        leases.remove(lease.name, lease);
+                    }
+                    else
+                    {
+                        lease.update(toMillis(endOfValidity), System.currentTimeMillis());
+                        logger.info("Renewed lease {} until {}", lease.name, endOfValidity);
+                    }
+                }
+            }
+            catch (final Exception e)
+            {
+                final boolean expired;
+                synchronized (this)
+                {
+                    final long now = System.currentTimeMillis();
+                    expired = lease.endOfValidity <= now;
+                    if (expired)
+                    {
+                        leases.remove(lease.name, lease);
+                    }
+                    else
+                    {
+                        lease.dueAt = Math.min(now + retryDelayMillis, lease.endOfValidity);
+                    }
+                }
+                if (expired)
+                {
+                    logger.error("Lease {} expired, renewal failed: {}", lease.name, e.getMessage());
+                    notifyExpired(lease, e);
+                }
+                else
+                {
+                    logger.warn("Renewal of lease {} failed, retrying in {} ms: {}", lease.name, lease.dueAt - System.currentTimeMillis(), e.getMessage());
+                }
+            }
+        }
+        finish(batch);
+    }
+
+    private void notifyExpired(final Lease lease, final Exception failure)
+    {
+        try
+        {
+            expiryListener.onExpired(lease.name, failure);
+        }
+        catch (final RuntimeException e)
+        {
+            logger.warn("Lease expiry listener failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void finish(final List<Lease> batch)
+    {
+        batch.forEach(lease -> lease.renewing = false);
+        reschedule();
+    }
+
+    private static long toMillis(final LocalDateTime dateTime)
+    {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder sb = new StringBuilder("LeaseRenewer [");
+        sb.append("renewAt=").append(renewAt);
+        sb.append(", jitter=").append(jitter);
+        sb.append(", batchWindowMillis=").append(batchWindowMillis);
+        sb.append(", leases=").append(leases.keySet());
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private class Lease
+    {
+        private final String name;
+        private final Renewal renewal;
+        private long endOfValidity;
+        private long dueAt;
+        private boolean renewing;
+
+        private Lease(final String name, final Renewal renewal)
+        {
+            this.name = name;
+            this.renewal = renewal;
+        }
+
+        private void update(final long endOfValidity, final long now)
+        {
+            final long lifetime = Math.max(0, endOfValidity - now);
+            final double shift = jitter > 0 ? ThreadLocalRandom.current().nextDouble(-jitter, jitter) : 0;
+            this.endOfValidity = endOfValidity;
+            this.dueAt = now + (long) (lifetime * (renewAt + shift));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Registry entries an offboarding could not remove, because a removal failed or the deadline passed first. An entry is also left
+ * over if an entry depending on it was, e.g. the system of a service which is still registered.
+ */
+public class OffboardingLeftovers
+{
+    private final List<ServiceRegistryEntry> services = new ArrayList<>();
+    private final List<SystemRegistryEntry> systems = new ArrayList<>();
+    private final List<DeviceRegistryEntry> devices = new ArrayList<>();
+    private Throwable failure;
+
+    public static OffboardingLeftovers none()
+    {
+        return new OffboardingLeftovers();
+    }
+
+    void addService(final ServiceRegistryEntry entry)
+    {
+        if (Objects.nonNull(entry))
+        {
+            services.add(entry);
+        }
+    }
+
+    void addSystem(final SystemRegistryEntry entry)
+    {
+        if (Objects.nonNull(entry))
+        {
+            systems.add(entry);
+        }
+    }
+
+    void addDevice(final DeviceRegistryEntry entry)
+    {
+        if (Objects.nonNull(entry))
+        {
+            devices.add(entry);
+        }
+    }
+
+    void addFailure(final Throwable throwable)
+    {
+        if (Objects.isNull(failure))
+        {
+            failure = throwable;
+        }
+        else if (failure != throwable)
+        {
+            failure.addSuppressed(throwable);
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return services.isEmpty() && systems.isEmpty() && devices.isEmpty();
+    }
+
+    public List<ServiceRegistryEntry> getServices()
+    {
+        return Collections.unmodifiableList(services);
+    }
+
+    public List<SystemRegistryEntry> getSystems()
+    {
+        return Collections.unmodifiableList(systems);
+    }
+
+    public List<DeviceRegistryEntry> getDevices()
+    {
+        return Collections.unmodifiableList(devices);
+    }
+
+    /**
+     * @return the first failure or timeout, further ones are suppressed by it; <code>null</code> if nothing failed
+     */
+    public Throwable getFailure()
+    {
+        return failure;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("OffboardingLeftovers [");
+        sb.append("services=").append(services);
+        sb.append(", systems=").append(systems);
+        sb.append(", devices=").append(devices);
+        sb.append(']');
+        return sb.toString();
+    }
+}
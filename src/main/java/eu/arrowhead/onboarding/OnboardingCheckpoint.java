@@ -0,0 +1,153 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+import eu.arrowhead.onboarding.OnboardingPipeline.Stage;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Progress of the onboarding of one {@link OnboardingService}: the last completed stage, the core system endpoints handed out by the
+ * onboarding controller and the registry entries including the ids assigned by the registries. Stored by an
+ * {@link OnboardingCheckpointStore} after every stage, so a restarted process can resume instead of onboarding again.
+ */
+public class OnboardingCheckpoint
+{
+    private String name;
+    private Stage stage;
+    private Map<CoreSystems, URI> endpoints = new EnumMap<>(CoreSystems.class);
+    private DeviceRegistryEntry deviceEntry;
+    private SystemRegistryEntry systemEntry;
+    private List<ServiceRegistryEntry> serviceEntries = new ArrayList<>();
+    private LocalDateTime savedAt;
+
+    private OnboardingCheckpoint()
+    {
+        super();
+    }
+
+    public OnboardingCheckpoint(final String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the last completed stage, <code>null</code> if none
+     */
+    public Stage getStage()
+    {
+        return stage;
+    }
+
+    public Map<CoreSystems, URI> getEndpoints()
+    {
+        return endpoints;
+    }
+
+    public DeviceRegistryEntry getDeviceEntry()
+    {
+        return deviceEntry;
+    }
+
+    public SystemRegistryEntry getSystemEntry()
+    {
+        return systemEntry;
+    }
+
+    public List<ServiceRegistryEntry> getServiceEntries()
+    {
+        return serviceEntries;
+    }
+
+    public LocalDateTime getSavedAt()
+    {
+        return savedAt;
+    }
+
+    /**
+     * @return <code>true</code> if the given stage completed and its registry entry has not expired yet
+     */
+    public boolean canResume(final Stage stage)
+    {
+        if (Objects.isNull(this.stage) || this.stage.ordinal() < stage.ordinal())
+        {
+            return false;
+        }
+
+        final LocalDateTime now = LocalDateTime.now();
+        switch (stage)
+        {
+            case ONBOARDING:
+                return !endpoints.isEmpty();
+            case DEVICE_REGISTRATION:
+                return Objects.nonNull(deviceEntry) && notExpired(deviceEntry.getEndOfValidity(), now);
+            case SYSTEM_REGISTRATION:
+                return Objects.nonNull(systemEntry) && notExpired(systemEntry.getEndOfValidity(), now);
+            case SERVICE_REGISTRATION:
+                return !serviceEntries.isEmpty() && serviceEntries.stream().allMatch(entry -> notExpired(entry.getEndOfValidity(), now));
+            default:
+                return false;
+        }
+    }
+
+    private static boolean notExpired(final LocalDateTime endOfValidity, final LocalDateTime now)
+    {
+        return Objects.isNull(endOfValidity) || endOfValidity.isAfter(now);
+    }
+
+    /**
+     * Marks the given stage as the last completed one. Later stages are no longer resumable, since they depend on the ids of the
+     * entries of this stage.
+     */
+    void completed(final Stage stage)
+    {
+        this.stage = stage;
+        this.savedAt = LocalDateTime.now();
+    }
+
+    void setEndpoints(final Map<CoreSystems, URI> endpoints)
+    {
+        this.endpoints = new EnumMap<>(CoreSystems.class);
+        this.endpoints.putAll(endpoints);
+    }
+
+    void setDeviceEntry(final DeviceRegistryEntry deviceEntry)
+    {
+        this.deviceEntry = deviceEntry;
+    }
+
+    void setSystemEntry(final SystemRegistryEntry systemEntry)
+    {
+        this.systemEntry = systemEntry;
+    }
+
+    void setServiceEntries(final List<ServiceRegistryEntry> serviceEntries)
+    {
+        this.serviceEntries = new ArrayList<>(serviceEntries);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("OnboardingCheckpoint [");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", stage=").append(stage);
+        sb.append(", endpoints=").append(endpoints);
+        sb.append(", savedAt=").append(savedAt);
+        sb.append(']');
+        return sb.toString();
+    }
+}
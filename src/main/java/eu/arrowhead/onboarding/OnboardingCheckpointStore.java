@@ -0,0 +1,137 @@
+package eu.arrowhead.onboarding;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Stores an {@link OnboardingCheckpoint} as compact JSON in a file. A new checkpoint is written to a temporary file next to it,
+ * forced to disk and then moved over the old one, so a crash leaves either the old or the new checkpoint, never a partial one.
+ * <p>
+ * The key store written by the onboarding must be persistent as well, otherwise a resumed onboarding has no certificate.
+ */
+public class OnboardingCheckpointStore
+{
+    private static final ObjectMapper MAPPER = checkpointMapper();
+
+    private final Logger logger = LogManager.getLogger();
+    private final Path file;
+
+    public OnboardingCheckpointStore(final Path file)
+    {
+        this.file = Objects.requireNonNull(file).toAbsolutePath();
+    }
+
+    public Path getFile()
+    {
+        return file;
+    }
+
+    /**
+     * @return the stored checkpoint, <code>null</code> if there is none or it cannot be read
+     */
+    public synchronized OnboardingCheckpoint load()
+    {
+        if (!Files.exists(file))
+        {
+            return null;
+        }
+
+        try
+        {
+            return MAPPER.readValue(Files.readAllBytes(file), OnboardingCheckpoint.class);
+        }
+        catch (final IOException e)
+        {
+            logger.warn("Ignoring unreadable onboarding checkpoint {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void save(final OnboardingCheckpoint checkpoint) throws IOException
+    {
+        final byte[] bytes = MAPPER.writeValueAsBytes(checkpoint);
+        final Path directory = file.getParent();
+        Files.createDirectories(directory);
+
+        final Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try
+        {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (final AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(directory);
+        logger.debug("Saved {} to {}", checkpoint, file);
+    }
+
+    public synchronized void delete() throws IOException
+    {
+        Files.deleteIfExists(file);
+        forceDirectory(file.getParent());
+    }
+
+    private void forceDirectory(final Path directory)
+    {
+        // makes the rename durable; not every platform can open a directory, there the rename is as durable as the file system makes it
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }
+        catch (final IOException e)
+        {
+            logger.trace("Unable to force directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static ObjectMapper checkpointMapper()
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return mapper;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("OnboardingCheckpointStore [");
+        sb.append("file=").append(file);
+        sb.append(']');
+        return sb.toString();
+    }
+}
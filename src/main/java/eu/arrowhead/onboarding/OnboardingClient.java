@@ -1,5 +1,6 @@
 package eu.arrowhead.onboarding;
 
+import eu.arrowhead.client.misc.CoreSystems;
 import eu.arrowhead.client.transport.ProtocolConfiguration;
 import eu.arrowhead.client.transport.SSLConfigurationException;
 import eu.arrowhead.client.transport.TransportException;
@@ -9,6 +10,15 @@ import eu.arrowhead.client.services.request.OnboardingWithCertificateRequest;
 import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
 import eu.arrowhead.onboarding.impl.OnboardingClientBuilder;
 
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Onboards one device. The certificate handed out by the onboarding controller is stored in the key store of the client and the SSL
+ * context of its transport is reloaded, so a client carries exactly one identity; onboard further devices through clients of their
+ * own, e.g. with a {@link eu.arrowhead.onboarding.FleetOnboarder}.
+ */
 public interface OnboardingClient
 {
     static OnboardingClientBuilder withProtocol(final ProtocolConfiguration protocol)
@@ -16,10 +26,28 @@ public interface OnboardingClient
         return new OnboardingClientBuilder(protocol);
     }
 
+    /**
+     * @return the executor asynchronous onboarding and blocking registry calls are run on
+     */
+    Executor getExecutor();
+
     DeviceRegistryOnboarding plain(final OnboardingRequest request) throws TransportException, SSLConfigurationException;
 
     DeviceRegistryOnboarding withSharedKey(final OnboardingWithSharedKeyRequest request) throws TransportException, SSLConfigurationException;
 
     DeviceRegistryOnboarding withCertificate(final OnboardingWithCertificateRequest request) throws TransportException, SSLConfigurationException;
 
+    /**
+     * @return the core system endpoints known to this client, including those handed out by the last onboarding
+     */
+    Map<CoreSystems, URI> getEndpoints();
+
+    /**
+     * Continues an onboarding completed earlier, e.g. by a previous run of the process, without contacting the onboarding controller.
+     * The certificate of that onboarding must still be in the key store.
+     *
+     * @param endpoints core system endpoints handed out by the earlier onboarding, see {@link #getEndpoints()}
+     */
+    DeviceRegistryOnboarding resume(final Map<CoreSystems, URI> endpoints);
+
 }
@@ -0,0 +1,285 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.onboarding.services.DeviceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One asynchronous run of the onboarding chain of an {@link OnboardingService}. Each stage is a future of its own, so callers can
+ * continue as soon as the stage they depend on completed, and each stage runs on the executor of the {@link OnboardingClient} once
+ * the previous one succeeded. A failed stage fails all later stages with the same cause.
+ * <p>
+ * Cancelling any stage future cancels the whole pipeline: stages not yet started are skipped and the running one is interrupted.
+ * Once the last stage committed its result, i.e. the client was handed out, cancelling has no effect any more.
+ */
+public class OnboardingPipeline
+{
+    public enum Stage
+    {
+        ONBOARDING, DEVICE_REGISTRATION, SYSTEM_REGISTRATION, SERVICE_REGISTRATION
+    }
+
+    @FunctionalInterface
+    interface StageFunction<T, R>
+    {
+        R apply(final T input) throws Exception;
+    }
+
+    private final Logger logger = LogManager.getLogger();
+    private final String name;
+    private final Executor executor;
+    private final Map<Stage, CompletableFuture<?>> stages = new EnumMap<>(Stage.class);
+    private final Map<Stage, Duration> durations = Collections.synchronizedMap(new EnumMap<>(Stage.class));
+    private final Object runningLock = new Object();
+    private Thread runningThread;
+    private boolean interruptedRunning;
+    private boolean committed;
+    private volatile boolean cancelled;
+
+    private final CompletableFuture<DeviceRegistryOnboarding> onboarding;
+    private final CompletableFuture<SystemRegistryOnboarding> deviceRegistration;
+    private final CompletableFuture<ServiceRegistryOnboarding> systemRegistration;
+    private final CompletableFuture<ArrowheadClient> serviceRegistration;
+
+    OnboardingPipeline(final String name,
+                       final Executor executor,
+                       final StageFunction<Void, DeviceRegistryOnboarding> onboardingStage,
+                       final StageFunction<DeviceRegistryOnboarding, SystemRegistryOnboarding> deviceStage,
+                       final StageFunction<SystemRegistryOnboarding, ServiceRegistryOnboarding> systemStage,
+                       final StageFunction<ServiceRegistryOnboarding, ArrowheadClient> serviceStage)
+    {
+        this.name = name;
+        this.executor = executor;
+        this.onboarding = then(Stage.ONBOARDING, CompletableFuture.completedFuture(null), onboardingStage);
+        this.deviceRegistration = then(Stage.DEVICE_REGISTRATION, onboarding, deviceStage);
+        this.systemRegistration = then(Stage.SYSTEM_REGISTRATION, deviceRegistration, systemStage);
+        this.serviceRegistration = then(Stage.SERVICE_REGISTRATION, systemRegistration, serviceStage);
+    }
+
+    private <T, R> CompletableFuture<R> then(final Stage stage, final CompletableFuture<T> previous, final StageFunction<T, R> function)
+    {
+        final CompletableFuture<R> future = new StageFuture<>();
+        stages.put(stage, future);
+
+        previous.whenComplete((input, throwable) -> {
+            if (Objects.nonNull(throwable))
+            {
+                future.completeExceptionally(unwrap(throwable));
+                return;
+            }
+            try
+            {
+                executor.execute(() -> run(stage, future, () -> function.apply(input)));
+            }
+            catch (final RejectedExecutionException e)
+            {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private <R> void run(final Stage stage, final CompletableFuture<R> future, final Callable<R> function)
+    {
+        synchronized (runningLock)
+        {
+            if (cancelled || future.isDone())
+            {
+                return;
+            }
+            runningThread = Thread.currentThread();
+        }
+
+        final long start = System.nanoTime();
+        try
+        {
+            final R result = function.call();
+            finish(stage, start, "completed");
+            complete(future, result, null);
+        }
+        catch (final Exception e)
+        {
+            finish(stage, start, "failed");
+            complete(future, null, e);
+        }
+        finally
+        {
+            synchronized (runningLock)
+            {
+                runningThread = null;
+                if (interruptedRunning)
+                {
+                    // the executor thread runs other tasks next, they must not see the interrupt meant for this stage
+                    Thread.interrupted();
+                    interruptedRunning = false;
+                }
+            }
+        }
+    }
+
+    private <R> void complete(final CompletableFuture<R> future, final R result, final Exception failure)
+    {
+        if (cancelled)
+        {
+            // a stage ending after a cancel, by the interrupt or despite it, reports the cancellation and later stages do not start
+            future.cancel(false);
+        }
+        else if (Objects.nonNull(failure))
+        {
+            future.completeExceptionally(failure);
+        }
+        else
+        {
+            future.complete(result);
+        }
+    }
+
+    private void finish(final Stage stage, final long startNanos, final String outcome)
+    {
+        final Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        durations.put(stage, duration);
+        logger.info("Onboarding stage {} of {} {} after {} ms", stage, name, outcome, duration.toMillis());
+    }
+
+    private static Throwable unwrap(final Throwable throwable)
+    {
+        return throwable instanceof CompletionException && Objects.nonNull(throwable.getCause()) ? throwable.getCause() : throwable;
+    }
+
+    public CompletableFuture<DeviceRegistryOnboarding> onboarding()
+    {
+        return onboarding;
+    }
+
+    public CompletableFuture<SystemRegistryOnboarding> deviceRegistration()
+    {
+        return deviceRegistration;
+    }
+
+    public CompletableFuture<ServiceRegistryOnboarding> systemRegistration()
+    {
+        return systemRegistration;
+    }
+
+    /**
+     * The last stage, completes with the client once the onboarding completed.
+     */
+    public CompletableFuture<ArrowheadClient> serviceRegistration()
+    {
+        return serviceRegistration;
+    }
+
+    public CompletableFuture<?> stage(final Stage stage)
+    {
+        return stages.get(stage);
+    }
+
+    /**
+     * @return how long the stage ran, <code>null</code> if it has not finished
+     */
+    public Duration getDuration(final Stage stage)
+    {
+        return durations.get(stage);
+    }
+
+    /**
+     * @return durations of all finished stages
+     */
+    public Map<Stage, Duration> getDurations()
+    {
+        synchronized (durations)
+        {
+            return new EnumMap<>(durations);
+        }
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * @return <code>true</code> if the pipeline failed or was cancelled, i.e. it will never complete successfully
+     */
+    public boolean isFailed()
+    {
+        return serviceRegistration.isCompletedExceptionally();
+    }
+
+    /**
+     * Skips all stages not yet started and interrupts the running one. Has no effect once the last stage committed.
+     */
+    public void cancel()
+    {
+        synchronized (runningLock)
+        {
+            if (cancelled || committed)
+            {
+                return;
+            }
+            cancelled = true;
+            if (Objects.nonNull(runningThread))
+            {
+                runningThread.interrupt();
+                interruptedRunning = true;
+            }
+        }
+        stages.values().forEach(future -> future.cancel(false));
+    }
+
+    /**
+     * Called by the last stage right before it hands out its result. Afterwards the pipeline can no longer be cancelled.
+     *
+     * @return <code>false</code> if the pipeline was cancelled before, the result must not be handed out then
+     */
+    boolean commit()
+    {
+        synchronized (runningLock)
+        {
+            if (cancelled)
+            {
+                return false;
+            }
+            committed = true;
+            return true;
+        }
+    }
+
+    /**
+     * Stage future whose cancellation cancels the pipeline, and which cannot be cancelled once the pipeline committed.
+     */
+    private class StageFuture<R> extends CompletableFuture<R>
+    {
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning)
+        {
+            OnboardingPipeline.this.cancel();
+            return cancelled && super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("OnboardingPipeline [");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", cancelled=").append(cancelled);
+        sb.append(", durations=").append(getDurations());
+        sb.append(']');
+        return sb.toString();
+    }
+}
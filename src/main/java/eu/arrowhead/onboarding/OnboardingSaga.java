@@ -0,0 +1,179 @@
+package eu.arrowhead.onboarding;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Compensations of the completed steps of one onboarding chain (device, system and services registration). The steps themselves are
+ * retried without compensating in between; only once the chain is abandoned, its compensations run in reverse order as one batch on
+ * the executor, off the thread which gave up. Once the chain succeeded, {@link #commit()} drops the compensations.
+ * <p>
+ * A step completing after the chain was abandoned, e.g. a registration which was already on the wire when the chain was cancelled,
+ * is compensated right away.
+ */
+public class OnboardingSaga
+{
+    @FunctionalInterface
+    public interface Compensation
+    {
+        void compensate() throws Exception;
+    }
+
+    private final Logger logger = LogManager.getLogger();
+    private final String name;
+    private final Executor executor;
+    private final Deque<Step> steps = new ArrayDeque<>();
+    private CompletableFuture<Void> compensated;
+    private boolean committed;
+
+    public OnboardingSaga(final String name, final Executor executor)
+    {
+        this.name = name;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Records a completed step and how to undo it.
+     */
+    public void record(final String step, final Compensation compensation)
+    {
+        final List<Step> late;
+        synchronized (this)
+        {
+            if (committed)
+            {
+                return;
+            }
+            if (Objects.isNull(compensated))
+            {
+                steps.push(new Step(step, compensation));
+                return;
+            }
+            late = new ArrayList<>();
+            late.add(new Step(step, compensation));
+        }
+        logger.info("Step {} of {} completed after the chain was abandoned, compensating it", step, name);
+        submit(late);
+    }
+
+    /**
+     * The chain completed, its steps are kept.
+     */
+    public synchronized void commit()
+    {
+        if (Objects.isNull(compensated))
+        {
+            committed = true;
+            steps.clear();
+        }
+    }
+
+    public synchronized boolean isAbandoned()
+    {
+        return Objects.nonNull(compensated);
+    }
+
+    /**
+     * Gives up the chain and starts compensating the completed steps, newest first. Only the first call has an effect.
+     *
+     * @return <code>true</code> if this call abandoned the chain, <code>false</code> if it was already abandoned or committed
+     */
+    public boolean abandon()
+    {
+        final List<Step> batch;
+        synchronized (this)
+        {
+            if (committed || Objects.nonNull(compensated))
+            {
+                return false;
+            }
+            batch = new ArrayList<>(steps);
+            steps.clear();
+            compensated = new CompletableFuture<>();
+        }
+
+        logger.info("Abandoning onboarding of {}, compensating {} step(s)", name, batch.size());
+        submit(batch).whenComplete((ignored, throwable) -> {
+            synchronized (this)
+            {
+                compensated.complete(null);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * @return completes once the compensations started by {@link #abandon()} finished, <code>null</code> if not abandoned
+     */
+    public synchronized CompletableFuture<Void> whenCompensated()
+    {
+        return compensated;
+    }
+
+    private CompletableFuture<Void> submit(final List<Step> batch)
+    {
+        if (batch.isEmpty())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try
+        {
+            return CompletableFuture.runAsync(() -> compensate(batch), executor);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            logger.warn("Unable to compensate onboarding of {}, executor rejected: {}", name, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void compensate(final List<Step> batch)
+    {
+        for (Step step : batch)
+        {
+            try
+            {
+                step.compensation.compensate();
+                logger.info("Compensated step {} of {}", step.name, name);
+            }
+            catch (final Exception e)
+            {
+                logger.warn("Compensation of step {} of {} failed, leaving it: {}", step.name, name, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        final StringBuilder sb = new StringBuilder("OnboardingSaga [");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", steps=").append(steps.size());
+        sb.append(", committed=").append(committed);
+        sb.append(", abandoned=").append(Objects.nonNull(compensated));
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private static class Step
+    {
+        private final String name;
+        private final Compensation compensation;
+
+        private Step(final String name, final Compensation compensation)
+        {
+            this.name = name;
+            this.compensation = compensation;
+        }
+    }
+}
@@ -9,25 +9,64 @@ import eu.arrowhead.client.services.request.ServiceRegistryEntry;
 import eu.arrowhead.client.services.request.SystemRegistryEntry;
 import eu.arrowhead.client.transport.SSLConfigurationException;
 import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.onboarding.OnboardingPipeline.Stage;
+import eu.arrowhead.onboarding.services.BulkResult;
 import eu.arrowhead.onboarding.services.DeviceRegistryOnboarding;
 import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
 import eu.arrowhead.onboarding.services.ServiceWrapper;
 import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public abstract class OnboardingService implements Supplier<ArrowheadClient>, ServiceWrapper<ArrowheadClient>
 {
+    public static final long DEFAULT_STOP_TIMEOUT_MILLIS = 20000;
+
+    private final Logger logger = LogManager.getLogger();
     private final Long defaultValidity;
     private final TemporalUnit defaultValidityUnit;
+    // a Lock instead of a monitor, so virtual threads blocking on the registries do not pin their carrier thread
+    private final Lock lifecycleLock = new ReentrantLock();
+    private final AtomicReference<OnboardingPipeline> pipeline = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<ArrowheadClient>> readiness = new AtomicReference<>(new CompletableFuture<>());
+    private volatile OnboardingCheckpointStore checkpointStore;
+    private volatile LeaseRenewer leaseRenewer;
+    private final List<String> leaseNames = new CopyOnWriteArrayList<>();
+    private final Object renewalLock = new Object();
+    private Thread renewalThread;
+    private boolean interruptedRenewal;
+    private final AtomicInteger pendingStops = new AtomicInteger();
+    private volatile long stopTimeoutMillis = DEFAULT_STOP_TIMEOUT_MILLIS;
+    private volatile OffboardingLeftovers leftovers = OffboardingLeftovers.none();
 
     protected final OnboardingClient onboardingClient;
     protected final AtomicReference<ArrowheadClient> arrowheadClient;
     protected final AtomicReference<ServiceRegistryEntry> serviceRegistryEntry;
+    protected final AtomicReference<List<ServiceRegistryEntry>> serviceRegistryEntries;
     protected final AtomicReference<SystemRegistryEntry> systemRegistryEntry;
     protected final AtomicReference<DeviceRegistryEntry> deviceRegistryEntry;
 
@@ -39,22 +78,69 @@ public abstract class OnboardingService implements Supplier<ArrowheadClient>, Se
         this.onboardingClient = onboardingClient;
         this.arrowheadClient = new AtomicReference<>();
         this.serviceRegistryEntry = new AtomicReference<>();
+        this.serviceRegistryEntries = new AtomicReference<>(Collections.emptyList());
         this.systemRegistryEntry = new AtomicReference<>();
         this.deviceRegistryEntry = new AtomicReference<>();
+        this.leaseRenewer = Objects.isNull(onboardingClient) ? null : new LeaseRenewer(onboardingClient.getExecutor());
     }
 
+    /**
+     * Waits until the onboarding completed.
+     *
+     * @throws CancellationException if the waiting thread is interrupted, its interrupt flag stays set, or the onboarding was
+     *                               cancelled
+     * @throws IllegalStateException if the onboarding failed
+     */
     @Override
     public ArrowheadClient get()
     {
-        ArrowheadClient client;
-        while (Objects.isNull(client = arrowheadClient.get()))
+        try
+        {
+            return readiness.get().get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for onboarding of " + getOnboardingName());
+        }
+        catch (final ExecutionException e)
         {
-            sleep(100L);
+            throw new IllegalStateException(e.getCause());
         }
+    }
 
-        return client;
+    /**
+     * Waits at most the given time until the onboarding completed.
+     *
+     * @throws CancellationException if the onboarding was cancelled
+     * @throws IllegalStateException if the onboarding failed
+     */
+    public ArrowheadClient get(final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException
+    {
+        try
+        {
+            return readiness.get().get(timeout, unit);
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Completes with the client once the onboarding completed, immediately if it already has, and exceptionally once the run failed
+     * or was cancelled. After {@link #stop()} or a failed run, the next start hands out a new future; futures obtained before keep
+     * the outcome of their run.
+     */
+    public CompletableFuture<ArrowheadClient> whenReady()
+    {
+        // a copy, so callers cannot complete or cancel the shared future
+        return readiness.get().thenApply(Function.identity());
     }
 
+    /**
+     * Sleeps, returning early with the interrupt flag set if interrupted. No longer used by {@link #get()}, kept for subclasses.
+     */
     protected void sleep(final long milliseconds)
     {
         try
@@ -63,10 +149,58 @@ public abstract class OnboardingService implements Supplier<ArrowheadClient>, Se
         }
         catch (InterruptedException e)
         {
-            // nothing
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancels a running onboarding, see {@link OnboardingPipeline#cancel()}: retry delays end immediately, no further onboarding step
+     * or retry is started and <code>start()</code> fails. A request already on the wire is bounded by the read timeout of the
+     * transport.
+     */
+    public void cancelStart()
+    {
+        final OnboardingPipeline current = pipeline.get();
+        if (Objects.nonNull(current))
+        {
+            current.cancel();
+        }
+    }
+
+    /**
+     * Stores the progress of the onboarding after every stage, so the next start, e.g. after a restart of the process, resumes from
+     * the last completed stage as long as its registry entries are valid. The checkpoint is deleted once {@link #stop()} removed all
+     * entries.
+     */
+    public void setCheckpointStore(final OnboardingCheckpointStore checkpointStore)
+    {
+        this.checkpointStore = checkpointStore;
+    }
+
+    public OnboardingCheckpointStore getCheckpointStore()
+    {
+        return checkpointStore;
+    }
+
+    /**
+     * Renewer keeping the registry entries valid while the service runs, by default one using the executor of the
+     * {@link OnboardingClient}. <code>null</code> disables renewals, the entries then expire after the default validity.
+     */
+    public void setLeaseRenewer(final LeaseRenewer leaseRenewer)
+    {
+        final LeaseRenewer previous = this.leaseRenewer;
+        this.leaseRenewer = leaseRenewer;
+        if (Objects.nonNull(previous) && previous != leaseRenewer)
+        {
+            previous.clear();
         }
     }
 
+    public LeaseRenewer getLeaseRenewer()
+    {
+        return leaseRenewer;
+    }
+
     protected String getOnboardingName()
     {
         return getSystemName();
@@ -119,53 +253,839 @@ public abstract class OnboardingService implements Supplier<ArrowheadClient>, Se
         return serviceRegistryOnboarding.registerService(serviceRegistryEntry.get());
     }
 
-    @Override
-    public void start() throws Exception
+    /**
+     * Registers all entries of {@link #serviceRegistryEntries} concurrently under the onboarded system. If one of them fails, those
+     * already registered keep their ids and are removed again when the onboarding is abandoned, see {@link OnboardingSaga}, so the
+     * system never offers a partial set of services.
+     */
+    protected ArrowheadClient registerServices(final ServiceRegistryOnboarding serviceRegistryOnboarding) throws TransportException
+    {
+        final List<ServiceRegistryEntry> entries = serviceRegistryEntries.get();
+        if (entries.size() == 1)
+        {
+            return registerService(serviceRegistryOnboarding);
+        }
+
+        final BulkResult result = serviceRegistryOnboarding.registerServices(entries);
+        if (!result.isSuccess())
+        {
+            throw new TransportException(String.format("Registration of %d of %d services failed", result.getFailures().size(), entries.size()),
+                                         result.getFailures().get(0).getFailure());
+        }
+        return serviceRegistryOnboarding.getClient();
+    }
+
+    /**
+     * Starts the onboarding chain on the executor of the {@link OnboardingClient} and returns immediately. While a run is in progress
+     * or after it succeeded, the same pipeline is returned; after a failure or {@link #stop()} a new run is started.
+     */
+    public OnboardingPipeline startPipeline()
     {
-        synchronized (arrowheadClient)
+        lifecycleLock.lock();
+        try
+        {
+            final OnboardingPipeline current = pipeline.get();
+            if (Objects.nonNull(current) && !current.isFailed())
+            {
+                return current;
+            }
+
+            if (readiness.get().isCompletedExceptionally())
+            {
+                readiness.set(new CompletableFuture<>());
+            }
+
+            final OnboardingCheckpoint checkpoint = loadCheckpoint();
+            final boolean resumed = Objects.nonNull(checkpoint.getStage());
+            final OnboardingSaga saga = new OnboardingSaga(getOnboardingName(), onboardingClient.getExecutor());
+            final OnboardingPipeline next = new OnboardingPipeline(
+                    getOnboardingName(),
+                    onboardingClient.getExecutor(),
+                    ignored -> onboard(checkpoint, saga),
+                    deviceRegistryOnboarding -> registerDevice(deviceRegistryOnboarding, checkpoint, saga),
+                    systemRegistryOnboarding -> registerSystem(systemRegistryOnboarding, checkpoint, saga),
+                    serviceRegistryOnboarding -> publish(registerServices(serviceRegistryOnboarding, checkpoint, saga)));
+            next.serviceRegistration().whenComplete((client, throwable) -> {
+                if (Objects.isNull(throwable))
+                {
+                    saga.commit();
+                }
+                else
+                {
+                    abandon(saga, checkpoint, resumed && !next.isCancelled());
+                    fail(next, throwable);
+                }
+            });
+            next.serviceRegistration().thenAccept(client -> trackLeases(next, checkpoint));
+            pipeline.set(next);
+            return next;
+        }
+        finally
+        {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private OnboardingCheckpoint loadCheckpoint()
+    {
+        final OnboardingCheckpointStore store = checkpointStore;
+        final OnboardingCheckpoint checkpoint = Objects.isNull(store) ? null : store.load();
+        if (Objects.nonNull(checkpoint) && Objects.equals(checkpoint.getName(), getOnboardingName()))
+        {
+            logger.info("Found {}", checkpoint);
+            return checkpoint;
+        }
+        return new OnboardingCheckpoint(getOnboardingName());
+    }
+
+    private void saveCheckpoint(final OnboardingCheckpoint checkpoint, final Stage stage)
+    {
+        final OnboardingCheckpointStore store = checkpointStore;
+        checkpoint.completed(stage);
+        if (Objects.isNull(store))
+        {
+            return;
+        }
+
+        try
         {
-            if (Objects.nonNull(arrowheadClient.get()))
+            store.save(checkpoint);
+        }
+        catch (final IOException e)
+        {
+            logger.warn("Unable to save onboarding checkpoint to {}: {}", store.getFile(), e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the checkpoint unless the onboarding was abandoned meanwhile, in which case the completed stage is being compensated.
+     */
+    private void saveCheckpoint(final OnboardingCheckpoint checkpoint, final Stage stage, final OnboardingSaga saga)
+    {
+        synchronized (checkpoint)
+        {
+            if (saga.isAbandoned())
+            {
+                throw new CancellationException("Onboarding of " + getOnboardingName() + " was abandoned");
+            }
+            saveCheckpoint(checkpoint, stage);
+        }
+    }
+
+    /**
+     * Compensates the registrations of a failed or cancelled run. The checkpoint falls back to the onboarding stage, whose
+     * certificate stays valid; if the checkpoint itself may have caused the failure, it is deleted and the next run starts over.
+     */
+    private void abandon(final OnboardingSaga saga, final OnboardingCheckpoint checkpoint, final boolean stale)
+    {
+        synchronized (checkpoint)
+        {
+            if (!saga.abandon())
             {
                 return;
             }
+            if (stale)
+            {
+                deleteCheckpoint();
+            }
+            else if (Objects.nonNull(checkpoint.getStage()) && checkpoint.getStage().compareTo(Stage.ONBOARDING) > 0)
+            {
+                saveCheckpoint(checkpoint, Stage.ONBOARDING);
+            }
+        }
+    }
+
+    private void deleteCheckpoint()
+    {
+        final OnboardingCheckpointStore store = checkpointStore;
+        if (Objects.isNull(store))
+        {
+            return;
+        }
+
+        try
+        {
+            store.delete();
+        }
+        catch (final IOException e)
+        {
+            logger.warn("Unable to delete onboarding checkpoint {}: {}", store.getFile(), e.getMessage());
+        }
+    }
+
+    private DeviceRegistryOnboarding onboard(final OnboardingCheckpoint checkpoint, final OnboardingSaga saga) throws Exception
+    {
+        if (checkpoint.canResume(Stage.ONBOARDING))
+        {
+            return onboardingClient.resume(checkpoint.getEndpoints());
+        }
+
+        final DeviceRegistryOnboarding deviceRegistryOnboarding = onboardingWithSharedKey(getSystemName(), getSharedKey());
+        checkpoint.setEndpoints(onboardingClient.getEndpoints());
+        saveCheckpoint(checkpoint, Stage.ONBOARDING, saga);
+        return deviceRegistryOnboarding;
+    }
+
+    private SystemRegistryOnboarding registerDevice(final DeviceRegistryOnboarding deviceRegistryOnboarding,
+                                                    final OnboardingCheckpoint checkpoint,
+                                                    final OnboardingSaga saga) throws TransportException
+    {
+        if (checkpoint.canResume(Stage.DEVICE_REGISTRATION) && deviceRegistryOnboarding.isRegistered(checkpoint.getDeviceEntry()))
+        {
+            deviceRegistryEntry.set(checkpoint.getDeviceEntry());
+            recordDevice(deviceRegistryOnboarding, saga);
+            return deviceRegistryOnboarding.resumeDevice(checkpoint.getDeviceEntry());
+        }
+
+        deviceRegistryEntry.set(deviceRegistryEntry());
+        final SystemRegistryOnboarding systemRegistryOnboarding = registerDevice(deviceRegistryOnboarding);
+        recordDevice(deviceRegistryOnboarding, saga);
+        checkpoint.setDeviceEntry(deviceRegistryEntry.get());
+        saveCheckpoint(checkpoint, Stage.DEVICE_REGISTRATION, saga);
+        return systemRegistryOnboarding;
+    }
+
+    private void recordDevice(final DeviceRegistryOnboarding deviceRegistryOnboarding, final OnboardingSaga saga)
+    {
+        final DeviceRegistryEntry entry = deviceRegistryEntry.get();
+        saga.record("device registration", () -> {
+            deviceRegistryOnboarding.removeDevice(entry);
+            deviceRegistryEntry.compareAndSet(entry, null);
+        });
+    }
+
+    private ServiceRegistryOnboarding registerSystem(final SystemRegistryOnboarding systemRegistryOnboarding,
+                                                     final OnboardingCheckpoint checkpoint,
+                                                     final OnboardingSaga saga) throws TransportException
+    {
+        if (checkpoint.canResume(Stage.SYSTEM_REGISTRATION) && systemRegistryOnboarding.isRegistered(checkpoint.getSystemEntry()))
+        {
+            systemRegistryEntry.set(checkpoint.getSystemEntry());
+            recordSystem(systemRegistryOnboarding, saga);
+            return systemRegistryOnboarding.resumeSystem(checkpoint.getSystemEntry());
+        }
+
+        final SystemRegistryEntry staleSystem = checkpoint.getSystemEntry();
+        if (Objects.nonNull(staleSystem) && Objects.nonNull(staleSystem.getId()))
+        {
+            removeStale("system", () -> systemRegistryOnboarding.removeSystem(staleSystem));
+        }
+
+        systemRegistryEntry.set(systemRegistryEntry(deviceRegistryEntry.get()));
+        final ServiceRegistryOnboarding serviceRegistryOnboarding = registerSystem(systemRegistryOnboarding);
+        recordSystem(systemRegistryOnboarding, saga);
+        checkpoint.setSystemEntry(systemRegistryEntry.get());
+        saveCheckpoint(checkpoint, Stage.SYSTEM_REGISTRATION, saga);
+        return serviceRegistryOnboarding;
+    }
+
+    private void recordSystem(final SystemRegistryOnboarding systemRegistryOnboarding, final OnboardingSaga saga)
+    {
+        final SystemRegistryEntry entry = systemRegistryEntry.get();
+        saga.record("system registration", () -> {
+            systemRegistryOnboarding.removeSystem(entry);
+            systemRegistryEntry.compareAndSet(entry, null);
+        });
+    }
+
+    private ArrowheadClient registerServices(final ServiceRegistryOnboarding serviceRegistryOnboarding,
+                                             final OnboardingCheckpoint checkpoint,
+                                             final OnboardingSaga saga) throws TransportException
+    {
+        if (checkpoint.canResume(Stage.SERVICE_REGISTRATION) && areRegistered(serviceRegistryOnboarding, checkpoint.getServiceEntries()))
+        {
+            setServiceRegistryEntries(checkpoint.getServiceEntries());
+            recordServices(serviceRegistryOnboarding, saga);
+            return serviceRegistryOnboarding.resumeService(serviceRegistryEntry.get());
+        }
+
+        for (ServiceRegistryEntry staleService : checkpoint.getServiceEntries())
+        {
+            if (Objects.nonNull(staleService.getId()))
+            {
+                removeStale("service", () -> serviceRegistryOnboarding.removeService(staleService));
+            }
+        }
+        setServiceRegistryEntries(serviceRegistryEntries(systemRegistryEntry.get()));
+        final ArrowheadClient client;
+        try
+        {
+            client = registerServices(serviceRegistryOnboarding);
+        }
+        finally
+        {
+            // also the entries registered before another one failed
+            recordServices(serviceRegistryOnboarding, saga);
+        }
+        checkpoint.setServiceEntries(serviceRegistryEntries.get());
+        saveCheckpoint(checkpoint, Stage.SERVICE_REGISTRATION, saga);
+        return client;
+    }
+
+    private void recordServices(final ServiceRegistryOnboarding serviceRegistryOnboarding, final OnboardingSaga saga)
+    {
+        final List<ServiceRegistryEntry> entries = serviceRegistryEntries.get();
+        final List<ServiceRegistryEntry> registered = new ArrayList<>();
+        for (ServiceRegistryEntry entry : entries)
+        {
+            if (Objects.nonNull(entry.getId()))
+            {
+                registered.add(entry);
+            }
+        }
+        if (registered.isEmpty())
+        {
+            return;
+        }
+
+        saga.record("service registration", () -> {
+            final BulkResult result = serviceRegistryOnboarding.removeServices(registered);
+            if (!result.isSuccess())
+            {
+                throw new TransportException(String.format("Removal of %d of %d services failed", result.getFailures().size(), registered.size()),
+                                             result.getFailures().get(0).getFailure());
+            }
+            serviceRegistryEntries.compareAndSet(entries, Collections.emptyList());
+        });
+    }
+
+    /**
+     * Removes an entry of an earlier run which is registered anew instead of resumed, e.g. because the entry it depends on was
+     * lost, so the new registration is not rejected as duplicate. The entry may be gone already, a failure is only logged.
+     */
+    private void removeStale(final String step, final OnboardingSaga.Compensation removal)
+    {
+        try
+        {
+            removal.compensate();
+        }
+        catch (final Exception e)
+        {
+            logger.debug("Unable to remove stale {} entry of {}: {}", step, getOnboardingName(), e.getMessage());
+        }
+    }
+
+    private static boolean areRegistered(final ServiceRegistryOnboarding serviceRegistryOnboarding,
+                                         final List<ServiceRegistryEntry> entries) throws TransportException
+    {
+        for (ServiceRegistryEntry entry : entries)
+        {
+            if (!serviceRegistryOnboarding.isRegistered(entry))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setServiceRegistryEntries(final List<ServiceRegistryEntry> entries)
+    {
+        serviceRegistryEntries.set(Collections.unmodifiableList(new ArrayList<>(entries)));
+        serviceRegistryEntry.set(entries.isEmpty() ? null : entries.get(0));
+    }
+
+    /**
+     * Renews device, system and service entries with a new end of validity, see {@link #replace}. Renewals run under the lifecycle
+     * lock, so they never overlap with {@link #stop()}, are interrupted by a stop and stop once the pipeline they belong to was
+     * replaced.
+     */
+    private void trackLeases(final OnboardingPipeline owner, final OnboardingCheckpoint checkpoint)
+    {
+        final LeaseRenewer renewer = leaseRenewer;
+        if (Objects.isNull(renewer))
+        {
+            return;
+        }
+
+        final DeviceRegistryOnboarding deviceRegistryOnboarding = owner.onboarding().join();
+        final SystemRegistryOnboarding systemRegistryOnboarding = owner.deviceRegistration().join();
+        final ServiceRegistryOnboarding serviceRegistryOnboarding = owner.systemRegistration().join();
+
+        trackLease(renewer, leaseName("device"), deviceRegistryEntry.get().getEndOfValidity(), () -> renew(owner, () -> {
+            final DeviceRegistryEntry current = deviceRegistryEntry.get();
+            final DeviceRegistryEntry renewed = new DeviceRegistryEntry(current.getMacAddress(), nextEndOfValidity(), current.getProvidedDevice());
+            // removals clear the ids of the nested device or system the renewal shares, so the old entries are removed as copies
+            replace(current, Objects.nonNull(current.getId()), renewed, deviceRegistryOnboarding::registerDevice,
+                    entry -> deviceRegistryOnboarding.removeDevice(new DeviceRegistryEntry(entry)));
+            deviceRegistryEntry.set(renewed);
+            checkpoint.setDeviceEntry(renewed);
+            return renewed.getEndOfValidity();
+        }, checkpoint));
+
+        trackLease(renewer, leaseName("system"), systemRegistryEntry.get().getEndOfValidity(), () -> renew(owner, () -> {
+            final SystemRegistryEntry current = systemRegistryEntry.get();
+            final SystemRegistryEntry renewed = new SystemRegistryEntry(current.getProvider(), current.getProvidedSystem(), current.getServiceURI(),
+                                                                        nextEndOfValidity());
+            replace(current, Objects.nonNull(current.getId()), renewed, systemRegistryOnboarding::registerSystem,
+                    entry -> systemRegistryOnboarding.removeSystem(new SystemRegistryEntry(entry)));
+            systemRegistryEntry.set(renewed);
+            checkpoint.setSystemEntry(renewed);
+            return renewed.getEndOfValidity();
+        }, checkpoint));
+
+        final List<ServiceRegistryEntry> services = serviceRegistryEntries.get();
+        for (int i = 0; i < services.size(); i++)
+        {
+            final int index = i;
+            trackLease(renewer, leaseName("service-" + index), services.get(index).getEndOfValidity(), () -> renew(owner, () -> {
+                final ServiceRegistryEntry current = serviceRegistryEntries.get().get(index);
+                final ServiceRegistryEntry renewed = new ServiceRegistryEntry(null, current.getProvider(), current.getProvidedService(),
+                                                                              current.getServiceURI(), current.getUdp(), nextEndOfValidity());
+                replace(current, Objects.nonNull(current.getId()), renewed, serviceRegistryOnboarding::registerService,
+                        entry -> serviceRegistryOnboarding.removeService(new ServiceRegistryEntry(entry)));
+                final List<ServiceRegistryEntry> entries = new ArrayList<>(serviceRegistryEntries.get());
+                entries.set(index, renewed);
+                setServiceRegistryEntries(entries);
+                checkpoint.setServiceEntries(serviceRegistryEntries.get());
+                return renewed.getEndOfValidity();
+            }, checkpoint));
+        }
+    }
+
+    private void trackLease(final LeaseRenewer renewer, final String name, final LocalDateTime endOfValidity, final LeaseRenewer.Renewal renewal)
+    {
+        leaseNames.add(name);
+        renewer.track(name, endOfValidity, renewal);
+    }
+
+    private LocalDateTime renew(final OnboardingPipeline owner, final LeaseRenewer.Renewal renewal,
+                                final OnboardingCheckpoint checkpoint) throws Exception
+    {
+        lifecycleLock.lock();
+        try
+        {
+            if (pendingStops.get() > 0)
+            {
+                // retried after the retry delay, unless the stop untracked the lease by then
+                throw new CancellationException("Stop of " + getOnboardingName() + " pending");
+            }
+            if (pipeline.get() != owner || Objects.isNull(arrowheadClient.get()))
+            {
+                return null;
+            }
+            synchronized (renewalLock)
+            {
+                renewalThread = Thread.currentThread();
+            }
+            try
+            {
+                final LocalDateTime endOfValidity = renewal.renew();
+                saveCheckpoint(checkpoint, Stage.SERVICE_REGISTRATION);
+                return endOfValidity;
+            }
+            finally
+            {
+                synchronized (renewalLock)
+                {
+                    renewalThread = null;
+                    if (interruptedRenewal)
+                    {
+                        // the executor thread runs other tasks next, they must not see the interrupt meant for this renewal
+                        Thread.interrupted();
+                        interruptedRenewal = false;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private void interruptRenewal()
+    {
+        synchronized (renewalLock)
+        {
+            if (Objects.nonNull(renewalThread))
+            {
+                renewalThread.interrupt();
+                interruptedRenewal = true;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryOperation<E>
+    {
+        void apply(final E entry) throws Exception;
+    }
+
+    /**
+     * Replaces a registered entry by its renewal. The renewal is registered first, so the old entry stays discoverable until the
+     * registry confirmed the new one. The registries reject an entry they already know as duplicate though, whatever its end of
+     * validity; then the old entry is removed before the renewal is registered, and discovery misses the entry for the round trip in
+     * between. If that registration fails, the old entry, which is valid until its end of validity, is registered again.
+     *
+     * @param registered whether the old entry is registered, an entry a failed renewal left removed is only registered
+     */
+    private <E> void replace(final E current, final boolean registered, final E renewed, final EntryOperation<E> register,
+                             final EntryOperation<E> remove) throws Exception
+    {
+        if (!registered)
+        {
+            register.apply(renewed);
+            return;
+        }
+
+        try
+        {
+            register.apply(renewed);
+        }
+        catch (final Exception e)
+        {
+            // a stop interrupted the registration, the interrupt flag may not have survived it
+            if (pendingStops.get() > 0 || Thread.currentThread().isInterrupted())
+            {
+                throw e;
+            }
+            logger.debug("Renewal of {} rejected while registered, replacing it: {}", getOnboardingName(), e.getMessage());
+            remove.apply(current);
+            try
+            {
+                register.apply(renewed);
+            }
+            catch (final Exception failure)
+            {
+                restore(current, register, failure);
+                throw failure;
+            }
+            return;
+        }
 
-            final DeviceRegistryOnboarding deviceRegistryOnboarding = onboardingWithSharedKey(getSystemName(), getSharedKey());
+        try
+        {
+            remove.apply(current);
+        }
+        catch (final Exception e)
+        {
+            logger.warn("Unable to remove the renewed entry of {}, it stays registered until its end of validity: {}", getOnboardingName(),
+                        e.getMessage());
+        }
+    }
 
-            deviceRegistryEntry.set(deviceRegistryEntry());
-            final SystemRegistryOnboarding systemRegistryOnboarding = registerDevice(deviceRegistryOnboarding);
+    private <E> void restore(final E current, final EntryOperation<E> register, final Exception failure)
+    {
+        try
+        {
+            register.apply(current);
+        }
+        catch (final Exception e)
+        {
+            failure.addSuppressed(e);
+        }
+    }
 
-            systemRegistryEntry.set(systemRegistryEntry(deviceRegistryEntry.get()));
-            final ServiceRegistryOnboarding serviceRegistryOnboarding = registerSystem(systemRegistryOnboarding);
+    private String leaseName(final String kind)
+    {
+        return getOnboardingName() + "-" + kind;
+    }
 
-            serviceRegistryEntry.set(serviceRegistryEntry(systemRegistryEntry.get()));
-            final ArrowheadClient client = registerService(serviceRegistryOnboarding);
+    protected LocalDateTime nextEndOfValidity()
+    {
+        return LocalDateTime.now().plus(defaultValidity, defaultValidityUnit);
+    }
 
+    private ArrowheadClient publish(final ArrowheadClient client)
+    {
+        lifecycleLock.lock();
+        try
+        {
+            // commit under the lifecycle lock: a cancel either wins before and the client is not published, or is ignored after
+            final OnboardingPipeline current = pipeline.get();
+            if (Objects.isNull(current) || !current.commit())
+            {
+                throw new CancellationException("Onboarding of " + getOnboardingName() + " was cancelled");
+            }
             arrowheadClient.set(client);
+            readiness.get().complete(client);
+            return client;
+        }
+        finally
+        {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Fails the waiters of {@link #get()} and {@link #whenReady()} unless a newer run took over.
+     */
+    private void fail(final OnboardingPipeline run, final Throwable throwable)
+    {
+        final Throwable cause = throwable instanceof CompletionException && Objects.nonNull(throwable.getCause())
+                ? throwable.getCause()
+                : throwable;
+        lifecycleLock.lock();
+        try
+        {
+            final OnboardingPipeline current = pipeline.get();
+            if (Objects.isNull(current) || current == run)
+            {
+                readiness.get().completeExceptionally(cause);
+            }
+        }
+        finally
+        {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Starts the onboarding without waiting for it, see {@link #startPipeline()}. Cancelling the returned future cancels the
+     * onboarding.
+     */
+    public CompletableFuture<ArrowheadClient> startAsync()
+    {
+        return startPipeline().serviceRegistration();
+    }
+
+    /**
+     * Runs the onboarding chain and waits for it. Interrupting the calling thread cancels the onboarding.
+     */
+    @Override
+    public void start() throws Exception
+    {
+        if (Objects.nonNull(arrowheadClient.get()))
+        {
+            return;
+        }
+
+        final OnboardingPipeline current = startPipeline();
+        try
+        {
+            current.serviceRegistration().get();
+        }
+        catch (final InterruptedException e)
+        {
+            current.cancel();
+            throw e;
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof Exception)
+            {
+                throw (Exception) e.getCause();
+            }
+            throw e;
         }
     }
 
+    /**
+     * Deadline for {@link #stop()}, by default {@value #DEFAULT_STOP_TIMEOUT_MILLIS} ms, so a shutdown fits into the grace period of
+     * the platform.
+     */
+    public void setStopTimeout(final long timeout, final TimeUnit unit)
+    {
+        this.stopTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * @return entries the last offboarding could not remove, empty if it removed everything
+     */
+    public OffboardingLeftovers getLeftovers()
+    {
+        return leftovers;
+    }
+
+    /**
+     * Offboards within the {@link #setStopTimeout(long, TimeUnit) stop timeout}, see {@link #stop(long, TimeUnit)}.
+     *
+     * @throws TransportException if entries were left over, after recording them
+     */
     @Override
     public void stop() throws Exception
     {
-        synchronized (arrowheadClient)
+        final OffboardingLeftovers result = stop(stopTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (!result.isEmpty())
+        {
+            throw new TransportException("Offboarding of " + getOnboardingName() + " incomplete, left over: " + result, result.getFailure());
+        }
+    }
+
+    /**
+     * Cancels a running {@link #start()} and interrupts a running renewal, then removes the services, the system and the device, each
+     * layer only once the layer depending on it is gone, and the entries of a layer concurrently. Once the timeout passed, the running
+     * removals are interrupted and everything not removed yet is recorded as leftover, see {@link #getLeftovers()}; if a renewal did
+     * not give up the lifecycle lock by then, nothing is removed. If a checkpoint store is set, the checkpoint is kept in that case, so
+     * the next start resumes the leftover entries instead of registering them twice. Interrupting the calling thread ends the
+     * offboarding like the timeout, with the interrupt flag kept set.
+     *
+     * @return entries which could not be removed
+     */
+    public OffboardingLeftovers stop(final long timeout, final TimeUnit unit)
+    {
+        final long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        cancelStart();
+        pendingStops.incrementAndGet();
+        try
+        {
+            // a renewal holds the lifecycle lock while talking to the registries, its entries are removed anyway
+            interruptRenewal();
+            if (!lifecycleLock.tryLock(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS))
+            {
+                return notStopped(new TimeoutException("Timed out waiting for a running renewal of " + getOnboardingName()));
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return notStopped(e);
+        }
+        finally
+        {
+            pendingStops.decrementAndGet();
+        }
+
+        try
         {
+            pipeline.set(null);
+            final LeaseRenewer renewer = leaseRenewer;
+            if (Objects.nonNull(renewer))
+            {
+                leaseNames.forEach(renewer::untrack);
+            }
+            leaseNames.clear();
             final ArrowheadClient client = arrowheadClient.getAndSet(null);
             if (Objects.isNull(client))
             {
-                return;
+                return OffboardingLeftovers.none();
+            }
+            readiness.set(new CompletableFuture<>());
+
+            leftovers = offboard(client, deadlineNanos);
+            if (leftovers.isEmpty())
+            {
+                deleteCheckpoint();
+            }
+            else
+            {
+                logger.warn("Offboarding of {} incomplete, left over: {}", getOnboardingName(), leftovers);
+            }
+            return leftovers;
+        }
+        finally
+        {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Records every entry as leftover when the lifecycle lock could not be taken before the deadline. Nothing was removed, the
+     * onboarding stays up and its leases keep being renewed.
+     */
+    private OffboardingLeftovers notStopped(final Throwable failure)
+    {
+        final OffboardingLeftovers result = new OffboardingLeftovers();
+        serviceRegistryEntries.get().forEach(result::addService);
+        result.addSystem(systemRegistryEntry.get());
+        result.addDevice(deviceRegistryEntry.get());
+        if (!result.isEmpty())
+        {
+            result.addFailure(failure);
+            logger.warn("Offboarding of {} incomplete, left over: {}", getOnboardingName(), result);
+        }
+        leftovers = result;
+        return result;
+    }
+
+    private OffboardingLeftovers offboard(final ArrowheadClient client, final long deadlineNanos)
+    {
+        final OffboardingLeftovers result = new OffboardingLeftovers();
+        final List<ServiceRegistryEntry> services = serviceRegistryEntries.getAndSet(Collections.emptyList());
+        serviceRegistryEntry.set(null);
+        final SystemRegistryEntry system = systemRegistryEntry.getAndSet(null);
+        final DeviceRegistryEntry device = deviceRegistryEntry.getAndSet(null);
+
+        final BulkResult removedServices;
+        try
+        {
+            removedServices = awaitLayer(() -> client.serviceOffboarding().removeServices(services), deadlineNanos);
+        }
+        catch (final ExecutionException | TimeoutException | InterruptedException e)
+        {
+            result.addFailure(layerFailure(e));
+            services.forEach(result::addService);
+            result.addSystem(system);
+            result.addDevice(device);
+            return result;
+        }
+        if (!removedServices.isSuccess())
+        {
+            for (BulkResult.Item item : removedServices.getFailures())
+            {
+                result.addFailure(item.getFailure());
+                result.addService(item.getRequest());
             }
+            result.addSystem(system);
+            result.addDevice(device);
+            return result;
+        }
+
+        final DeviceRegistryOnboarding deviceRegistryOnboarding;
+        try
+        {
+            deviceRegistryOnboarding = awaitLayer(() -> client.systemOffboarding().removeSystem(system), deadlineNanos);
+        }
+        catch (final ExecutionException | TimeoutException | InterruptedException e)
+        {
+            result.addFailure(layerFailure(e));
+            result.addSystem(system);
+            result.addDevice(device);
+            return result;
+        }
+
+        try
+        {
+            awaitLayer(() -> deviceRegistryOnboarding.removeDevice(device), deadlineNanos);
+        }
+        catch (final ExecutionException | TimeoutException | InterruptedException e)
+        {
+            result.addFailure(layerFailure(e));
+            result.addDevice(device);
+        }
+        return result;
+    }
 
-            final ServiceRegistryOnboarding serviceRegistryOnboarding = client.serviceOffboarding();
-            final SystemRegistryOnboarding systemRegistryOnboarding = serviceRegistryOnboarding.removeService(serviceRegistryEntry.getAndSet(null));
-            final DeviceRegistryOnboarding deviceRegistryOnboarding = systemRegistryOnboarding.removeSystem(systemRegistryEntry.getAndSet(null));
-            deviceRegistryOnboarding.removeDevice(deviceRegistryEntry.getAndSet(null));
+    /**
+     * Runs one layer of the offboarding on the executor and waits for it until the deadline. A layer still running then is
+     * interrupted, which ends its retry delays.
+     */
+    private <T> T awaitLayer(final Callable<T> layer, final long deadlineNanos) throws ExecutionException, TimeoutException, InterruptedException
+    {
+        final FutureTask<T> task = new FutureTask<>(layer);
+        try
+        {
+            onboardingClient.getExecutor().execute(task);
+        }
+        catch (final RejectedExecutionException e)
+        {
+            throw new ExecutionException(e);
+        }
+
+        try
+        {
+            return task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (final TimeoutException | InterruptedException e)
+        {
+            task.cancel(true);
+            throw e;
         }
     }
 
+    private static Throwable layerFailure(final Exception e)
+    {
+        if (e instanceof InterruptedException)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return e instanceof ExecutionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+    }
+
     protected DeviceRegistryEntry deviceRegistryEntry()
     {
         return new DeviceRegistryEntry(getMacAddress(),
-                                       LocalDateTime.now().plus(defaultValidity, defaultValidityUnit),
+                                       nextEndOfValidity(),
                                        getDeviceName());
     }
 
@@ -185,4 +1105,14 @@ public abstract class OnboardingService implements Supplier<ArrowheadClient>, Se
                                         service,
                                         getServiceUri());
     }
+
+    /**
+     * The services provided by the system, by default the single service described by {@link #getServiceName()},
+     * {@link #getServiceInterfaces()} and {@link #getServiceUri()}. Override to register several services under the same system, they
+     * are registered concurrently and removed together by {@link #stop()}.
+     */
+    protected List<ServiceRegistryEntry> serviceRegistryEntries(final SystemRegistryEntry entry)
+    {
+        return Collections.singletonList(serviceRegistryEntry(entry));
+    }
 }
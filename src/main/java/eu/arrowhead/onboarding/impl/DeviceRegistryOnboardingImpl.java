@@ -47,12 +47,45 @@ public class DeviceRegistryOnboardingImpl implements DeviceRegistryOnboarding
     @Override
     public SystemRegistryOnboarding registerDevice(final DeviceRegistryEntry request) throws TransportException
     {
-        deviceRegistryEntry = retryHandler.invokeWithErrorHandler(() -> deviceRegistry.registerSystem(request), () -> removeDevice(request));
+        // the device registry has no lookup, the entry of the earlier attempt is replaced
+        deviceRegistryEntry = Registrations.register(retryHandler, () -> deviceRegistry.registerSystem(request), () -> {
+            deviceRegistry.removeSystem(request);
+            return deviceRegistry.registerSystem(request);
+        });
         request.setId(deviceRegistryEntry.getId());
         request.getProvidedDevice().setId(deviceRegistryEntry.getProvidedDevice().getId());
         return new SystemRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
     }
 
+    @Override
+    public SystemRegistryOnboarding resumeDevice(final DeviceRegistryEntry entry)
+    {
+        deviceRegistryEntry = entry;
+        return new SystemRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
+    }
+
+    @Override
+    public boolean isRegistered(final DeviceRegistryEntry entry) throws TransportException
+    {
+        final DeviceRegistryEntry registered;
+        try
+        {
+            registered = deviceRegistry.registerSystem(entry);
+        }
+        catch (final TransportException e)
+        {
+            if (Registrations.isDuplicate(e))
+            {
+                return true;
+            }
+            throw e;
+        }
+
+        logger.info("Device registry no longer knows {}", entry.getProvidedDevice().getDeviceName());
+        deviceRegistry.removeSystem(registered);
+        return false;
+    }
+
     @Override
     public OnboardingClient removeDevice(final DeviceRegistryEntry request) throws TransportException
     {
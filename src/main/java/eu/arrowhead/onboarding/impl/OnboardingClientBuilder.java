@@ -1,7 +1,13 @@
 package eu.arrowhead.onboarding.impl;
 
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.transport.BackoffPolicy;
+import eu.arrowhead.client.transport.CircuitBreakerConfiguration;
+import eu.arrowhead.client.transport.ConnectionConfiguration;
 import eu.arrowhead.client.transport.ProtocolConfiguration;
+import eu.arrowhead.client.transport.RetryBudget;
 import eu.arrowhead.client.transport.SecureTransport;
+import eu.arrowhead.client.utils.ThreadUtils;
 import eu.arrowhead.client.utils.security.SSLContextConfigurator;
 import eu.arrowhead.onboarding.OnboardingClient;
 import org.apache.logging.log4j.LogManager;
@@ -10,18 +16,33 @@ import org.apache.logging.log4j.Logger;
 import javax.net.ssl.SSLContext;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientBuilder>
 {
+    private static final ExecutorService DEFAULT_EXECUTOR = ThreadUtils.newDaemonThreadPool("onboarding");
+
     private final Logger logger = LogManager.getLogger();
 
     private String address = "localhost";
     private int retries = 3;
     private long delayBetweenRetries = 5;
     private TimeUnit timeUnitForRetries = TimeUnit.SECONDS;
+    private BackoffPolicy backoffPolicy;
+    private long deadline;
+    private TimeUnit deadlineUnit = TimeUnit.MILLISECONDS;
+    private RetryBudget retryBudget = RetryBudget.shared();
     private SSLContext insecureSslContext;
+    private ConnectionConfiguration connectionConfiguration;
+    private final Map<CoreSystems, ConnectionConfiguration> systemConnectionConfigurations = new EnumMap<>(CoreSystems.class);
+    private CircuitBreakerConfiguration circuitBreakerConfiguration;
+    private final Map<CoreSystems, CircuitBreakerConfiguration> systemCircuitBreakerConfigurations = new EnumMap<>(CoreSystems.class);
+    private Executor executor = DEFAULT_EXECUTOR;
 
     public OnboardingClientBuilder(final ProtocolConfiguration protocol)
     {
@@ -56,6 +77,31 @@ public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientB
         return timeUnitForRetries;
     }
 
+    BackoffPolicy getBackoffPolicy()
+    {
+        return Objects.isNull(backoffPolicy) ? BackoffPolicy.fixed(delayBetweenRetries, timeUnitForRetries) : backoffPolicy;
+    }
+
+    long getDeadline()
+    {
+        return deadline;
+    }
+
+    TimeUnit getDeadlineUnit()
+    {
+        return deadlineUnit;
+    }
+
+    RetryBudget getRetryBudget()
+    {
+        return retryBudget;
+    }
+
+    Executor getExecutor()
+    {
+        return executor;
+    }
+
 
     public OnboardingClientBuilder withOnboardingAddress(final String address)
     {
@@ -70,6 +116,36 @@ public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientB
         return this;
     }
 
+    /**
+     * Replaces the fixed delay between retries, e.g. with
+     * <code>BackoffPolicy.decorrelatedJitter(1, TimeUnit.SECONDS).capped(1, TimeUnit.MINUTES)</code>.
+     */
+    public OnboardingClientBuilder withBackoff(final BackoffPolicy backoffPolicy)
+    {
+        this.backoffPolicy = backoffPolicy;
+        return this;
+    }
+
+    /**
+     * Upper bound for a single onboarding or registry call including all of its retries.
+     */
+    public OnboardingClientBuilder withDeadline(final long deadline, final TimeUnit unit)
+    {
+        this.deadline = deadline;
+        this.deadlineUnit = unit;
+        return this;
+    }
+
+    /**
+     * Budget limiting the retries of this client relative to its successful calls. Defaults to the budget shared by all clients of
+     * the JVM, which keeps even {@link #withMaximumRetries()} from flooding a failing core system.
+     */
+    public OnboardingClientBuilder withRetryBudget(final RetryBudget retryBudget)
+    {
+        this.retryBudget = Objects.requireNonNull(retryBudget);
+        return this;
+    }
+
     public OnboardingClientBuilder withRetries(final int retries)
     {
         this.retries = retries;
@@ -82,6 +158,56 @@ public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientB
         return this;
     }
 
+    public OnboardingClientBuilder withConnectionConfiguration(final ConnectionConfiguration connectionConfiguration)
+    {
+        this.connectionConfiguration = connectionConfiguration;
+        return this;
+    }
+
+    public OnboardingClientBuilder withConnectionConfiguration(final CoreSystems system, final ConnectionConfiguration connectionConfiguration)
+    {
+        this.systemConnectionConfigurations.put(system, connectionConfiguration);
+        return this;
+    }
+
+    public OnboardingClientBuilder withCircuitBreaker(final CircuitBreakerConfiguration circuitBreakerConfiguration)
+    {
+        this.circuitBreakerConfiguration = circuitBreakerConfiguration;
+        return this;
+    }
+
+    public OnboardingClientBuilder withCircuitBreaker(final CoreSystems system, final CircuitBreakerConfiguration circuitBreakerConfiguration)
+    {
+        this.systemCircuitBreakerConfigurations.put(system, circuitBreakerConfiguration);
+        return this;
+    }
+
+    /**
+     * Executor for asynchronous onboarding and blocking registry calls. Defaults to a shared pool of daemon threads.
+     */
+    public OnboardingClientBuilder withExecutor(final Executor executor)
+    {
+        this.executor = Objects.requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * Runs asynchronous onboarding and blocking registry calls on virtual threads, so waiting for a core system or a retry delay
+     * does not occupy a platform thread. Falls back to the default executor if the JVM does not support virtual threads.
+     */
+    public OnboardingClientBuilder withVirtualThreads()
+    {
+        if (ThreadUtils.isVirtualThreadSupported())
+        {
+            this.executor = ThreadUtils.newVirtualThreadExecutor();
+        }
+        else
+        {
+            logger.warn("Virtual threads are not supported by Java {}, using default executor", System.getProperty("java.version"));
+        }
+        return this;
+    }
+
     public OnboardingClientBuilder withInsecureSSLContext()
     {
         try
@@ -115,6 +241,12 @@ public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientB
 
     public OnboardingClient build()
     {
+        if (Objects.nonNull(connectionConfiguration))
+        { protocol.getTransport().setConnectionConfiguration(connectionConfiguration); }
+        systemConnectionConfigurations.forEach(protocol.getTransport()::setConnectionConfiguration);
+        if (Objects.nonNull(circuitBreakerConfiguration))
+        { protocol.getTransport().getCircuitBreakers().configure(circuitBreakerConfiguration); }
+        systemCircuitBreakerConfigurations.forEach(protocol.getTransport().getCircuitBreakers()::configure);
         if (Objects.isNull(insecureSslContext))
         { buildSslContext(); }
         return new OnboardingClientImpl(protocol, getAddress(), this);
@@ -128,6 +260,15 @@ public class OnboardingClientBuilder extends SSLContextBuilder<OnboardingClientB
         sb.append(", retries=").append(retries);
         sb.append(", delayBetweenRetries=").append(delayBetweenRetries);
         sb.append(", timeUnitForRetries=").append(timeUnitForRetries);
+        sb.append(", backoffPolicy=").append(backoffPolicy);
+        sb.append(", deadline=").append(deadline);
+        sb.append(", deadlineUnit=").append(deadlineUnit);
+        sb.append(", retryBudget=").append(retryBudget);
+        sb.append(", connectionConfiguration=").append(connectionConfiguration);
+        sb.append(", systemConnectionConfigurations=").append(systemConnectionConfigurations);
+        sb.append(", circuitBreakerConfiguration=").append(circuitBreakerConfiguration);
+        sb.append(", systemCircuitBreakerConfigurations=").append(systemCircuitBreakerConfigurations);
+        sb.append(", executor=").append(executor);
         sb.append(']');
         return sb.toString();
     }
@@ -20,6 +20,7 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.URI;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -27,7 +28,12 @@ import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static eu.arrowhead.client.services.OnboardingController.PORT_PROPERTY;
 import static eu.arrowhead.client.services.OnboardingController.SYSTEM_SUFFIX;
@@ -39,25 +45,33 @@ public class OnboardingClientImpl implements OnboardingClient
     private final SSLContextBuilder<?> sslContextBuilder;
     private final ProtocolConfiguration protocol;
     private final Transport transport;
+    private final Executor executor;
     private final RetryHandler retryHandler;
     private final SystemEndpointHolder endpointHolder;
     private final UriUtils uriUtils;
     private final OnboardingController onboardingController;
+    // one identity per client: a second onboarding adds its key to the same key store and replaces the pools of the transport
+    private final Lock sslLock = new ReentrantLock();
+    private String onboardedName;
 
     public OnboardingClientImpl(final ProtocolConfiguration protocol, final InetAddress inetAddress, final OnboardingClientBuilder builder)
     {
         this.uriUtils = new UriUtils(Objects.requireNonNull(protocol), Objects.requireNonNull(inetAddress), protocol.getInt(PORT_PROPERTY), SYSTEM_SUFFIX);
         this.sslContextBuilder = Objects.requireNonNull(builder);
         this.protocol = protocol;
-        this.transport = protocol.getTransport();
+        this.executor = builder.getExecutor();
+        this.transport = AsyncTransportAdapter.adapt(protocol.getTransport(), executor);
 
         this.retryHandler = new RetryHandler();
         this.retryHandler.setMaxRetries(builder.getRetries());
-        this.retryHandler.setDelayBetweenRetries(builder.getDelayBetweenRetries(), builder.getTimeUnitForRetries());
+        this.retryHandler.setBackoffPolicy(builder.getBackoffPolicy());
+        this.retryHandler.setDeadline(builder.getDeadline(), builder.getDeadlineUnit());
+        this.retryHandler.setRetryBudget(builder.getRetryBudget());
         transport.setRetryHandler(retryHandler);
 
         this.endpointHolder = new SystemEndpointHolder(protocol);
         this.endpointHolder.add(CoreSystems.ONBOARDING_CONTROLLER, uriUtils.copyBuild());
+        transport.setSystemEndpoints(endpointHolder);
 
         this.onboardingController = new OnboardingControllerImpl(null, uriUtils.copyBuild(), transport, sslContextBuilder);
         logger.debug("Created {}", this);
@@ -71,6 +85,12 @@ public class OnboardingClientImpl implements OnboardingClient
         return new DeviceRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
     }
 
+    @Override
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
     @Override
     public DeviceRegistryOnboarding plain(final OnboardingRequest request) throws TransportException, SSLConfigurationException
     {
@@ -92,6 +112,30 @@ public class OnboardingClientImpl implements OnboardingClient
         return processResponse(request.getName(), response);
     }
 
+    @Override
+    public Map<CoreSystems, URI> getEndpoints()
+    {
+        final Map<CoreSystems, URI> endpoints = new EnumMap<>(CoreSystems.class);
+        for (CoreSystems system : CoreSystems.values())
+        {
+            if (endpointHolder.contains(system)) { endpoints.put(system, endpointHolder.get(system)); }
+        }
+        return endpoints;
+    }
+
+    @Override
+    public DeviceRegistryOnboarding resume(final Map<CoreSystems, URI> endpoints)
+    {
+        if (!endpoints.containsKey(CoreSystems.DEVICE_REGISTRY))
+        {
+            throw new IllegalArgumentException("Cannot resume onboarding without device registry endpoint");
+        }
+        logger.info("Resuming onboarding with endpoints {}", endpoints);
+        endpoints.forEach(endpointHolder::add);
+        sslContextBuilder.getSslContext();
+        return new DeviceRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
+    }
+
     private void adaptEndpoints(final ServiceEndpoint... endpoints)
     {
         for (ServiceEndpoint endpoint : endpoints)
@@ -121,8 +165,15 @@ public class OnboardingClientImpl implements OnboardingClient
 
     private void adaptSSLContext(final String name, final OnboardingResponse response) throws SSLConfigurationException
     {
+        sslLock.lock();
         try
         {
+            if (Objects.nonNull(onboardedName) && !onboardedName.equals(name))
+            {
+                logger.warn("Onboarding {} through the client of {}, either certificate may be presented from now on", name, onboardedName);
+            }
+            onboardedName = name;
+
             logger.info("Adapting SSLContext ...");
             final PrivateKey privateKey = sslContextBuilder.parsePrivateKey(response.getPrivateKey(), response.getKeyAlgorithm());
             final Certificate[] chain = sslContextBuilder.parseCertificateChain(response.getKeyFormat(),
@@ -139,6 +190,10 @@ public class OnboardingClientImpl implements OnboardingClient
         {
             throw new SSLConfigurationException(e.getMessage(), e);
         }
+        finally
+        {
+            sslLock.unlock();
+        }
     }
 
     @Override
@@ -0,0 +1,118 @@
+package eu.arrowhead.onboarding.impl;
+
+import eu.arrowhead.client.transport.RetryClassifier;
+import eu.arrowhead.client.transport.RetryHandler;
+import eu.arrowhead.client.transport.RetryScope;
+import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.client.transport.TransportInvocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Retries a registration whose earlier attempt may have been applied by the registry although its response was lost. Such a resent
+ * request is rejected as duplicate (409, or 400 with an error message saying so), which is not transient; instead of abandoning the
+ * chain, the entry registered by the earlier attempt is recovered. The request is resent by the retries of the registration as well
+ * as by those of the transport, which all draw from the same {@link RetryScope}; its retry count tells whether it was. A duplicate
+ * rejecting a request which was sent only once is a genuine failure and is not recovered.
+ */
+final class Registrations
+{
+    private static final Logger logger = LogManager.getLogger();
+    private static final Pattern DUPLICATE = Pattern.compile("duplicate|already exists", Pattern.CASE_INSENSITIVE);
+
+    private Registrations()
+    {
+        super();
+    }
+
+    static <T> T register(final RetryHandler retryHandler, final TransportInvocation<T> registration, final TransportInvocation<T> recovery)
+            throws TransportException
+    {
+        final Resends resends = new Resends();
+        return retryHandler.invoke(() -> {
+            resends.attempt();
+            try
+            {
+                return registration.invoke();
+            }
+            catch (final TransportException | RuntimeException e)
+            {
+                if (resends.happened() && isDuplicate(e))
+                {
+                    logger.info("Resent registration rejected as duplicate, recovering the entry of the earlier attempt");
+                    return recovery.invoke();
+                }
+                throw e;
+            }
+        });
+    }
+
+    static <T> CompletableFuture<T> registerAsync(final RetryHandler retryHandler, final Supplier<CompletableFuture<T>> registration,
+                                                  final Supplier<CompletableFuture<T>> recovery)
+    {
+        final Resends resends = new Resends();
+        return retryHandler.invokeAsync(() -> {
+            resends.attempt();
+            return registration.get().handle((value, throwable) -> {
+                if (Objects.isNull(throwable))
+                {
+                    return CompletableFuture.completedFuture(value);
+                }
+                if (resends.happened() && isDuplicate(throwable))
+                {
+                    logger.info("Resent registration rejected as duplicate, recovering the entry of the earlier attempt");
+                    return recovery.get();
+                }
+                final CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(throwable instanceof CompletionException && Objects.nonNull(throwable.getCause()) ? throwable.getCause() : throwable);
+                return failed;
+            }).thenCompose(future -> future);
+        });
+    }
+
+    /**
+     * A registry rejects an entry it already knows with 409 Conflict, or with 400 Bad Request and an error message naming the
+     * duplicate; any other 400 is a genuinely invalid request.
+     */
+    static boolean isDuplicate(final Throwable throwable)
+    {
+        final RetryClassifier classifier = RetryClassifier.defaults();
+        final int statusCode = classifier.getStatusCode(throwable);
+        if (statusCode == 409)
+        {
+            return true;
+        }
+        final String responseBody = statusCode == 400 ? classifier.getResponseBody(throwable) : null;
+        return Objects.nonNull(responseBody) && DUPLICATE.matcher(responseBody).find();
+    }
+
+    /**
+     * Tracks whether the registration request was resent since its first attempt. Each attempt is started with the scope of the
+     * registration bound to the current thread, see {@link RetryHandler}.
+     */
+    private static final class Resends
+    {
+        private RetryScope scope;
+        private long retryCountBefore;
+
+        synchronized void attempt()
+        {
+            if (Objects.isNull(scope))
+            {
+                scope = RetryScope.current();
+                retryCountBefore = Objects.isNull(scope) ? 0 : scope.getRetryCount();
+            }
+        }
+
+        synchronized boolean happened()
+        {
+            return Objects.nonNull(scope) && scope.getRetryCount() > retryCountBefore;
+        }
+    }
+}
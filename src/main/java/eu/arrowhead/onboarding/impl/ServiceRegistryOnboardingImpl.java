@@ -6,16 +6,27 @@ import eu.arrowhead.client.impl.ServiceRegistryImpl;
 import eu.arrowhead.client.misc.*;
 import eu.arrowhead.client.services.ServiceRegistry;
 import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.ServiceRegistryQuery;
+import eu.arrowhead.client.services.response.ServiceQueryResult;
 import eu.arrowhead.client.transport.RetryHandler;
 import eu.arrowhead.client.transport.Transport;
 import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.utils.UriUtils;
+import eu.arrowhead.onboarding.services.BulkResult;
 import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
 import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.net.ssl.SSLContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 
 public class ServiceRegistryOnboardingImpl implements ServiceRegistryOnboarding
 {
@@ -49,10 +60,9 @@ public class ServiceRegistryOnboardingImpl implements ServiceRegistryOnboarding
     @Override
     public ArrowheadClient registerService(final ServiceRegistryEntry request) throws TransportException
     {
-        serviceRegistryEntry = retryHandler.invokeWithErrorHandler(() -> serviceRegistry.registerService(request), () -> removeService(request));
-        request.setId(serviceRegistryEntry.getId());
-        request.getProvidedService().setId(serviceRegistryEntry.getProvidedService().getId());
-        request.getProvider().setId(serviceRegistryEntry.getProvider().getId());
+        serviceRegistryEntry = Registrations.register(retryHandler, () -> serviceRegistry.registerService(request),
+                                                      () -> registered(request, serviceRegistry.query(new ServiceRegistryQuery(request.getProvidedService()))));
+        applyIds(request, serviceRegistryEntry);
         return getClient();
     }
 
@@ -60,10 +70,154 @@ public class ServiceRegistryOnboardingImpl implements ServiceRegistryOnboarding
     public SystemRegistryOnboarding removeService(final ServiceRegistryEntry request) throws TransportException
     {
         serviceRegistryEntry = serviceRegistry.removeService(request);
+        clearIds(request);
+        return systemRegistry;
+    }
+
+    @Override
+    public boolean isRegistered(final ServiceRegistryEntry entry) throws TransportException
+    {
+        final ServiceQueryResult result = retryHandler.invoke(() -> serviceRegistry.query(new ServiceRegistryQuery(entry.getProvidedService())));
+        return Objects.nonNull(find(entry, result));
+    }
+
+    private static ServiceRegistryEntry find(final ServiceRegistryEntry entry, final ServiceQueryResult result)
+    {
+        for (ServiceRegistryEntry registered : result.getServiceQueryData())
+        {
+            if (Objects.nonNull(entry.getId()) ? Objects.equals(entry.getId(), registered.getId()) : isSameProvider(entry, registered))
+            {
+                return registered;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the registered entry of a registration rejected as duplicate
+     * @throws TransportException if there is none, i.e. the duplicate is some other entry
+     */
+    private static ServiceRegistryEntry registered(final ServiceRegistryEntry request, final ServiceQueryResult result) throws TransportException
+    {
+        final ServiceRegistryEntry registered = find(request, result);
+        if (Objects.isNull(registered))
+        {
+            throw new TransportException("Registration of " + request.getProvidedService().getServiceDefinition() + " rejected as duplicate of another entry");
+        }
+        return registered;
+    }
+
+    private static boolean isSameProvider(final ServiceRegistryEntry entry, final ServiceRegistryEntry registered)
+    {
+        return Objects.nonNull(registered.getProvider())
+                && Objects.equals(entry.getProvider().getSystemName(), registered.getProvider().getSystemName())
+                && Objects.equals(entry.getProvider().getAddress(), registered.getProvider().getAddress())
+                && Objects.equals(entry.getProvider().getPort(), registered.getProvider().getPort());
+    }
+
+    @Override
+    public ArrowheadClient resumeService(final ServiceRegistryEntry entry)
+    {
+        serviceRegistryEntry = entry;
+        return getClient();
+    }
+
+    @Override
+    public BulkResult registerServices(final Collection<ServiceRegistryEntry> requests) throws TransportException
+    {
+        final BulkResult result = awaitAll(requests, request -> Registrations.registerAsync(
+                retryHandler,
+                () -> serviceRegistry.registerServiceAsync(request),
+                () -> serviceRegistry.queryAsync(new ServiceRegistryQuery(request.getProvidedService())).thenApply(found -> {
+                    try
+                    {
+                        return registered(request, found);
+                    }
+                    catch (final TransportException e)
+                    {
+                        throw new CompletionException(e);
+                    }
+                })));
+
+        for (BulkResult.Item item : result.getItems())
+        {
+            if (item.isSuccess())
+            {
+                applyIds(item.getRequest(), item.getResponse());
+                serviceRegistryEntry = item.getResponse();
+            }
+        }
+        logger.info("Registered {} of {} services", result.getSucceeded().size(), requests.size());
+        return result;
+    }
+
+    @Override
+    public BulkResult removeServices(final Collection<ServiceRegistryEntry> requests) throws TransportException
+    {
+        final BulkResult result = awaitAll(requests, serviceRegistry::removeServiceAsync);
+
+        for (BulkResult.Item item : result.getItems())
+        {
+            if (item.isSuccess())
+            {
+                clearIds(item.getRequest());
+                serviceRegistryEntry = item.getResponse();
+            }
+        }
+        logger.info("Removed {} of {} services", result.getSucceeded().size(), requests.size());
+        return result;
+    }
+
+    /**
+     * Starts all calls at once, so they are sent in parallel over the pooled connections of the transport, and waits for all of them.
+     */
+    private BulkResult awaitAll(final Collection<ServiceRegistryEntry> requests,
+                                final Function<ServiceRegistryEntry, CompletableFuture<ServiceRegistryEntry>> call) throws TransportException
+    {
+        final List<ServiceRegistryEntry> entries = new ArrayList<>(requests);
+        final List<CompletableFuture<ServiceRegistryEntry>> futures = new ArrayList<>(entries.size());
+        for (ServiceRegistryEntry entry : entries)
+        {
+            futures.add(call.apply(entry));
+        }
+
+        final BulkResult result = new BulkResult();
+        for (int i = 0; i < entries.size(); i++)
+        {
+            try
+            {
+                result.addSuccess(entries.get(i), futures.get(i).get());
+            }
+            catch (final InterruptedException e)
+            {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new TransportException("Interrupted", e);
+            }
+            catch (final ExecutionException e)
+            {
+                result.addFailure(entries.get(i), e.getCause());
+            }
+            catch (final CancellationException e)
+            {
+                result.addFailure(entries.get(i), e);
+            }
+        }
+        return result;
+    }
+
+    private static void applyIds(final ServiceRegistryEntry request, final ServiceRegistryEntry response)
+    {
+        request.setId(response.getId());
+        request.getProvidedService().setId(response.getProvidedService().getId());
+        request.getProvider().setId(response.getProvider().getId());
+    }
+
+    private static void clearIds(final ServiceRegistryEntry request)
+    {
         request.setId(null);
         request.getProvidedService().setId(null);
         request.getProvider().setId(null);
-        return systemRegistry;
     }
 
     public ServiceRegistryEntry getServiceRegistryEntry()
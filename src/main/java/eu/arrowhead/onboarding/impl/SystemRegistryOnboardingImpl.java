@@ -44,13 +44,46 @@ public class SystemRegistryOnboardingImpl implements SystemRegistryOnboarding
     @Override
     public ServiceRegistryOnboarding registerSystem(final SystemRegistryEntry request) throws TransportException
     {
-        systemRegistryEntry = retryHandler.invokeWithErrorHandler(() -> systemRegistry.registerSystem(request), () -> removeSystem(request));
+        // the system registry has no lookup, the entry of the earlier attempt is replaced
+        systemRegistryEntry = Registrations.register(retryHandler, () -> systemRegistry.registerSystem(request), () -> {
+            systemRegistry.removeSystem(request);
+            return systemRegistry.registerSystem(request);
+        });
         request.setId(systemRegistryEntry.getId());
         request.getProvidedSystem().setId(systemRegistryEntry.getProvidedSystem().getId());
         request.getProvider().setId(systemRegistryEntry.getProvider().getId());
         return new ServiceRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
     }
 
+    @Override
+    public ServiceRegistryOnboarding resumeSystem(final SystemRegistryEntry entry)
+    {
+        systemRegistryEntry = entry;
+        return new ServiceRegistryOnboardingImpl(this, endpointHolder, transport, retryHandler, sslContextBuilder);
+    }
+
+    @Override
+    public boolean isRegistered(final SystemRegistryEntry entry) throws TransportException
+    {
+        final SystemRegistryEntry registered;
+        try
+        {
+            registered = systemRegistry.registerSystem(entry);
+        }
+        catch (final TransportException e)
+        {
+            if (Registrations.isDuplicate(e))
+            {
+                return true;
+            }
+            throw e;
+        }
+
+        logger.info("System registry no longer knows {}", entry.getProvidedSystem().getSystemName());
+        systemRegistry.removeSystem(registered);
+        return false;
+    }
+
     @Override
     public DeviceRegistryOnboarding removeSystem(final SystemRegistryEntry request) throws TransportException
     {
@@ -0,0 +1,119 @@
+package eu.arrowhead.onboarding.services;
+
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-entry results of a bulk registration or removal, in the order of the requests.
+ */
+public class BulkResult
+{
+    private final List<Item> items = new ArrayList<>();
+
+    public void addSuccess(final ServiceRegistryEntry request, final ServiceRegistryEntry response)
+    {
+        items.add(new Item(request, response, null));
+    }
+
+    public void addFailure(final ServiceRegistryEntry request, final Throwable failure)
+    {
+        items.add(new Item(request, null, failure));
+    }
+
+    public List<Item> getItems()
+    {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @return <code>true</code> if the registry accepted every entry
+     */
+    public boolean isSuccess()
+    {
+        return getFailures().isEmpty();
+    }
+
+    /**
+     * @return requests the registry accepted
+     */
+    public List<ServiceRegistryEntry> getSucceeded()
+    {
+        final List<ServiceRegistryEntry> succeeded = new ArrayList<>();
+        for (Item item : items)
+        {
+            if (item.isSuccess()) { succeeded.add(item.getRequest()); }
+        }
+        return succeeded;
+    }
+
+    public List<Item> getFailures()
+    {
+        final List<Item> failures = new ArrayList<>();
+        for (Item item : items)
+        {
+            if (!item.isSuccess()) { failures.add(item); }
+        }
+        return failures;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("BulkResult [");
+        sb.append("entries=").append(items.size());
+        sb.append(", failures=").append(getFailures());
+        sb.append(']');
+        return sb.toString();
+    }
+
+    public static class Item
+    {
+        private final ServiceRegistryEntry request;
+        private final ServiceRegistryEntry response;
+        private final Throwable failure;
+
+        private Item(final ServiceRegistryEntry request, final ServiceRegistryEntry response, final Throwable failure)
+        {
+            this.request = request;
+            this.response = response;
+            this.failure = failure;
+        }
+
+        public boolean isSuccess()
+        {
+            return Objects.isNull(failure);
+        }
+
+        public ServiceRegistryEntry getRequest()
+        {
+            return request;
+        }
+
+        /**
+         * @return the entry as returned by the registry, <code>null</code> if the call failed
+         */
+        public ServiceRegistryEntry getResponse()
+        {
+            return response;
+        }
+
+        public Throwable getFailure()
+        {
+            return failure;
+        }
+
+        @Override
+        public String toString()
+        {
+            final StringBuilder sb = new StringBuilder("Item [");
+            sb.append("request=").append(request);
+            if (!isSuccess()) { sb.append(", failure=").append(failure); }
+            sb.append(']');
+            return sb.toString();
+        }
+    }
+}
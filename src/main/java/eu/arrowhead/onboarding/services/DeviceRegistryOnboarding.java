@@ -7,8 +7,23 @@ import eu.arrowhead.client.services.request.DeviceRegistryEntry;
 
 public interface DeviceRegistryOnboarding
 {
+    /**
+     * Registers the device, retrying transient failures. A failed attempt is not compensated, undoing a partly completed onboarding
+     * is up to the caller, see {@link eu.arrowhead.onboarding.OnboardingSaga}.
+     */
     SystemRegistryOnboarding registerDevice(final DeviceRegistryEntry entry) throws TransportException;
 
+    /**
+     * Continues with a device registered earlier, without contacting the registry.
+     */
+    SystemRegistryOnboarding resumeDevice(final DeviceRegistryEntry entry);
+
+    /**
+     * @return <code>true</code> if the device registry still knows the given entry, registered earlier. The registry has no lookup,
+     * so the entry is registered again: a rejection as duplicate confirms it, an accepted registration is removed again.
+     */
+    boolean isRegistered(final DeviceRegistryEntry entry) throws TransportException;
+
     OnboardingClient removeDevice(final DeviceRegistryEntry entry) throws TransportException;
 
     DeviceRegistryEntry getDeviceRegistryEntry();
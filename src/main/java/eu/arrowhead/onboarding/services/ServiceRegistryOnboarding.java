@@ -6,11 +6,42 @@ import eu.arrowhead.client.transport.TransportException;
 import eu.arrowhead.client.services.ArrowheadClientFacet;
 import eu.arrowhead.client.services.request.ServiceRegistryEntry;
 
+import java.util.Collection;
+
 public interface ServiceRegistryOnboarding extends ArrowheadClientFacet
 {
     ServiceRegistryEntry getServiceRegistryEntry();
 
+    /**
+     * Registers the service, retrying transient failures without compensating in between, see
+     * {@link DeviceRegistryOnboarding#registerDevice}.
+     */
     ArrowheadClient registerService(final ServiceRegistryEntry request) throws TransportException;
 
     SystemRegistryOnboarding removeService(final ServiceRegistryEntry request) throws TransportException;
+
+    /**
+     * @return <code>true</code> if the service registry still knows the given entry, registered earlier with the same provider
+     */
+    boolean isRegistered(final ServiceRegistryEntry entry) throws TransportException;
+
+    /**
+     * Continues with a service registered earlier, without contacting the registry.
+     */
+    ArrowheadClient resumeService(final ServiceRegistryEntry entry);
+
+    /**
+     * Registers all entries concurrently, each with its own retries. A failing entry does not stop the others, nor are the registered
+     * ones removed again.
+     *
+     * @throws TransportException if interrupted while waiting, the running registrations are cancelled
+     */
+    BulkResult registerServices(final Collection<ServiceRegistryEntry> requests) throws TransportException;
+
+    /**
+     * Removes all entries concurrently. A failing entry does not stop the others.
+     *
+     * @throws TransportException if interrupted while waiting, the running removals are cancelled
+     */
+    BulkResult removeServices(final Collection<ServiceRegistryEntry> requests) throws TransportException;
 }
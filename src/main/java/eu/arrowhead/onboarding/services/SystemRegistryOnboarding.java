@@ -6,8 +6,23 @@ import eu.arrowhead.client.services.request.SystemRegistryEntry;
 
 public interface SystemRegistryOnboarding
 {
+    /**
+     * Registers the system, retrying transient failures without compensating in between, see
+     * {@link DeviceRegistryOnboarding#registerDevice}.
+     */
     ServiceRegistryOnboarding registerSystem(final SystemRegistryEntry request) throws TransportException;
 
+    /**
+     * Continues with a system registered earlier, without contacting the registry.
+     */
+    ServiceRegistryOnboarding resumeSystem(final SystemRegistryEntry entry);
+
+    /**
+     * @return <code>true</code> if the system registry still knows the given entry, registered earlier, see
+     * {@link DeviceRegistryOnboarding#isRegistered(DeviceRegistryEntry)}
+     */
+    boolean isRegistered(final SystemRegistryEntry entry) throws TransportException;
+
     DeviceRegistryOnboarding removeSystem(final SystemRegistryEntry request) throws TransportException;
 
     SystemRegistryEntry getSystemRegistryEntry();
@@ -0,0 +1,533 @@
+package eu.arrowhead.client.transport.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.misc.SystemEndpointHolder;
+import eu.arrowhead.client.transport.AsyncTransport;
+import eu.arrowhead.client.transport.CircuitBreakerConfiguration;
+import eu.arrowhead.client.transport.CircuitBreakers;
+import eu.arrowhead.client.transport.ConnectionConfiguration;
+import eu.arrowhead.client.transport.ConnectionPoolStatistics;
+import eu.arrowhead.client.transport.HttpStatusException;
+import eu.arrowhead.client.transport.RetryHandler;
+import eu.arrowhead.client.transport.SecureTransport;
+import eu.arrowhead.client.transport.SingleFlight;
+import eu.arrowhead.client.transport.TransportException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AsyncTransport} on top of <code>java.net.http.HttpClient</code>. Each core system gets its own client, so all requests to
+ * a core system are multiplexed over a single HTTP/2 connection.
+ * <p>
+ * Unlike {@link HttpTransport}, this transport always verifies host names, the JDK client has no {@link HostnameVerifier} hook. Core
+ * systems addressed by IP or with certificates not matching their address can only be reached if the JVM is started with
+ * <code>-Djdk.internal.httpclient.disableHostnameVerification</code>.
+ */
+class JdkHttpTransport implements SecureTransport, AsyncTransport
+{
+    private static final String DEFAULT_ROUTE = "default";
+    private static final String DISABLE_HOSTNAME_VERIFICATION = "jdk.internal.httpclient.disableHostnameVerification";
+    private static final String URI_CHARACTERS = "-._~!$&'()*+,;=:@/";
+
+    private final Logger logger = LogManager.getLogger();
+    private final ObjectMapper mapper = ObjectMapperFactory.create();
+    private final ConcurrentMap<CoreSystems, ConnectionConfiguration> systemConfigurations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final SingleFlight<List<Object>, Object> reads = new SingleFlight<>();
+    private final CircuitBreakers circuitBreakers = new CircuitBreakers(CircuitBreakerConfiguration.defaults());
+    private RetryHandler retryHandler = new RetryHandler();
+    private ConnectionConfiguration connectionConfiguration = ConnectionConfiguration.pooled();
+    private SSLContext sslContext;
+    private volatile SystemEndpointHolder endpointHolder;
+
+    JdkHttpTransport()
+    {
+        super();
+    }
+
+    @Override
+    public void setRetryHandler(final RetryHandler retryHandler)
+    {
+        this.retryHandler = retryHandler;
+    }
+
+    @Override
+    public void setConnectionConfiguration(final ConnectionConfiguration connectionConfiguration)
+    {
+        if (!connectionConfiguration.isReuseConnections())
+        {
+            logger.warn("{} always reuses connections, ignoring {}", getClass().getSimpleName(), connectionConfiguration);
+        }
+        this.connectionConfiguration = Objects.requireNonNull(connectionConfiguration);
+        clients.clear();
+    }
+
+    @Override
+    public void setConnectionConfiguration(final CoreSystems system, final ConnectionConfiguration connectionConfiguration)
+    {
+        systemConfigurations.put(Objects.requireNonNull(system), Objects.requireNonNull(connectionConfiguration));
+        clients.remove(system.name());
+    }
+
+    @Override
+    public void setSystemEndpoints(final SystemEndpointHolder endpointHolder)
+    {
+        this.endpointHolder = endpointHolder;
+    }
+
+    @Override
+    public Map<CoreSystems, ConnectionPoolStatistics> getPoolStatistics()
+    {
+        final Map<CoreSystems, ConnectionPoolStatistics> statistics = new EnumMap<>(CoreSystems.class);
+        for (CoreSystems system : CoreSystems.values())
+        {
+            if (inFlight.containsKey(system.name()))
+            {
+                statistics.put(system, statistics(system.name()));
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getDefaultPoolStatistics()
+    {
+        return statistics(DEFAULT_ROUTE);
+    }
+
+    private ConnectionPoolStatistics statistics(final String route)
+    {
+        final int active = inFlight.computeIfAbsent(route, r -> new AtomicInteger()).get();
+        return new ConnectionPoolStatistics(active, 0, 0, configuration(route).getMaxTotal());
+    }
+
+    /**
+     * Uses the given context with the host name verification of the JDK client.
+     */
+    @Override
+    public void setSSLContext(final SSLContext sslContext)
+    {
+        this.sslContext = sslContext;
+        clients.clear();
+    }
+
+    /**
+     * The verifier cannot be applied, the JDK client verifies host names itself unless disabled for the whole JVM.
+     */
+    @Override
+    public void setSSLContext(final SSLContext sslContext, final HostnameVerifier verifier)
+    {
+        if (Objects.nonNull(verifier) && !isHostnameVerificationDisabled())
+        {
+            logger.warn("{} cannot use {}, host names are still verified; set -D{} to reach endpoints by IP or with foreign certificates",
+                        getClass().getSimpleName(), verifier.getClass().getSimpleName(), DISABLE_HOSTNAME_VERIFICATION);
+        }
+        setSSLContext(sslContext);
+    }
+
+    private static boolean isHostnameVerificationDisabled()
+    {
+        // like the JDK, a property without value counts as set
+        final String value = System.getProperty(DISABLE_HOSTNAME_VERIFICATION);
+        return Objects.nonNull(value) && (value.isEmpty() || Boolean.parseBoolean(value));
+    }
+
+    @Override
+    public CircuitBreakers getCircuitBreakers()
+    {
+        return circuitBreakers;
+    }
+
+    private CoreSystems system(final URI uri)
+    {
+        final SystemEndpointHolder holder = endpointHolder;
+        return Objects.nonNull(holder) ? holder.resolve(uri) : null;
+    }
+
+    private String route(final URI uri)
+    {
+        final CoreSystems system = system(uri);
+        return Objects.nonNull(system) ? system.name() : DEFAULT_ROUTE;
+    }
+
+    private ConnectionConfiguration configuration(final String route)
+    {
+        if (DEFAULT_ROUTE.equals(route))
+        {
+            return connectionConfiguration;
+        }
+        return systemConfigurations.getOrDefault(CoreSystems.valueOf(route), connectionConfiguration);
+    }
+
+    private HttpClient client(final String route)
+    {
+        return clients.computeIfAbsent(route, r -> {
+            final HttpClient.Builder builder = HttpClient.newBuilder()
+                                                         .version(HttpClient.Version.HTTP_2)
+                                                         .followRedirects(HttpClient.Redirect.NEVER)
+                                                         .connectTimeout(Duration.ofMillis(configuration(r).getConnectTimeout()));
+            if (Objects.nonNull(sslContext))
+            {
+                builder.sslContext(sslContext);
+            }
+            logger.debug("Created HttpClient for route {}", r);
+            return builder.build();
+        });
+    }
+
+    /**
+     * Replaces the <code>{name}</code> variables of the URI in order by the parameters, percent-encoding what is not allowed in a
+     * URI, like the default URI template handler of {@link HttpTransport} does.
+     */
+    static URI expand(final URI uri, final Object... pathParameters)
+    {
+        final String template = uri.toASCIIString();
+        if (Objects.isNull(pathParameters) || pathParameters.length == 0 || template.indexOf('{') < 0)
+        {
+            return uri;
+        }
+
+        final StringBuilder sb = new StringBuilder(template.length());
+        int index = 0;
+        int position = 0;
+        while (position < template.length())
+        {
+            final int start = template.indexOf('{', position);
+            final int end = start < 0 ? -1 : template.indexOf('}', start);
+            if (end < 0)
+            {
+                sb.append(template, position, template.length());
+                break;
+            }
+            if (index >= pathParameters.length)
+            {
+                throw new IllegalArgumentException("Not enough parameters to expand " + template);
+            }
+            sb.append(template, position, start);
+            encode(sb, String.valueOf(pathParameters[index++]));
+            position = end + 1;
+        }
+        return URI.create(sb.toString());
+    }
+
+    private static void encode(final StringBuilder sb, final String value)
+    {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8))
+        {
+            final char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || URI_CHARACTERS.indexOf(c) >= 0)
+            {
+                sb.append(c);
+            }
+            else
+            {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)))
+                  .append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+        }
+    }
+
+    private HttpRequest request(final String method, final URI uri, final Object body) throws TransportException
+    {
+        try
+        {
+            final HttpRequest.BodyPublisher publisher;
+            if (Objects.nonNull(body))
+            {
+                publisher = HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+            }
+            else
+            {
+                publisher = HttpRequest.BodyPublishers.noBody();
+            }
+
+            return HttpRequest.newBuilder(uri)
+                              .timeout(Duration.ofMillis(configuration(route(uri)).getReadTimeout()))
+                              .header("Accept", "application/json")
+                              .header("Content-Type", "application/json")
+                              .method(method, publisher)
+                              .build();
+        }
+        catch (IOException e)
+        {
+            throw new TransportException(e);
+        }
+    }
+
+    private <T> T decode(final HttpResponse<byte[]> response, final Class<T> cls) throws TransportException
+    {
+        final int statusCode = response.statusCode();
+        if (statusCode < 200 || statusCode >= 300)
+        {
+            throw new HttpStatusException(statusCode, response.request().method() + " " + response.uri(),
+                                          response.headers().firstValue("Retry-After").orElse(null));
+        }
+
+        if (Objects.isNull(cls) || Void.class.equals(cls) || response.body().length == 0)
+        {
+            return null;
+        }
+
+        try
+        {
+            return mapper.readValue(response.body(), cls);
+        }
+        catch (IOException e)
+        {
+            throw new TransportException(e);
+        }
+    }
+
+    private <T> T send(final String method, final URI uri, final Object body, final Class<T> cls) throws TransportException
+    {
+        final String route = route(uri);
+        final AtomicInteger counter = inFlight.computeIfAbsent(route, r -> new AtomicInteger());
+        counter.incrementAndGet();
+        try
+        {
+            return decode(client(route).send(request(method, uri, body), HttpResponse.BodyHandlers.ofByteArray()), cls);
+        }
+        catch (IOException e)
+        {
+            throw new TransportException(e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new TransportException(e);
+        }
+        finally
+        {
+            counter.decrementAndGet();
+        }
+    }
+
+    private <T> T invoke(final String method, final URI uri, final Object body, final Class<T> cls) throws TransportException
+    {
+        logger.info("Invoking method: {} {}({}, {})", Objects.isNull(cls) ? "void" : cls.getSimpleName(), method, uri.toASCIIString(), body);
+        final T returnValue;
+        if ("GET".equals(method))
+        {
+            // GET is idempotent, so concurrent requests for the same resource share one round trip
+            returnValue = cls.cast(reads.invoke(Arrays.asList(cls, uri), () -> retryHandler.invoke(() -> circuitBreakers.execute(system(uri), () -> send(method, uri, body, cls)))));
+        }
+        else
+        {
+            returnValue = retryHandler.invoke(() -> circuitBreakers.execute(system(uri), () -> send(method, uri, body, cls)));
+        }
+        logger.info("Returning from invocation with {}", returnValue);
+        return returnValue;
+    }
+
+    private <T> CompletableFuture<T> invokeAsync(final String method, final URI uri, final Object body, final Class<T> cls)
+    {
+        if ("GET".equals(method))
+        {
+            return reads.invokeAsync(Arrays.asList(cls, uri), () -> retryAsync(method, uri, body, cls).thenApply(Object.class::cast))
+                        .thenApply(cls::cast);
+        }
+        return retryAsync(method, uri, body, cls);
+    }
+
+    private <T> CompletableFuture<T> retryAsync(final String method, final URI uri, final Object body, final Class<T> cls)
+    {
+        return retryHandler.invokeAsync(() -> circuitBreakers.executeAsync(system(uri), () -> sendAsync(method, uri, body, cls)));
+    }
+
+    private <T> CompletableFuture<T> sendAsync(final String method, final URI uri, final Object body, final Class<T> cls)
+    {
+        logger.info("Invoking async method: {} {}({}, {})", cls.getSimpleName(), method, uri.toASCIIString(), body);
+        final String route = route(uri);
+        final AtomicInteger counter = inFlight.computeIfAbsent(route, r -> new AtomicInteger());
+
+        final HttpRequest request;
+        try
+        {
+            request = request(method, uri, body);
+        }
+        catch (TransportException e)
+        {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        counter.incrementAndGet();
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        client(route).sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                     .whenComplete((response, throwable) -> {
+                         counter.decrementAndGet();
+                         if (Objects.nonNull(throwable))
+                         {
+                             final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                             logger.warn("{}: {}", cause.getClass().getSimpleName(), cause.getMessage());
+                             future.completeExceptionally(new TransportException(cause));
+                             return;
+                         }
+
+                         try
+                         {
+                             final T returnValue = decode(response, cls);
+                             logger.info("Returning from async invocation with {}", returnValue);
+                             future.complete(returnValue);
+                         }
+                         catch (TransportException e)
+                         {
+                             future.completeExceptionally(e);
+                         }
+                     });
+        return future;
+    }
+
+    @Override
+    public <T> T get(final Class<T> cls, final URI uri) throws TransportException
+    {
+        return invoke("GET", uri, null, cls);
+    }
+
+    @Override
+    public <T> T get(final Class<T> cls, final URI uri, final Object... pathParameters) throws TransportException
+    {
+        return invoke("GET", expand(uri, pathParameters), null, cls);
+    }
+
+    @Override
+    public <T, B> T post(final Class<T> cls, final URI uri, final B body) throws TransportException
+    {
+        return invoke("POST", uri, body, cls);
+    }
+
+    @Override
+    public <T, B> T post(final Class<T> cls, final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        return invoke("POST", expand(uri, pathParameters), body, cls);
+    }
+
+    @Override
+    public <B> void put(final URI uri, final B body) throws TransportException
+    {
+        invoke("PUT", uri, body, Void.class);
+    }
+
+    @Override
+    public <B> void put(final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        invoke("PUT", expand(uri, pathParameters), body, Void.class);
+    }
+
+    @Override
+    public <T, B> T put(final Class<T> cls, final URI uri, final B body) throws TransportException
+    {
+        return invoke("PUT", uri, body, cls);
+    }
+
+    @Override
+    public <T, B> T put(final Class<T> cls, final URI uri, final B body, final Object... pathParameters) throws TransportException
+    {
+        return invoke("PUT", expand(uri, pathParameters), body, cls);
+    }
+
+    @Override
+    public void delete(final URI uri) throws TransportException
+    {
+        invoke("DELETE", uri, null, Void.class);
+    }
+
+    @Override
+    public void delete(final URI uri, final Object... pathParameters) throws TransportException
+    {
+        invoke("DELETE", expand(uri, pathParameters), null, Void.class);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> cls, final URI uri)
+    {
+        return invokeAsync("GET", uri, null, cls);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(final Class<T> cls, final URI uri, final Object... pathParameters)
+    {
+        return invokeAsync("GET", expand(uri, pathParameters), null, cls);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> cls, final URI uri, final B body)
+    {
+        return invokeAsync("POST", uri, body, cls);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> postAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters)
+    {
+        return invokeAsync("POST", expand(uri, pathParameters), body, cls);
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body)
+    {
+        return invokeAsync("PUT", uri, body, Void.class);
+    }
+
+    @Override
+    public <B> CompletableFuture<Void> putAsync(final URI uri, final B body, final Object... pathParameters)
+    {
+        return invokeAsync("PUT", expand(uri, pathParameters), body, Void.class);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body)
+    {
+        return invokeAsync("PUT", uri, body, cls);
+    }
+
+    @Override
+    public <T, B> CompletableFuture<T> putAsync(final Class<T> cls, final URI uri, final B body, final Object... pathParameters)
+    {
+        return invokeAsync("PUT", expand(uri, pathParameters), body, cls);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri)
+    {
+        return invokeAsync("DELETE", uri, null, Void.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(final URI uri, final Object... pathParameters)
+    {
+        return invokeAsync("DELETE", expand(uri, pathParameters), null, Void.class);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("JdkHttpTransport [");
+        sb.append("connectionConfiguration=").append(connectionConfiguration);
+        sb.append(", clients=").append(clients.keySet());
+        sb.append(']');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,152 @@
+package eu.arrowhead.client.impl;
+
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.model.ArrowheadSystem;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.transport.TransportException;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotentRequestsTest
+{
+    private static final URI REGISTRY = URI.create("http://127.0.0.1:8442/serviceregistry");
+    private static final String REGISTER = "register";
+    private static final String REMOVE = "remove";
+
+    private final IdempotentRequests idempotentRequests = new IdempotentRequests(1, TimeUnit.MINUTES, 10);
+    private final AtomicInteger sent = new AtomicInteger();
+
+    private static ServiceRegistryEntry entry()
+    {
+        return new ServiceRegistryEntry(new ArrowheadSystem("sensor", "127.0.0.1", 8080), new ArrowheadService("temperature", "JSON"), "/temperature");
+    }
+
+    private ServiceRegistryEntry register(final ServiceRegistryEntry request) throws TransportException
+    {
+        final ServiceRegistryEntry response = idempotentRequests.invoke(REGISTRY, REGISTER, REMOVE, request, () -> {
+            final ServiceRegistryEntry registered = entry();
+            registered.setId((long) sent.incrementAndGet());
+            return registered;
+        });
+        // as the onboarding registries do
+        request.setId(response.getId());
+        return response;
+    }
+
+    private ServiceRegistryEntry remove(final ServiceRegistryEntry request) throws TransportException
+    {
+        final ServiceRegistryEntry response = idempotentRequests.invoke(REGISTRY, REMOVE, REGISTER, request, () -> {
+            sent.incrementAndGet();
+            return request;
+        });
+        request.setId(null);
+        return response;
+    }
+
+    @Test
+    void repeatedRegisterIsSentOnce() throws TransportException
+    {
+        final ServiceRegistryEntry first = register(entry());
+        final ServiceRegistryEntry second = register(entry());
+
+        assertSame(first, second);
+        assertEquals(1, sent.get());
+        assertEquals(1, idempotentRequests.getShortCircuitCount());
+    }
+
+    @Test
+    void registerAfterRemoveIsSentAgain() throws TransportException
+    {
+        final ServiceRegistryEntry request = entry();
+        final ServiceRegistryEntry first = register(request);
+        remove(request);
+        final ServiceRegistryEntry second = register(request);
+
+        assertEquals(3, sent.get());
+        assertNotSame(first, second);
+        assertEquals(Long.valueOf(3), second.getId());
+    }
+
+    @Test
+    void removeAfterRegisterIsSentAgain() throws TransportException
+    {
+        final ServiceRegistryEntry request = entry();
+        register(request);
+        remove(request);
+        register(request);
+        remove(request);
+
+        assertEquals(4, sent.get());
+    }
+
+    @Test
+    void ignoresIdsAssignedByRegistry()
+    {
+        final ServiceRegistryEntry withId = entry();
+        withId.setId(42L);
+        withId.getProvider().setId("7");
+
+        assertEquals(IdempotentRequests.key(REGISTRY, REGISTER, entry()), IdempotentRequests.key(REGISTRY, REGISTER, withId));
+        assertNotEquals(IdempotentRequests.key(REGISTRY, REMOVE, entry()), IdempotentRequests.key(REGISTRY, REGISTER, entry()));
+    }
+
+    @Test
+    void failedCallIsNotRemembered()
+    {
+        assertThrows(TransportException.class, () -> idempotentRequests.invoke(REGISTRY, REGISTER, REMOVE, entry(), () -> {
+            sent.incrementAndGet();
+            throw new TransportException("unreachable");
+        }));
+        assertThrows(TransportException.class, () -> idempotentRequests.invoke(REGISTRY, REGISTER, REMOVE, entry(), () -> {
+            sent.incrementAndGet();
+            throw new TransportException("unreachable");
+        }));
+
+        assertEquals(2, sent.get());
+        assertEquals(0, idempotentRequests.size());
+    }
+
+    @Test
+    void asyncRegisterAfterRemoveIsSentAgain()
+    {
+        final ServiceRegistryEntry request = entry();
+        idempotentRequests.invokeAsync(REGISTRY, REGISTER, REMOVE, request, () -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(request);
+        }).join();
+        request.setId(1L);
+        idempotentRequests.invokeAsync(REGISTRY, REMOVE, REGISTER, request, () -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(request);
+        }).join();
+        request.setId(null);
+        idempotentRequests.invokeAsync(REGISTRY, REGISTER, REMOVE, request, () -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(request);
+        }).join();
+
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    void disabledTableSendsEveryCall() throws TransportException
+    {
+        final IdempotentRequests disabled = IdempotentRequests.disabled();
+        for (int i = 0; i < 3; i++)
+        {
+            disabled.invoke(REGISTRY, REGISTER, REMOVE, entry(), sent::incrementAndGet);
+        }
+
+        assertEquals(3, sent.get());
+    }
+}
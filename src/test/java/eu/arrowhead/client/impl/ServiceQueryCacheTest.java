@@ -0,0 +1,196 @@
+package eu.arrowhead.client.impl;
+
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.ServiceRegistryQuery;
+import eu.arrowhead.client.services.response.ServiceQueryResult;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ServiceQueryCacheTest
+{
+    private static final URI REGISTRY = URI.create("http://127.0.0.1:8442/serviceregistry");
+
+    private static ServiceRegistryQuery query(final String serviceDefinition, final String... interfaces)
+    {
+        return new ServiceRegistryQuery(new ArrowheadService(serviceDefinition, interfaces), false, false, null);
+    }
+
+    private static ServiceQueryResult result(final String serviceURI)
+    {
+        final List<ServiceRegistryEntry> entries = new ArrayList<>();
+        entries.add(new ServiceRegistryEntry(null, new ArrowheadService("temperature"), serviceURI));
+        return new ServiceQueryResult(entries);
+    }
+
+    private static String serviceURI(final ServiceQueryResult result)
+    {
+        return result.getServiceQueryData().get(0).getServiceURI();
+    }
+
+    @Test
+    void returnsStoredResultUntilExpired() throws InterruptedException
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(100, TimeUnit.MILLISECONDS, 10);
+        final ServiceQueryResult result = result("stored");
+        cache.put(REGISTRY, query("temperature", "JSON"), result, cache.getGeneration());
+
+        assertEquals("stored", serviceURI(cache.get(REGISTRY, query("temperature", "JSON"))));
+        Thread.sleep(150);
+        assertNull(cache.get(REGISTRY, query("temperature", "JSON")));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void normalizesServiceDefinitionAndInterfaceOrder()
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(1, TimeUnit.MINUTES, 10);
+        final ServiceQueryResult result = result("stored");
+        cache.put(REGISTRY, query("temperature", "JSON", "XML"), result, cache.getGeneration());
+
+        assertEquals("stored", serviceURI(cache.get(REGISTRY, query(" temperature ", "XML", "JSON"))));
+        assertNull(cache.get(REGISTRY, query("temperature", "JSON")));
+        assertNull(cache.get(URI.create("http://127.0.0.2:8442/serviceregistry"), query("temperature", "JSON", "XML")));
+    }
+
+    @Test
+    void callersCannotModifyCachedResult()
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(1, TimeUnit.MINUTES, 10);
+        final ServiceQueryResult result = result("stored");
+        cache.put(REGISTRY, query("temperature"), result, cache.getGeneration());
+        result.getServiceQueryData().clear();
+
+        final ServiceQueryResult first = cache.get(REGISTRY, query("temperature"));
+        first.getServiceQueryData().get(0).setServiceURI("modified");
+        first.getServiceQueryData().add(new ServiceRegistryEntry());
+
+        final ServiceQueryResult second = cache.get(REGISTRY, query("temperature"));
+        assertEquals(1, second.getServiceQueryData().size());
+        assertEquals("stored", serviceURI(second));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry()
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(1, TimeUnit.MINUTES, 2);
+        cache.put(REGISTRY, query("a"), new ServiceQueryResult(), cache.getGeneration());
+        cache.put(REGISTRY, query("b"), new ServiceQueryResult(), cache.getGeneration());
+        cache.get(REGISTRY, query("a"));
+        cache.put(REGISTRY, query("c"), new ServiceQueryResult(), cache.getGeneration());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get(REGISTRY, query("a")));
+        assertNull(cache.get(REGISTRY, query("b")));
+    }
+
+    @Test
+    void neverCachesPingQueries()
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(1, TimeUnit.MINUTES, 10);
+        final ServiceRegistryQuery ping = new ServiceRegistryQuery(new ArrowheadService("temperature"), true, false, null);
+        cache.put(REGISTRY, ping, new ServiceQueryResult(), cache.getGeneration());
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(REGISTRY, ping));
+    }
+
+    @Test
+    void invalidateDropsEntriesOfDefinitionAndResultsInFlight()
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(1, TimeUnit.MINUTES, 10);
+        cache.put(REGISTRY, query("a"), new ServiceQueryResult(), cache.getGeneration());
+        cache.put(REGISTRY, query("b"), new ServiceQueryResult(), cache.getGeneration());
+        final long inFlight = cache.getGeneration();
+
+        cache.invalidate(REGISTRY, "a");
+        cache.put(REGISTRY, query("c"), new ServiceQueryResult(), inFlight);
+
+        assertNull(cache.get(REGISTRY, query("a")));
+        assertNotNull(cache.get(REGISTRY, query("b")));
+        assertNull(cache.get(REGISTRY, query("c")));
+    }
+
+    @Test
+    void keyIsSnapshotOfQuery()
+    {
+        final ServiceRegistryQuery query = query("temperature", "JSON");
+        final ServiceQueryCache.Key key = new ServiceQueryCache.Key(REGISTRY, query);
+        final int hashCode = key.hashCode();
+        query.getService().setServiceDefinition("humidity");
+        query.getService().getInterfaces().add("XML");
+
+        assertEquals(hashCode, key.hashCode());
+        assertEquals(new ServiceQueryCache.Key(REGISTRY, query("temperature", "JSON")), key);
+        assertNotEquals(new ServiceQueryCache.Key(REGISTRY, query), key);
+    }
+
+    @Test
+    void disabledCacheStoresNothing()
+    {
+        final ServiceQueryCache cache = ServiceQueryCache.disabled();
+        cache.put(REGISTRY, query("a"), new ServiceQueryResult(), cache.getGeneration());
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(REGISTRY, query("a")));
+    }
+
+    @Test
+    void returnsStaleResultWhileRevalidating() throws InterruptedException
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(50, TimeUnit.MILLISECONDS, 10)
+                .withStaleWhileRevalidate(1, TimeUnit.MINUTES);
+        final ServiceQueryResult stale = result("stale");
+        final ServiceQueryResult fresh = result("fresh");
+        final AtomicInteger refreshes = new AtomicInteger();
+        cache.put(REGISTRY, query("a"), stale, cache.getGeneration(), () -> {
+            refreshes.incrementAndGet();
+            return CompletableFuture.completedFuture(fresh);
+        });
+        Thread.sleep(100);
+
+        assertEquals("stale", serviceURI(cache.get(REGISTRY, query("a"))));
+        for (int i = 0; i < 100 && cache.getRefreshCount() == 0; i++)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals("fresh", serviceURI(cache.get(REGISTRY, query("a"))));
+        assertEquals(1, refreshes.get());
+        assertEquals(1, cache.getStaleHitCount());
+    }
+
+    @Test
+    void keepsStaleResultIfRefreshFails() throws InterruptedException
+    {
+        final ServiceQueryCache cache = new ServiceQueryCache(50, TimeUnit.MILLISECONDS, 10)
+                .withStaleWhileRevalidate(1, TimeUnit.MINUTES);
+        final ServiceQueryResult stale = result("stale");
+        final CompletableFuture<ServiceQueryResult> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("unreachable"));
+        cache.put(REGISTRY, query("a"), stale, cache.getGeneration(), () -> failed);
+        Thread.sleep(100);
+
+        assertEquals("stale", serviceURI(cache.get(REGISTRY, query("a"))));
+        for (int i = 0; i < 100 && cache.getRefreshFailureCount() == 0; i++)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.getRefreshFailureCount());
+        assertEquals("stale", serviceURI(cache.get(REGISTRY, query("a"))));
+    }
+}
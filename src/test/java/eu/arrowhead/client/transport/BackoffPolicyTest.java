@@ -0,0 +1,79 @@
+package eu.arrowhead.client.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackoffPolicyTest
+{
+    private static final long CAP = 30000;
+
+    @Test
+    void cappedExponentialStaysWithinCapAtHighRetryCounts()
+    {
+        final BackoffPolicy policy = BackoffPolicy.exponential(200, TimeUnit.MILLISECONDS, 2.0).capped(30, TimeUnit.SECONDS);
+        long previousDelay = 0;
+        for (int retry = 1; retry <= 2000; retry++)
+        {
+            final long delay = policy.nextDelay(retry, previousDelay);
+            assertTrue(delay >= 0 && delay <= CAP, "retry " + retry + ": " + delay);
+            previousDelay = delay;
+        }
+        final long delay = policy.nextDelay(Integer.MAX_VALUE, previousDelay);
+        assertTrue(delay >= 0 && delay <= CAP);
+    }
+
+    @Test
+    void uncappedExponentialDoesNotOverflow()
+    {
+        final BackoffPolicy policy = BackoffPolicy.exponential(200, TimeUnit.MILLISECONDS, 2.0);
+        assertTrue(policy.nextDelay(57, 0) >= 0);
+        assertTrue(policy.nextDelay(Integer.MAX_VALUE, 0) >= 0);
+    }
+
+    @Test
+    void cappedDecorrelatedJitterStaysWithinCap()
+    {
+        final BackoffPolicy policy = BackoffPolicy.decorrelatedJitter(1, TimeUnit.SECONDS).capped(30, TimeUnit.SECONDS);
+        long previousDelay = 0;
+        for (int retry = 1; retry <= 2000; retry++)
+        {
+            final long delay = policy.nextDelay(retry, previousDelay);
+            assertTrue(delay >= 1000 && delay <= CAP, "retry " + retry + ": " + delay);
+            previousDelay = delay;
+        }
+        final long delay = policy.nextDelay(1, Long.MAX_VALUE);
+        assertTrue(delay >= 1000 && delay <= CAP);
+    }
+
+    @Test
+    void uncappedDecorrelatedJitterDoesNotOverflow()
+    {
+        final BackoffPolicy policy = BackoffPolicy.decorrelatedJitter(1, TimeUnit.SECONDS);
+        assertTrue(policy.nextDelay(1, Long.MAX_VALUE) >= 1000);
+        assertTrue(policy.nextDelay(1, Long.MAX_VALUE / 3 + 1) >= 1000);
+    }
+
+    @Test
+    void capBelowBaseDelayWins()
+    {
+        assertEquals(500, BackoffPolicy.decorrelatedJitter(1, TimeUnit.SECONDS).capped(500, TimeUnit.MILLISECONDS).nextDelay(1, 0));
+        assertEquals(500, BackoffPolicy.fixed(1, TimeUnit.SECONDS).capped(500, TimeUnit.MILLISECONDS).nextDelay(1, 0));
+    }
+
+    @Test
+    void smallestOfSeveralCapsApplies()
+    {
+        final BackoffPolicy policy = BackoffPolicy.exponential(1, TimeUnit.SECONDS, 2.0)
+                                                  .capped(1, TimeUnit.MINUTES)
+                                                  .capped(2, TimeUnit.SECONDS)
+                                                  .capped(1, TimeUnit.HOURS);
+        for (int retry = 1; retry <= 100; retry++)
+        {
+            assertTrue(policy.nextDelay(retry, 0) <= 2000);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package eu.arrowhead.client.transport;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest
+{
+    private static final long WAIT_MILLIS = 50;
+
+    private static CircuitBreaker circuitBreaker()
+    {
+        return new CircuitBreaker(CoreSystems.SERVICE_REGISTRY, CircuitBreakerConfiguration.defaults()
+                .withSlidingWindowSize(4)
+                .withMinimumNumberOfCalls(4)
+                .withFailureRateThreshold(50)
+                .withWaitInOpenState(WAIT_MILLIS, TimeUnit.MILLISECONDS)
+                .withPermittedCallsInHalfOpenState(2));
+    }
+
+    private static void succeed(final CircuitBreaker circuitBreaker) throws TransportException
+    {
+        circuitBreaker.execute(() -> "ok");
+    }
+
+    private static void fail(final CircuitBreaker circuitBreaker)
+    {
+        assertThrows(TransportException.class, () -> circuitBreaker.execute(() -> {
+            throw new TransportException(new IOException("connection refused"));
+        }));
+    }
+
+    private static void open(final CircuitBreaker circuitBreaker)
+    {
+        for (int i = 0; i < 4; i++)
+        {
+            fail(circuitBreaker);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void opensOnceFailureRateIsReached() throws TransportException
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        succeed(circuitBreaker);
+        succeed(circuitBreaker);
+        fail(circuitBreaker);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        fail(circuitBreaker);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> succeed(circuitBreaker));
+        assertEquals(1, circuitBreaker.getNotPermittedCalls());
+    }
+
+    @Test
+    void ignoresNonTransientFailures()
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++)
+        {
+            assertThrows(TransportException.class, () -> circuitBreaker.execute(() -> {
+                throw new HttpStatusException(400, "Bad Request", null);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailureRate(), 0.001);
+    }
+
+    @Test
+    void closesOnceProbesSucceed() throws TransportException, InterruptedException
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        final List<CircuitBreaker.State> transitions = new ArrayList<>();
+        circuitBreaker.addListener((system, from, to) -> transitions.add(to));
+        open(circuitBreaker);
+        Thread.sleep(WAIT_MILLIS * 2);
+
+        succeed(circuitBreaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        succeed(circuitBreaker);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(3, transitions.size());
+        assertEquals(CircuitBreaker.State.CLOSED, transitions.get(2));
+    }
+
+    @Test
+    void reopensOnceProbesFail() throws TransportException, InterruptedException
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        open(circuitBreaker);
+        Thread.sleep(WAIT_MILLIS * 2);
+
+        succeed(circuitBreaker);
+        fail(circuitBreaker);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void permitsOnlyConfiguredProbes() throws InterruptedException
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        open(circuitBreaker);
+        Thread.sleep(WAIT_MILLIS * 2);
+
+        circuitBreaker.executeAsync(CompletableFuture::new);
+        circuitBreaker.executeAsync(CompletableFuture::new);
+        final CompletableFuture<Object> rejected = circuitBreaker.executeAsync(CompletableFuture::new);
+
+        assertThrows(Exception.class, rejected::join);
+        assertEquals(1, circuitBreaker.getNotPermittedCalls());
+    }
+
+    @Test
+    void ignoresLateResultOfCallPermittedBeforeTransition() throws TransportException, InterruptedException
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        final CompletableFuture<String> slowCall = new CompletableFuture<>();
+        circuitBreaker.executeAsync(() -> slowCall);
+        open(circuitBreaker);
+        Thread.sleep(WAIT_MILLIS * 2);
+
+        succeed(circuitBreaker);
+        slowCall.completeExceptionally(new TransportException(new IOException("read timed out")));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getBufferedCalls());
+        succeed(circuitBreaker);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void ignoresResultArrivingWhileOpen()
+    {
+        final CircuitBreaker circuitBreaker = circuitBreaker();
+        final CompletableFuture<String> slowCall = new CompletableFuture<>();
+        circuitBreaker.executeAsync(() -> slowCall);
+        open(circuitBreaker);
+
+        slowCall.complete("ok");
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(4, circuitBreaker.getBufferedCalls());
+    }
+
+    @Test
+    void disabledBreakerNeverOpens()
+    {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(CoreSystems.SERVICE_REGISTRY, CircuitBreakerConfiguration.disabled());
+        for (int i = 0; i < 10; i++)
+        {
+            fail(circuitBreaker);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
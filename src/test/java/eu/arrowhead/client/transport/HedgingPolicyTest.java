@@ -0,0 +1,125 @@
+package eu.arrowhead.client.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingPolicyTest
+{
+    private static HedgingPolicy hedgingPolicy()
+    {
+        return HedgingPolicy.defaults()
+                            .withInitialDelay(20, TimeUnit.MILLISECONDS)
+                            .withMinDelay(1, TimeUnit.MILLISECONDS)
+                            .withMaxHedgePercent(100);
+    }
+
+    private static void awaitAttempts(final List<?> attempts, final int count) throws InterruptedException
+    {
+        for (int i = 0; i < 500 && attempts.size() < count; i++)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(count, attempts.size());
+    }
+
+    @Test
+    void fastAnswerIsNotHedged() throws InterruptedException
+    {
+        final HedgingPolicy policy = hedgingPolicy();
+        final List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = policy.invokeAsync(attempt -> {
+            attempts.add(attempt);
+            return CompletableFuture.completedFuture("primary");
+        });
+        Thread.sleep(100);
+
+        assertEquals("primary", result.join());
+        assertEquals(1, attempts.size());
+        assertEquals(0, policy.getHedgeCount());
+    }
+
+    @Test
+    void slowAnswerIsHedgedAndLoserCancelled() throws InterruptedException
+    {
+        final HedgingPolicy policy = hedgingPolicy();
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = policy.invokeAsync(attempt -> {
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            attempts.add(future);
+            return future;
+        });
+        awaitAttempts(attempts, 2);
+        attempts.get(1).complete("hedge");
+
+        assertEquals("hedge", result.join());
+        assertTrue(attempts.get(0).isCancelled());
+        assertEquals(1, policy.getHedgeCount());
+        assertEquals(1, policy.getHedgeWinCount());
+    }
+
+    @Test
+    void failsWithLastFailureIfAllAttemptsFail() throws InterruptedException
+    {
+        final HedgingPolicy policy = hedgingPolicy();
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        final TransportException last = new TransportException("second");
+
+        final CompletableFuture<String> result = policy.invokeAsync(attempt -> {
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            attempts.add(future);
+            return future;
+        });
+        awaitAttempts(attempts, 2);
+        attempts.get(0).completeExceptionally(new TransportException("first"));
+        assertFalse(result.isDone());
+        attempts.get(1).completeExceptionally(last);
+
+        assertSame(last, assertThrows(CompletionException.class, result::join).getCause());
+    }
+
+    @Test
+    void hedgesAreLimitedByBudget() throws InterruptedException
+    {
+        final HedgingPolicy policy = hedgingPolicy().withMaxHedgePercent(10);
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = policy.invokeAsync(attempt -> {
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            attempts.add(future);
+            return future;
+        });
+        Thread.sleep(100);
+        attempts.get(0).complete("primary");
+
+        assertEquals("primary", result.join());
+        assertEquals(1, attempts.size());
+        assertEquals(0, policy.getHedgeCount());
+    }
+
+    @Test
+    void hedgeDelayFollowsPercentileOfRecentLatencies()
+    {
+        final HedgingPolicy policy = hedgingPolicy().withPercentile(50).withSampleSize(10);
+        assertEquals(20, policy.getHedgeDelay());
+
+        for (int i = 0; i < 10; i++)
+        {
+            policy.invokeAsync(attempt -> CompletableFuture.completedFuture("primary")).join();
+        }
+        assertTrue(policy.getHedgeDelay() < 20);
+        assertEquals(10, policy.getRequestCount());
+    }
+}
@@ -0,0 +1,204 @@
+package eu.arrowhead.client.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryHandlerTest
+{
+    private static RetryHandler retryHandler(final int maxRetries)
+    {
+        final RetryHandler retryHandler = new RetryHandler();
+        retryHandler.setMaxRetries(maxRetries);
+        retryHandler.setBackoffPolicy(BackoffPolicy.fixed(1, TimeUnit.MILLISECONDS));
+        retryHandler.setRetryBudget(RetryBudget.unlimited());
+        return retryHandler;
+    }
+
+    private static <T> CompletableFuture<T> failed(final Throwable throwable)
+    {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    @Test
+    void retriesTransientFailureUntilSuccess() throws TransportException
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        final String result = retryHandler(5).invokeWithErrorHandler(() -> {
+            if (attempts.incrementAndGet() < 3)
+            {
+                throw new TransportException(new IOException("connection reset"));
+            }
+            return "ok";
+        }, errors::incrementAndGet);
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, errors.get());
+    }
+
+    @Test
+    void stopsAfterMaxRetries()
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TransportException.class, () -> retryHandler(2).invoke(() -> {
+            attempts.incrementAndGet();
+            throw new TransportException(new IOException("connection reset"));
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void neitherRetriesNorHandlesNonTransientFailure()
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final HttpStatusException failure = new HttpStatusException(400, "Bad Request", null);
+
+        final TransportException thrown = assertThrows(TransportException.class, () -> retryHandler(5).invokeWithErrorHandler(() -> {
+            attempts.incrementAndGet();
+            throw failure;
+        }, errors::incrementAndGet));
+
+        assertSame(failure, thrown);
+        assertEquals(1, attempts.get());
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    void nestedInvocationsShareRetriesOfOutermost()
+    {
+        final RetryHandler outer = retryHandler(3);
+        final RetryHandler inner = retryHandler(3);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TransportException.class, () -> outer.invoke(() -> inner.invoke(() -> {
+            attempts.incrementAndGet();
+            throw new TransportException(new IOException("connection reset"));
+        })));
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    void stopsRetryingOnceBudgetIsExhausted() throws TransportException
+    {
+        final RetryHandler retryHandler = retryHandler(10);
+        final RetryBudget budget = new RetryBudget(100, 0, 2);
+        retryHandler.setRetryBudget(budget);
+        retryHandler.invoke(() -> "ok");
+        retryHandler.invoke(() -> "ok");
+        final AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TransportException.class, () -> retryHandler.invoke(() -> {
+            attempts.incrementAndGet();
+            throw new TransportException(new IOException("connection reset"));
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(2, budget.getRetries());
+        assertEquals(1, budget.getRejectedRetries());
+    }
+
+    @Test
+    void depositsSuccessfulCallsIntoBudget() throws TransportException
+    {
+        final RetryHandler retryHandler = retryHandler(0);
+        final RetryBudget budget = new RetryBudget(50, 0, 10);
+        retryHandler.setRetryBudget(budget);
+
+        retryHandler.invoke(() -> "ok");
+        retryHandler.invoke(() -> "ok");
+
+        assertEquals(1, budget.getBalance(), 0.001);
+    }
+
+    @Test
+    void retriesAsyncTransientFailureUntilSuccess() throws InterruptedException, ExecutionException
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        final CompletableFuture<String> result = retryHandler(5).invokeWithErrorHandlerAsync(
+                () -> attempts.incrementAndGet() < 3
+                        ? failed(new TransportException(new IOException("connection reset")))
+                        : CompletableFuture.completedFuture("ok"),
+                () -> {
+                    errors.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        assertEquals("ok", result.get());
+        assertEquals(3, attempts.get());
+        assertEquals(2, errors.get());
+    }
+
+    @Test
+    void neitherRetriesNorHandlesAsyncNonTransientFailure() throws InterruptedException
+    {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final HttpStatusException failure = new HttpStatusException(404, "Not Found", null);
+
+        final CompletableFuture<String> result = retryHandler(5).invokeWithErrorHandlerAsync(
+                () -> {
+                    attempts.incrementAndGet();
+                    return failed(failure);
+                },
+                () -> {
+                    errors.incrementAndGet();
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        final ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+        assertSame(failure, thrown.getCause());
+        assertEquals(1, attempts.get());
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    void asyncInvocationJoinsScopeOfCallingInvocation() throws TransportException
+    {
+        final RetryHandler outer = retryHandler(2);
+        final RetryHandler inner = retryHandler(5);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final CompletableFuture<String> result = outer.invoke(() -> inner.invokeAsync(() -> {
+            attempts.incrementAndGet();
+            return failed(new TransportException(new IOException("connection reset")));
+        }));
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void asyncRetriesStopOnceBudgetIsExhausted()
+    {
+        final RetryHandler retryHandler = retryHandler(10);
+        final RetryBudget budget = new RetryBudget(100, 0, 1);
+        retryHandler.setRetryBudget(budget);
+        retryHandler.invokeAsync(() -> CompletableFuture.completedFuture("ok")).join();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final CompletableFuture<String> result = retryHandler.invokeAsync(() -> {
+            attempts.incrementAndGet();
+            return failed(new TransportException(new IOException("connection reset")));
+        });
+
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(2, attempts.get());
+        assertEquals(1, budget.getRejectedRetries());
+    }
+}
@@ -0,0 +1,125 @@
+package eu.arrowhead.client.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest
+{
+    @Test
+    void coalescesConcurrentAsyncInvocations()
+    {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> wire = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final CompletableFuture<String> first = singleFlight.invokeAsync("a", () -> {
+            calls.incrementAndGet();
+            return wire;
+        });
+        final CompletableFuture<String> second = singleFlight.invokeAsync("a", () -> {
+            calls.incrementAndGet();
+            return wire;
+        });
+        assertEquals(1, singleFlight.getInFlightCount());
+
+        wire.complete("result");
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void coalescesConcurrentSyncInvocations() throws Exception
+    {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CompletableFuture<Void> release = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            final Future<String> first = executor.submit(() -> singleFlight.invoke("a", () -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                release.join();
+                return "result";
+            }));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            final Future<String> second = executor.submit(() -> singleFlight.invoke("a", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            Thread.sleep(50);
+            release.complete(null);
+
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            assertEquals("result", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void copierGivesEveryCallerItsOwnResult()
+    {
+        final SingleFlight<String, List<String>> singleFlight = new SingleFlight<>(ArrayList::new);
+        final CompletableFuture<List<String>> wire = new CompletableFuture<>();
+
+        final CompletableFuture<List<String>> first = singleFlight.invokeAsync("a", () -> wire);
+        final CompletableFuture<List<String>> second = singleFlight.invokeAsync("a", () -> wire);
+        final List<String> result = new ArrayList<>(Collections.singletonList("entry"));
+        wire.complete(result);
+
+        first.join().clear();
+        assertEquals(Collections.singletonList("entry"), second.join());
+        assertNotSame(result, second.join());
+    }
+
+    @Test
+    void failureIsNotRemembered()
+    {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final TransportException failure = new TransportException("unreachable");
+
+        assertSame(failure, assertThrows(TransportException.class, () -> singleFlight.invoke("a", () -> { throw failure; })));
+        assertEquals(0, singleFlight.getInFlightCount());
+        assertEquals("result", assertDoesNotThrow(() -> singleFlight.invoke("a", () -> "result")));
+    }
+
+    @Test
+    void cancellingOneWaiterDoesNotCancelTheInvocation()
+    {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> wire = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = singleFlight.invokeAsync("a", () -> wire);
+        final CompletableFuture<String> second = singleFlight.invokeAsync("a", () -> wire);
+        first.cancel(false);
+        wire.complete("result");
+
+        assertFalse(wire.isCancelled());
+        assertEquals("result", second.join());
+    }
+}
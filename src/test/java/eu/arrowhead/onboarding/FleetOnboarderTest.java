@@ -0,0 +1,321 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.services.model.ArrowheadDevice;
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.model.ArrowheadSystem;
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.client.services.request.OnboardingRequest;
+import eu.arrowhead.client.services.request.OnboardingWithCertificateRequest;
+import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.onboarding.services.BulkResult;
+import eu.arrowhead.onboarding.services.DeviceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetOnboarderTest
+{
+    private ExecutorService executor;
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clients = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @BeforeEach
+    void createExecutor()
+    {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    private static FleetOnboarder.Device device(final String name)
+    {
+        final ArrowheadDevice device = new ArrowheadDevice(name);
+        final ArrowheadSystem system = new ArrowheadSystem(name + "-system", "127.0.0.1", 8080);
+        final LocalDateTime endOfValidity = LocalDateTime.now().plusHours(1);
+        return new FleetOnboarder.Device(name,
+                                         "secret",
+                                         new DeviceRegistryEntry("00:11:22:33:44:55", endOfValidity, device),
+                                         new SystemRegistryEntry(device, system, "/" + name, endOfValidity),
+                                         new ServiceRegistryEntry(system, new ArrowheadService("temperature", "HTTP-INSECURE-JSON"), "/" + name));
+    }
+
+    private void awaitCalls(final String call) throws InterruptedException
+    {
+        for (int i = 0; i < 500 && !calls.contains(call); i++)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(calls.contains(call), call + " in " + calls);
+    }
+
+    @Test
+    void onboardsEveryDeviceThroughItsOwnClient() throws InterruptedException
+    {
+        final FleetOnboarder onboarder = new FleetOnboarder(executor, () -> new FakeClient(null)).withParallelism(3);
+        final List<Long> progress = new CopyOnWriteArrayList<>();
+        onboarder.withProgressListener((outcome, succeeded, failed) -> progress.add(succeeded + failed));
+
+        final FleetOnboarder.Report report = onboarder.onboard(IntStream.range(0, 20).mapToObj(i -> device("sensor-" + i)));
+
+        assertEquals(20, report.getSucceededCount());
+        assertEquals(0, report.getFailedCount());
+        assertEquals(20, clients.get());
+        assertEquals(20, progress.size());
+        assertTrue(maxConcurrent.get() <= 3, "at most 3 chains in flight, was " + maxConcurrent.get());
+    }
+
+    @Test
+    void failedDeviceIsCompensatedAndOthersContinue() throws InterruptedException
+    {
+        final FleetOnboarder onboarder = new FleetOnboarder(executor, () -> new FakeClient("sensor-1")).withParallelism(2);
+        final FleetOnboarder.Device failing = device("sensor-1");
+
+        final FleetOnboarder.Report report = onboarder.onboard(IntStream.range(0, 3).mapToObj(i -> i == 1 ? failing : device("sensor-" + i)));
+
+        assertEquals(2, report.getSucceededCount());
+        assertEquals(1, report.getFailures().size());
+        assertEquals("sensor-1", report.getFailures().get(0).getDevice().getName());
+        assertFalse(report.getFailures().get(0).isSuccess());
+        awaitCalls("removeSystem sensor-1");
+        awaitCalls("removeDevice sensor-1");
+        assertTrue(calls.indexOf("removeSystem sensor-1") < calls.indexOf("removeDevice sensor-1"));
+        assertFalse(calls.contains("removeDevice sensor-0"));
+    }
+
+    @Test
+    void entriesOfCallerAreNotModified() throws InterruptedException
+    {
+        final FleetOnboarder onboarder = new FleetOnboarder(executor, () -> new FakeClient("sensor-0"));
+        final FleetOnboarder.Device device = device("sensor-0");
+        device.getDeviceEntry().setId(5L);
+
+        onboarder.onboard(Collections.singletonList(device).stream());
+        awaitCalls("removeDevice sensor-0");
+
+        assertEquals(5L, device.getDeviceEntry().getId().longValue());
+        assertNull(device.getDeviceEntry().getProvidedDevice().getId());
+        assertNull(device.getSystemEntry().getId());
+        assertNull(device.getSystemEntry().getProvider().getId());
+    }
+
+    /**
+     * Records the calls of one device; registrations assign ids to the entries and removals clear them, like the registries do.
+     */
+    private class FakeClient implements OnboardingClient, DeviceRegistryOnboarding, SystemRegistryOnboarding, ServiceRegistryOnboarding
+    {
+        private final String failingName;
+        private String name;
+
+        private FakeClient(final String failingName)
+        {
+            this.failingName = failingName;
+            clients.incrementAndGet();
+        }
+
+        @Override
+        public Executor getExecutor()
+        {
+            return executor;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding plain(final OnboardingRequest request)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DeviceRegistryOnboarding withSharedKey(final OnboardingWithSharedKeyRequest request)
+        {
+            name = request.getName();
+            final int running = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running, Math::max);
+            calls.add("onboard " + name);
+            return this;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding withCertificate(final OnboardingWithCertificateRequest request)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<CoreSystems, URI> getEndpoints()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public DeviceRegistryOnboarding resume(final Map<CoreSystems, URI> endpoints)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SystemRegistryOnboarding registerDevice(final DeviceRegistryEntry entry)
+        {
+            calls.add("registerDevice " + name);
+            entry.setId(1L);
+            entry.getProvidedDevice().setId(2L);
+            return this;
+        }
+
+        @Override
+        public SystemRegistryOnboarding resumeDevice(final DeviceRegistryEntry entry)
+        {
+            return this;
+        }
+
+        @Override
+        public OnboardingClient removeDevice(final DeviceRegistryEntry entry)
+        {
+            calls.add("removeDevice " + name);
+            entry.setId(null);
+            entry.getProvidedDevice().setId(null);
+            return this;
+        }
+
+        @Override
+        public DeviceRegistryEntry getDeviceRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ServiceRegistryOnboarding registerSystem(final SystemRegistryEntry request)
+        {
+            calls.add("registerSystem " + name);
+            request.setId(3L);
+            return this;
+        }
+
+        @Override
+        public ServiceRegistryOnboarding resumeSystem(final SystemRegistryEntry entry)
+        {
+            return this;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding removeSystem(final SystemRegistryEntry request)
+        {
+            calls.add("removeSystem " + name);
+            request.setId(null);
+            return this;
+        }
+
+        @Override
+        public SystemRegistryEntry getSystemRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ArrowheadClient getClient()
+        {
+            return null;
+        }
+
+        @Override
+        public ServiceRegistryEntry getServiceRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ArrowheadClient registerService(final ServiceRegistryEntry request) throws TransportException
+        {
+            try
+            {
+                Thread.sleep(5);
+                calls.add("registerService " + name);
+                if (name.equals(failingName))
+                {
+                    throw new TransportException("service registry unreachable");
+                }
+                return null;
+            }
+            catch (final InterruptedException e)
+            {
+                throw new TransportException(e);
+            }
+            finally
+            {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        @Override
+        public SystemRegistryOnboarding removeService(final ServiceRegistryEntry request)
+        {
+            return this;
+        }
+
+        @Override
+        public boolean isRegistered(final DeviceRegistryEntry entry)
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isRegistered(final SystemRegistryEntry entry)
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isRegistered(final ServiceRegistryEntry entry)
+        {
+            return true;
+        }
+
+        @Override
+        public ArrowheadClient resumeService(final ServiceRegistryEntry entry)
+        {
+            return null;
+        }
+
+        @Override
+        public BulkResult registerServices(final Collection<ServiceRegistryEntry> requests)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BulkResult removeServices(final Collection<ServiceRegistryEntry> requests)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package eu.arrowhead.onboarding;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaseRenewerTest
+{
+    private static LeaseRenewer leaseRenewer()
+    {
+        return new LeaseRenewer(Runnable::run)
+                .withRenewAt(0.5)
+                .withJitter(0)
+                .withBatchWindow(0, TimeUnit.MILLISECONDS)
+                .withRetryDelay(50, TimeUnit.MILLISECONDS);
+    }
+
+    private static LocalDateTime inMillis(final long millis)
+    {
+        return LocalDateTime.now().plus(millis, ChronoUnit.MILLIS);
+    }
+
+    @Test
+    void renewsBeforeEndOfValidity() throws InterruptedException
+    {
+        final LeaseRenewer leaseRenewer = leaseRenewer();
+        final CountDownLatch renewed = new CountDownLatch(2);
+        leaseRenewer.track("device", inMillis(200), () -> {
+            renewed.countDown();
+            return inMillis(200);
+        });
+
+        assertTrue(renewed.await(2, TimeUnit.SECONDS));
+        assertEquals(1, leaseRenewer.size());
+        leaseRenewer.clear();
+    }
+
+    @Test
+    void stopsTrackingIfRenewalReturnsNull() throws InterruptedException
+    {
+        final LeaseRenewer leaseRenewer = leaseRenewer();
+        final AtomicInteger renewals = new AtomicInteger();
+        leaseRenewer.track("device", inMillis(100), () -> {
+            renewals.incrementAndGet();
+            return null;
+        });
+        Thread.sleep(300);
+
+        assertEquals(1, renewals.get());
+        assertEquals(0, leaseRenewer.size());
+        assertEquals(Long.MAX_VALUE, leaseRenewer.getNextRenewalMillis());
+    }
+
+    @Test
+    void retriesFailedRenewalUntilExpiryAndReportsExpiredLease() throws InterruptedException
+    {
+        final List<String> expired = new CopyOnWriteArrayList<>();
+        final CountDownLatch reported = new CountDownLatch(1);
+        final LeaseRenewer leaseRenewer = leaseRenewer().withExpiryListener((name, failure) -> {
+            expired.add(name);
+            reported.countDown();
+        });
+        final AtomicInteger attempts = new AtomicInteger();
+        leaseRenewer.track("system", inMillis(300), () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("registry unreachable");
+        });
+
+        assertTrue(reported.await(2, TimeUnit.SECONDS));
+        final int attemptsAtExpiry = attempts.get();
+        Thread.sleep(200);
+
+        assertEquals(1, expired.size());
+        assertEquals("system", expired.get(0));
+        assertEquals(0, leaseRenewer.size());
+        assertEquals(attemptsAtExpiry, attempts.get());
+        assertTrue(attemptsAtExpiry >= 2 && attemptsAtExpiry <= 6, "attempts: " + attemptsAtExpiry);
+    }
+
+    @Test
+    void recoversOnceRenewalSucceedsAgain() throws InterruptedException
+    {
+        final LeaseRenewer leaseRenewer = leaseRenewer();
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch renewed = new CountDownLatch(1);
+        leaseRenewer.track("service-0", inMillis(400), () -> {
+            if (attempts.incrementAndGet() < 2)
+            {
+                throw new IllegalStateException("registry unreachable");
+            }
+            renewed.countDown();
+            return inMillis(60000);
+        });
+
+        assertTrue(renewed.await(2, TimeUnit.SECONDS));
+        assertEquals(1, leaseRenewer.size());
+        assertTrue(leaseRenewer.getNextRenewalMillis() > System.currentTimeMillis() + 20000);
+        leaseRenewer.clear();
+    }
+
+    @Test
+    void ignoresEntriesWithoutEndOfValidity()
+    {
+        final LeaseRenewer leaseRenewer = leaseRenewer();
+        leaseRenewer.track("device", null, () -> inMillis(100));
+
+        assertEquals(0, leaseRenewer.size());
+    }
+}
@@ -0,0 +1,127 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.services.model.ArrowheadDevice;
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.onboarding.OnboardingPipeline.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OnboardingCheckpointStoreTest
+{
+    private static final URI DEVICE_REGISTRY = URI.create("https://127.0.0.1:8439/deviceregistry");
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException
+    {
+        directory = Files.createTempDirectory("checkpoint");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static OnboardingCheckpoint checkpoint(final LocalDateTime endOfValidity)
+    {
+        final OnboardingCheckpoint checkpoint = new OnboardingCheckpoint("sensor");
+        checkpoint.setEndpoints(Collections.singletonMap(CoreSystems.DEVICE_REGISTRY, DEVICE_REGISTRY));
+        checkpoint.completed(Stage.ONBOARDING);
+        checkpoint.setDeviceEntry(new DeviceRegistryEntry(7L, "00:11:22:33:44:55", endOfValidity, new ArrowheadDevice(3L, "sensor")));
+        checkpoint.completed(Stage.DEVICE_REGISTRATION);
+        return checkpoint;
+    }
+
+    @Test
+    void loadsSavedCheckpoint() throws IOException
+    {
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("state").resolve("sensor.json"));
+        final LocalDateTime endOfValidity = LocalDateTime.now().plusHours(1);
+        store.save(checkpoint(endOfValidity));
+
+        final OnboardingCheckpoint loaded = store.load();
+        assertNotNull(loaded);
+        assertEquals("sensor", loaded.getName());
+        assertEquals(Stage.DEVICE_REGISTRATION, loaded.getStage());
+        assertEquals(DEVICE_REGISTRY, loaded.getEndpoints().get(CoreSystems.DEVICE_REGISTRY));
+        assertEquals(7L, loaded.getDeviceEntry().getId().longValue());
+        assertEquals(3L, loaded.getDeviceEntry().getProvidedDevice().getId().longValue());
+        assertEquals(endOfValidity, loaded.getDeviceEntry().getEndOfValidity());
+        assertNotNull(loaded.getSavedAt());
+        assertTrue(loaded.canResume(Stage.DEVICE_REGISTRATION));
+        assertFalse(loaded.canResume(Stage.SYSTEM_REGISTRATION));
+    }
+
+    @Test
+    void replacesCheckpointWithoutLeavingTemporaryFile() throws IOException
+    {
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("sensor.json"));
+        store.save(new OnboardingCheckpoint("sensor"));
+        store.save(checkpoint(LocalDateTime.now().plusHours(1)));
+
+        assertEquals(Stage.DEVICE_REGISTRATION, store.load().getStage());
+        try (Stream<Path> files = Files.list(directory))
+        {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void expiredEntryIsNotResumable() throws IOException
+    {
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("sensor.json"));
+        store.save(checkpoint(LocalDateTime.now().minusMinutes(1)));
+
+        final OnboardingCheckpoint loaded = store.load();
+        assertTrue(loaded.canResume(Stage.ONBOARDING));
+        assertFalse(loaded.canResume(Stage.DEVICE_REGISTRATION));
+    }
+
+    @Test
+    void missingOrUnreadableCheckpointLoadsAsNull() throws IOException
+    {
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("sensor.json"));
+        assertNull(store.load());
+
+        Files.write(store.getFile(), "{\"name\":".getBytes(StandardCharsets.UTF_8));
+        assertNull(store.load());
+    }
+
+    @Test
+    void deleteRemovesCheckpoint() throws IOException
+    {
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("sensor.json"));
+        store.save(checkpoint(LocalDateTime.now().plusHours(1)));
+        store.delete();
+
+        assertFalse(Files.exists(store.getFile()));
+        assertNull(store.load());
+        store.delete();
+    }
+}
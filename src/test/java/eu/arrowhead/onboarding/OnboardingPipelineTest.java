@@ -0,0 +1,166 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.onboarding.OnboardingPipeline.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OnboardingPipelineTest
+{
+    private ExecutorService executor;
+
+    @BeforeEach
+    void createExecutor()
+    {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsStagesInOrder()
+    {
+        final List<Stage> order = new CopyOnWriteArrayList<>();
+        final OnboardingPipeline pipeline = new OnboardingPipeline(
+                "sensor", executor,
+                ignored -> { order.add(Stage.ONBOARDING); return null; },
+                onboarding -> { order.add(Stage.DEVICE_REGISTRATION); return null; },
+                device -> { order.add(Stage.SYSTEM_REGISTRATION); return null; },
+                system -> { order.add(Stage.SERVICE_REGISTRATION); return null; });
+
+        assertNull(pipeline.serviceRegistration().join());
+        assertEquals(Arrays.asList(Stage.values()), order);
+        assertEquals(4, pipeline.getDurations().size());
+        assertFalse(pipeline.isFailed());
+    }
+
+    @Test
+    void failedStageFailsLaterStages()
+    {
+        final IllegalStateException failure = new IllegalStateException("device registry unreachable");
+        final List<Stage> order = new CopyOnWriteArrayList<>();
+        final OnboardingPipeline pipeline = new OnboardingPipeline(
+                "sensor", executor,
+                ignored -> null,
+                onboarding -> { throw failure; },
+                device -> { order.add(Stage.SYSTEM_REGISTRATION); return null; },
+                system -> { order.add(Stage.SERVICE_REGISTRATION); return null; });
+
+        assertSame(failure, assertThrows(CompletionException.class, () -> pipeline.serviceRegistration().join()).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, () -> pipeline.systemRegistration().join()).getCause());
+        assertTrue(order.isEmpty());
+        assertTrue(pipeline.isFailed());
+    }
+
+    @Test
+    void cancelInterruptsRunningStageAndClearsInterrupt() throws Exception
+    {
+        final CountDownLatch running = new CountDownLatch(1);
+        final List<Stage> order = new CopyOnWriteArrayList<>();
+        final OnboardingPipeline pipeline = new OnboardingPipeline(
+                "sensor", executor,
+                ignored -> {
+                    running.countDown();
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    return null;
+                },
+                onboarding -> { order.add(Stage.DEVICE_REGISTRATION); return null; },
+                device -> null,
+                system -> null);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        pipeline.deviceRegistration().cancel(true);
+
+        assertThrows(CancellationException.class, () -> pipeline.serviceRegistration().join());
+        assertTrue(pipeline.isCancelled());
+        assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS));
+        assertTrue(order.isEmpty());
+    }
+
+    @Test
+    void cancelAfterCommitHasNoEffect() throws Exception
+    {
+        final AtomicReference<OnboardingPipeline> self = new AtomicReference<>();
+        final CountDownLatch committed = new CountDownLatch(1);
+        final CompletableFuture<Void> release = new CompletableFuture<>();
+        final OnboardingPipeline pipeline = new OnboardingPipeline(
+                "sensor", executor,
+                ignored -> null,
+                onboarding -> null,
+                device -> null,
+                system -> {
+                    assertTrue(self.get().commit());
+                    committed.countDown();
+                    release.join();
+                    return (ArrowheadClient) null;
+                });
+        self.set(pipeline);
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+
+        assertFalse(pipeline.serviceRegistration().cancel(true));
+        pipeline.cancel();
+        release.complete(null);
+
+        assertNull(pipeline.serviceRegistration().join());
+        assertFalse(pipeline.isCancelled());
+        assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void commitFailsAfterCancel() throws Exception
+    {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CompletableFuture<Boolean> commit = new CompletableFuture<>();
+        final AtomicReference<OnboardingPipeline> self = new AtomicReference<>();
+        final OnboardingPipeline pipeline = new OnboardingPipeline(
+                "sensor", executor,
+                ignored -> null,
+                onboarding -> null,
+                device -> null,
+                system -> {
+                    running.countDown();
+                    try
+                    {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        commit.complete(self.get().commit());
+                        throw new CancellationException("cancelled");
+                    }
+                    return null;
+                });
+        self.set(pipeline);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        pipeline.cancel();
+
+        assertFalse(commit.get(5, TimeUnit.SECONDS));
+        assertNotNull(assertThrows(CancellationException.class, () -> pipeline.serviceRegistration().join()));
+    }
+}
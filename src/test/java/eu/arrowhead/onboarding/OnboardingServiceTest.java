@@ -0,0 +1,531 @@
+package eu.arrowhead.onboarding;
+
+import eu.arrowhead.client.ArrowheadClient;
+import eu.arrowhead.client.misc.CoreSystems;
+import eu.arrowhead.client.services.DeviceRegistry;
+import eu.arrowhead.client.services.EventHandler;
+import eu.arrowhead.client.services.OnboardingController;
+import eu.arrowhead.client.services.Orchestrator;
+import eu.arrowhead.client.services.ServiceRegistry;
+import eu.arrowhead.client.services.SystemRegistry;
+import eu.arrowhead.client.services.request.DeviceRegistryEntry;
+import eu.arrowhead.client.services.request.OnboardingRequest;
+import eu.arrowhead.client.services.request.OnboardingWithCertificateRequest;
+import eu.arrowhead.client.services.request.OnboardingWithSharedKeyRequest;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.services.request.SystemRegistryEntry;
+import eu.arrowhead.client.transport.HttpStatusException;
+import eu.arrowhead.client.transport.Transport;
+import eu.arrowhead.client.transport.TransportException;
+import eu.arrowhead.onboarding.services.BulkResult;
+import eu.arrowhead.onboarding.services.DeviceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.ServiceRegistryOnboarding;
+import eu.arrowhead.onboarding.services.SystemRegistryOnboarding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OnboardingServiceTest
+{
+    private static final Duration DEADLINE_MARGIN = Duration.ofSeconds(3);
+
+    private ExecutorService executor;
+    private FakeRegistries registries;
+    private Sensor sensor;
+    private final List<LeaseRenewer.Renewal> renewals = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startSensor() throws Exception
+    {
+        executor = Executors.newCachedThreadPool();
+        registries = new FakeRegistries();
+        sensor = new Sensor(registries);
+        sensor.setLeaseRenewer(new LeaseRenewer(executor)
+        {
+            @Override
+            public synchronized void track(final String name, final LocalDateTime endOfValidity, final Renewal renewal)
+            {
+                renewals.add(renewal);
+            }
+        });
+        sensor.start();
+        for (int i = 0; i < 500 && renewals.size() < 3; i++)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(3, renewals.size());
+    }
+
+    @AfterEach
+    void shutdownExecutor()
+    {
+        registries.released = true;
+        executor.shutdownNow();
+    }
+
+    private Future<Boolean> renewDevice()
+    {
+        // reports whether the interrupt meant for the renewal leaked into the thread running it
+        return executor.submit(() -> {
+            try
+            {
+                renewals.get(0).renew();
+            }
+            catch (final Exception e)
+            {
+                registries.calls.add("renewal failed");
+            }
+            return Thread.currentThread().isInterrupted();
+        });
+    }
+
+    @Test
+    void stopInterruptsRunningRenewal() throws Exception
+    {
+        registries.blockRegistrations = true;
+        final Future<Boolean> renewal = renewDevice();
+        assertTrue(registries.blocked.await(5, TimeUnit.SECONDS));
+
+        final OffboardingLeftovers leftovers = assertTimeout(DEADLINE_MARGIN, () -> sensor.stop(10, TimeUnit.SECONDS));
+
+        assertTrue(leftovers.isEmpty(), leftovers.toString());
+        assertFalse(renewal.get(5, TimeUnit.SECONDS));
+        assertTrue(registries.calls.contains("renewal failed"));
+        assertTrue(registries.calls.contains("removeDevice"));
+    }
+
+    @Test
+    void stopGivesUpAtDeadlineWhileRenewalHoldsLock() throws Exception
+    {
+        registries.blockRegistrations = true;
+        registries.interruptible = false;
+        final Future<Boolean> renewal = renewDevice();
+        assertTrue(registries.blocked.await(5, TimeUnit.SECONDS));
+
+        final OffboardingLeftovers leftovers = assertTimeout(DEADLINE_MARGIN, () -> sensor.stop(200, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, leftovers.getServices().size());
+        assertEquals(1, leftovers.getSystems().size());
+        assertEquals(1, leftovers.getDevices().size());
+        assertTrue(leftovers.getFailure() instanceof TimeoutException);
+        assertFalse(registries.calls.contains("removeServices"));
+        assertNotNull(sensor.get());
+
+        registries.released = true;
+        assertFalse(renewal.get(5, TimeUnit.SECONDS));
+        assertTrue(sensor.stop(5, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    void stopEndsAtDeadlineWhileRemovalHangs() throws Exception
+    {
+        registries.blockRemovals = true;
+
+        final OffboardingLeftovers leftovers = assertTimeout(DEADLINE_MARGIN, () -> sensor.stop(200, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, leftovers.getServices().size());
+        assertEquals(1, leftovers.getSystems().size());
+        assertEquals(1, leftovers.getDevices().size());
+        assertTrue(leftovers.getFailure() instanceof TimeoutException);
+        assertSame(leftovers, sensor.getLeftovers());
+    }
+
+    @Test
+    void renewalRegistersBeforeRemovingOldEntry() throws Exception
+    {
+        final DeviceRegistryEntry old = sensor.deviceRegistryEntry.get();
+        final int before = registries.calls.size();
+
+        assertFalse(renewDevice().get(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("registerDevice", "removeDevice"), registries.calls.subList(before, registries.calls.size()));
+        final DeviceRegistryEntry renewed = sensor.deviceRegistryEntry.get();
+        assertNotSame(old, renewed);
+        assertNotNull(renewed.getId());
+        assertNotNull(renewed.getProvidedDevice().getId());
+    }
+
+    @Test
+    void renewalRejectedAsDuplicateRestoresOldEntryIfReplacementFails() throws Exception
+    {
+        final DeviceRegistryEntry old = sensor.deviceRegistryEntry.get();
+        final int before = registries.calls.size();
+        registries.rejectedRegistrations.set(2);
+
+        assertFalse(renewDevice().get(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("registerDevice", "removeDevice", "registerDevice", "registerDevice", "renewal failed"),
+                     registries.calls.subList(before, registries.calls.size()));
+        assertSame(old, sensor.deviceRegistryEntry.get());
+        assertNotNull(old.getId());
+    }
+
+    @Test
+    void resumeRegistersLostSystemAndItsServicesAgain() throws Exception
+    {
+        final Path directory = Files.createTempDirectory("checkpoint");
+        final OnboardingCheckpointStore store = new OnboardingCheckpointStore(directory.resolve("sensor.json"));
+        try
+        {
+            final Sensor first = new Sensor(registries);
+            first.setLeaseRenewer(null);
+            first.setCheckpointStore(store);
+            first.start();
+            registries.systemLost = true;
+            final int before = registries.calls.size();
+
+            final Sensor restarted = new Sensor(registries);
+            restarted.setLeaseRenewer(null);
+            restarted.setCheckpointStore(store);
+            restarted.start();
+
+            assertEquals(Arrays.asList("resume", "isRegisteredDevice", "isRegisteredSystem", "removeSystem", "registerSystem", "removeService",
+                                       "registerService"),
+                         registries.calls.subList(before, registries.calls.size()));
+            assertNotNull(restarted.systemRegistryEntry.get().getId());
+        }
+        finally
+        {
+            store.delete();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static class Sensor extends OnboardingService
+    {
+        private Sensor(final OnboardingClient onboardingClient)
+        {
+            super(onboardingClient, 1L, ChronoUnit.HOURS);
+        }
+
+        @Override
+        protected String getSharedKey()
+        {
+            return "secret";
+        }
+
+        @Override
+        protected String getSystemName()
+        {
+            return "sensor";
+        }
+
+        @Override
+        protected String getSystemAddress()
+        {
+            return "127.0.0.1";
+        }
+
+        @Override
+        protected int getSystemPort()
+        {
+            return 8080;
+        }
+
+        @Override
+        protected String[] getServiceInterfaces()
+        {
+            return new String[] { "HTTP-INSECURE-JSON" };
+        }
+
+        @Override
+        protected String getServiceUri()
+        {
+            return "/sensor";
+        }
+    }
+
+    /**
+     * Records the calls to the registries, which assign ids like the real ones; registrations can be rejected, and registrations or
+     * removals can be made to block until released, with or without giving up on an interrupt.
+     */
+    private class FakeRegistries implements OnboardingClient, DeviceRegistryOnboarding, SystemRegistryOnboarding, ServiceRegistryOnboarding,
+                                            ArrowheadClient
+    {
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final AtomicInteger rejectedRegistrations = new AtomicInteger();
+        private volatile boolean blockRegistrations;
+        private volatile boolean blockRemovals;
+        private volatile boolean interruptible = true;
+        private volatile boolean released;
+        private volatile boolean systemLost;
+
+        private void call(final String call, final boolean block) throws TransportException
+        {
+            calls.add(call);
+            if (call.startsWith("register") && rejectedRegistrations.getAndDecrement() > 0)
+            {
+                throw new HttpStatusException(409, "Conflict", null);
+            }
+            if (!block)
+            {
+                return;
+            }
+
+            blocked.countDown();
+            while (!released)
+            {
+                try
+                {
+                    Thread.sleep(10);
+                }
+                catch (final InterruptedException e)
+                {
+                    if (interruptible)
+                    {
+                        throw new TransportException(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Executor getExecutor()
+        {
+            return executor;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding plain(final OnboardingRequest request)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DeviceRegistryOnboarding withSharedKey(final OnboardingWithSharedKeyRequest request)
+        {
+            calls.add("onboard");
+            return this;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding withCertificate(final OnboardingWithCertificateRequest request)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<CoreSystems, URI> getEndpoints()
+        {
+            return Collections.singletonMap(CoreSystems.DEVICE_REGISTRY, URI.create("https://127.0.0.1:8439/deviceregistry"));
+        }
+
+        @Override
+        public DeviceRegistryOnboarding resume(final Map<CoreSystems, URI> endpoints)
+        {
+            calls.add("resume");
+            return this;
+        }
+
+        @Override
+        public SystemRegistryOnboarding registerDevice(final DeviceRegistryEntry entry) throws TransportException
+        {
+            call("registerDevice", blockRegistrations);
+            entry.setId(1L);
+            entry.getProvidedDevice().setId(2L);
+            return this;
+        }
+
+        @Override
+        public SystemRegistryOnboarding resumeDevice(final DeviceRegistryEntry entry)
+        {
+            return this;
+        }
+
+        @Override
+        public OnboardingClient removeDevice(final DeviceRegistryEntry entry) throws TransportException
+        {
+            call("removeDevice", blockRemovals);
+            entry.setId(null);
+            entry.getProvidedDevice().setId(null);
+            return this;
+        }
+
+        @Override
+        public boolean isRegistered(final DeviceRegistryEntry entry)
+        {
+            calls.add("isRegisteredDevice");
+            return true;
+        }
+
+        @Override
+        public DeviceRegistryEntry getDeviceRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ServiceRegistryOnboarding registerSystem(final SystemRegistryEntry request) throws TransportException
+        {
+            call("registerSystem", blockRegistrations);
+            request.setId(3L);
+            return this;
+        }
+
+        @Override
+        public ServiceRegistryOnboarding resumeSystem(final SystemRegistryEntry entry)
+        {
+            return this;
+        }
+
+        @Override
+        public DeviceRegistryOnboarding removeSystem(final SystemRegistryEntry request) throws TransportException
+        {
+            call("removeSystem", blockRemovals);
+            request.setId(null);
+            return this;
+        }
+
+        @Override
+        public boolean isRegistered(final SystemRegistryEntry entry)
+        {
+            calls.add("isRegisteredSystem");
+            return !systemLost;
+        }
+
+        @Override
+        public SystemRegistryEntry getSystemRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ArrowheadClient registerService(final ServiceRegistryEntry request) throws TransportException
+        {
+            call("registerService", blockRegistrations);
+            request.setId(4L);
+            return this;
+        }
+
+        @Override
+        public SystemRegistryOnboarding removeService(final ServiceRegistryEntry request) throws TransportException
+        {
+            call("removeService", blockRemovals);
+            request.setId(null);
+            return this;
+        }
+
+        @Override
+        public boolean isRegistered(final ServiceRegistryEntry entry)
+        {
+            return true;
+        }
+
+        @Override
+        public ArrowheadClient resumeService(final ServiceRegistryEntry entry)
+        {
+            return this;
+        }
+
+        @Override
+        public BulkResult registerServices(final Collection<ServiceRegistryEntry> requests)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BulkResult removeServices(final Collection<ServiceRegistryEntry> requests) throws TransportException
+        {
+            call("removeServices", blockRemovals);
+            final BulkResult result = new BulkResult();
+            requests.forEach(request -> result.addSuccess(request, request));
+            return result;
+        }
+
+        @Override
+        public ServiceRegistryEntry getServiceRegistryEntry()
+        {
+            return null;
+        }
+
+        @Override
+        public ArrowheadClient getClient()
+        {
+            return this;
+        }
+
+        @Override
+        public OnboardingController onboardingController()
+        {
+            return null;
+        }
+
+        @Override
+        public DeviceRegistry deviceRegistry()
+        {
+            return null;
+        }
+
+        @Override
+        public SystemRegistry systemRegistry()
+        {
+            return null;
+        }
+
+        @Override
+        public ServiceRegistry serviceRegistry()
+        {
+            return null;
+        }
+
+        @Override
+        public Orchestrator orchestrator()
+        {
+            return null;
+        }
+
+        @Override
+        public EventHandler eventHandler()
+        {
+            return null;
+        }
+
+        @Override
+        public ServiceRegistryOnboarding serviceOffboarding()
+        {
+            return this;
+        }
+
+        @Override
+        public SystemRegistryOnboarding systemOffboarding()
+        {
+            return this;
+        }
+
+        @Override
+        public Transport getTransport()
+        {
+            return null;
+        }
+    }
+}
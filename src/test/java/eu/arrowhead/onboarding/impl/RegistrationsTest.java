@@ -0,0 +1,127 @@
+package eu.arrowhead.onboarding.impl;
+
+import eu.arrowhead.client.transport.BackoffPolicy;
+import eu.arrowhead.client.transport.HttpStatusException;
+import eu.arrowhead.client.transport.RetryBudget;
+import eu.arrowhead.client.transport.RetryHandler;
+import eu.arrowhead.client.transport.TransportException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistrationsTest
+{
+    private static final HttpStatusException CONFLICT = new HttpStatusException(409, "Conflict", null);
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger recoveries = new AtomicInteger();
+
+    private static RetryHandler retryHandler()
+    {
+        final RetryHandler retryHandler = new RetryHandler();
+        retryHandler.setMaxRetries(3);
+        retryHandler.setBackoffPolicy(BackoffPolicy.fixed(1, TimeUnit.MILLISECONDS));
+        retryHandler.setRetryBudget(RetryBudget.unlimited());
+        return retryHandler;
+    }
+
+    /**
+     * Sends the registration like the transport does, retrying inside the same retry handler: the registry applies the first request
+     * but its response is lost, and answers the resent one with the given rejection.
+     */
+    private String post(final RetryHandler retryHandler, final TransportException rejection) throws TransportException
+    {
+        return retryHandler.invoke(() -> {
+            if (requests.incrementAndGet() == 1)
+            {
+                throw new TransportException(new IOException("connection reset"));
+            }
+            throw rejection;
+        });
+    }
+
+    private String recover()
+    {
+        recoveries.incrementAndGet();
+        return "earlier entry";
+    }
+
+    @Test
+    void recoversEntryOfRequestWhoseResponseWasLost() throws TransportException
+    {
+        final RetryHandler retryHandler = retryHandler();
+
+        final String entry = Registrations.register(retryHandler, () -> post(retryHandler, CONFLICT), this::recover);
+
+        assertEquals("earlier entry", entry);
+        assertEquals(2, requests.get());
+        assertEquals(1, recoveries.get());
+    }
+
+    @Test
+    void recoversAsyncEntryOfRequestWhoseResponseWasLost()
+    {
+        final RetryHandler retryHandler = retryHandler();
+
+        final String entry = Registrations.registerAsync(retryHandler, () -> retryHandler.invokeAsync(() -> {
+            final CompletableFuture<String> response = new CompletableFuture<>();
+            response.completeExceptionally(requests.incrementAndGet() == 1 ? new TransportException(new IOException("connection reset")) : CONFLICT);
+            return response;
+        }), () -> CompletableFuture.completedFuture(recover())).join();
+
+        assertEquals("earlier entry", entry);
+        assertEquals(2, requests.get());
+        assertEquals(1, recoveries.get());
+    }
+
+    @Test
+    void duplicateOfRequestSentOnceIsNotRecovered()
+    {
+        final RetryHandler retryHandler = retryHandler();
+
+        final TransportException failure = assertThrows(TransportException.class, () -> Registrations.register(retryHandler, () -> {
+            requests.incrementAndGet();
+            throw CONFLICT;
+        }, this::recover));
+
+        assertSame(CONFLICT, failure);
+        assertEquals(1, requests.get());
+        assertEquals(0, recoveries.get());
+    }
+
+    @Test
+    void badRequestIsOnlyDuplicateIfItsErrorMessageSaysSo() throws TransportException
+    {
+        final RetryHandler retryHandler = retryHandler();
+        final HttpStatusException invalid = new HttpStatusException(400, "Bad Request", null, "{\"errorMessage\":\"Port must be positive\"}");
+
+        assertSame(invalid, assertThrows(TransportException.class, () -> Registrations.register(retryHandler, () -> post(retryHandler, invalid),
+                                                                                                 this::recover)));
+        assertEquals(0, recoveries.get());
+
+        requests.set(0);
+        final HttpStatusException duplicate = new HttpStatusException(400, "Bad Request", null, "{\"errorMessage\":\"System already exists\"}");
+        assertEquals("earlier entry", Registrations.register(retryHandler, () -> post(retryHandler, duplicate), this::recover));
+        assertEquals(1, recoveries.get());
+    }
+
+    @Test
+    void classifiesDuplicates()
+    {
+        assertTrue(Registrations.isDuplicate(CONFLICT));
+        assertTrue(Registrations.isDuplicate(new CompletionException(new HttpStatusException(400, "Bad Request", null, "Duplicate entry"))));
+        assertFalse(Registrations.isDuplicate(new HttpStatusException(400, "Bad Request", null, null)));
+        assertFalse(Registrations.isDuplicate(new HttpStatusException(404, "Not Found", null, "System already exists")));
+        assertFalse(Registrations.isDuplicate(new TransportException(new IOException("connection reset"))));
+    }
+}
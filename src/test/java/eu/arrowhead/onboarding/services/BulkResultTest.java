@@ -0,0 +1,66 @@
+package eu.arrowhead.onboarding.services;
+
+import eu.arrowhead.client.services.model.ArrowheadService;
+import eu.arrowhead.client.services.request.ServiceRegistryEntry;
+import eu.arrowhead.client.transport.TransportException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkResultTest
+{
+    private static ServiceRegistryEntry entry(final String serviceDefinition)
+    {
+        return new ServiceRegistryEntry(null, new ArrowheadService(serviceDefinition), "/" + serviceDefinition);
+    }
+
+    @Test
+    void keepsRequestOrderAndSeparatesFailures()
+    {
+        final ServiceRegistryEntry temperature = entry("temperature");
+        final ServiceRegistryEntry humidity = entry("humidity");
+        final ServiceRegistryEntry pressure = entry("pressure");
+        final ServiceRegistryEntry registered = entry("temperature");
+        final TransportException failure = new TransportException("service registry unreachable");
+
+        final BulkResult result = new BulkResult();
+        result.addSuccess(temperature, registered);
+        result.addFailure(humidity, failure);
+        result.addSuccess(pressure, pressure);
+
+        assertFalse(result.isSuccess());
+        assertEquals(3, result.getItems().size());
+        assertSame(humidity, result.getItems().get(1).getRequest());
+        assertSame(registered, result.getItems().get(0).getResponse());
+        assertEquals(Arrays.asList(temperature, pressure), result.getSucceeded());
+        assertEquals(1, result.getFailures().size());
+        assertSame(failure, result.getFailures().get(0).getFailure());
+        assertNull(result.getFailures().get(0).getResponse());
+    }
+
+    @Test
+    void emptyResultIsSuccess()
+    {
+        final BulkResult result = new BulkResult();
+
+        assertTrue(result.isSuccess());
+        assertEquals(Collections.emptyList(), result.getSucceeded());
+    }
+
+    @Test
+    void itemsCannotBeModified()
+    {
+        final BulkResult result = new BulkResult();
+        result.addSuccess(entry("temperature"), entry("temperature"));
+
+        assertThrows(UnsupportedOperationException.class, () -> result.getItems().clear());
+    }
+}